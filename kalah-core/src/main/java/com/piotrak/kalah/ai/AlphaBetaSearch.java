@@ -0,0 +1,340 @@
+package com.piotrak.kalah.ai;
+
+import com.piotrak.kalah.endgame.EndgameDatabase;
+import com.piotrak.kalah.engine.KalahVariant;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Iterative deepening negamax search with alpha-beta pruning.
+ * <p>
+ * Values are the number of rocks the player to move will still win from the pits, the kalahs are added
+ * at the root. This keeps the transposition table entries independent of the path to a position.
+ * An extra turn is searched as a move of the same player with the window shifted instead of negated.
+ * <p>
+ * Every iteration searches the best move of the previous iteration first and the remaining root moves in
+ * parallel on a fork-join pool, sharing the best value found so far as their lower bound. A search with a
+ * parallelism of one has no pool, it searches all the root moves on the calling thread.
+ * <p>
+ * Positions covered by the endgame database are not searched, their exact value is looked up instead. The
+ * database only covers Kalah(6, 6), games of other variants are searched with their own Zobrist keys.
+ */
+public class AlphaBetaSearch implements AutoCloseable {
+
+  /**
+   * Greater than the rocks of any supported variant, small enough for the transposition table entries.
+   */
+  private static final int INFINITY = 10_000;
+  private static final int MAX_PLY = 128;
+  private static final int TIME_CHECK_MASK = 4096 - 1;
+
+  private final ThreadLocal<Worker> workers = ThreadLocal.withInitial(Worker::new);
+  /**
+   * Searches the root moves after the first one, null if they are searched on the calling thread.
+   */
+  private final ForkJoinPool pool;
+  private final TranspositionTable table;
+  private final EndgameDatabase endgameDatabase;
+  private final Map<KalahVariant, Zobrist> zobristKeys = new ConcurrentHashMap<>();
+
+  /**
+   * @param parallelism number of threads searching the root moves, 0 for one per processor
+   * @param transpositionTableBits log2 of the number of transposition table entries
+   * @param endgameDatabase exact values of the positions it covers
+   */
+  public AlphaBetaSearch(int parallelism, int transpositionTableBits, EndgameDatabase endgameDatabase) {
+    int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+    this.pool = threads > 1 ? new ForkJoinPool(threads) : null;
+    this.table = new TranspositionTable(transpositionTableBits);
+    this.endgameDatabase = endgameDatabase;
+  }
+
+  /**
+   * Searches for the best move of the player to move in a Kalah(6, 6) game.
+   * @param pits the board, it is not modified
+   * @param playerOneMove true if it's player one's turn
+   * @param timeBudget time after which the search stops and returns the result of the last finished depth
+   * @param maxDepth maximum search depth in plies
+   * @return the best move found
+   */
+  public SearchResult search(int[] pits, boolean playerOneMove, Duration timeBudget, int maxDepth) {
+    return search(KalahVariant.STANDARD, pits, playerOneMove, timeBudget, maxDepth);
+  }
+
+  /**
+   * Searches for the best move of the player to move.
+   * @param variant rules of the game
+   * @param pits the board, it is not modified
+   * @param playerOneMove true if it's player one's turn
+   * @param timeBudget time after which the search stops and returns the result of the last finished depth
+   * @param maxDepth maximum search depth in plies
+   * @return the best move found
+   */
+  public SearchResult search(KalahVariant variant, int[] pits, boolean playerOneMove, Duration timeBudget,
+    int maxDepth) {
+    long start = System.nanoTime();
+    Context context = new Context(variant, zobristKeys.computeIfAbsent(variant, Zobrist::new),
+      start + timeBudget.toNanos());
+    int[] moves = legalMoves(variant, pits, playerOneMove);
+    if (moves.length == 0) {
+      throw new IllegalStateException("There is no legal move on the board");
+    }
+    int bestPit = moves[0];
+    int bestValue = 0;
+    int completedDepth = 0;
+    for (int depth = 1; depth <= maxDepth; depth++) {
+      // the first iteration always completes so that there is a result to return
+      context.timed = depth > 1;
+      RootResult result = searchRoot(context, pits, playerOneMove, moves, depth);
+      if (context.stopped) {
+        break;
+      }
+      bestPit = result.pit();
+      bestValue = result.value();
+      completedDepth = depth;
+      moveToFront(moves, bestPit);
+    }
+    int kalahDifference = pits[variant.kalahOf(playerOneMove)] - pits[variant.kalahOf(!playerOneMove)];
+    return new SearchResult(bestPit, kalahDifference + bestValue, completedDepth, context.nodes.sum(),
+      System.nanoTime() - start);
+  }
+
+  @Override
+  public void close() {
+    if (pool != null) {
+      pool.shutdownNow();
+    }
+  }
+
+  private RootResult searchRoot(Context context, int[] pits, boolean playerOneMove, int[] moves, int depth) {
+    int[] values = new int[moves.length];
+    int[] alphas = new int[moves.length];
+    alphas[0] = -INFINITY;
+    values[0] = searchRootMove(context, pits, playerOneMove, moves[0], depth, alphas[0]);
+    if (pool == null) {
+      int alpha = values[0];
+      for (int i = 1; i < moves.length; i++) {
+        alphas[i] = alpha;
+        values[i] = searchRootMove(context, pits, playerOneMove, moves[i], depth, alpha);
+        alpha = Math.max(alpha, values[i]);
+      }
+    } else {
+      searchInParallel(context, pits, playerOneMove, moves, depth, values, alphas);
+    }
+    return bestRootMove(moves, values, alphas);
+  }
+
+  /**
+   * Searches the root moves after the first one on the pool, filling in their values and the alphas they were
+   * searched with.
+   */
+  private void searchInParallel(Context context, int[] pits, boolean playerOneMove, int[] moves, int depth,
+    int[] values, int[] alphas) {
+    AtomicInteger alpha = new AtomicInteger(values[0]);
+    List<Callable<Integer>> tasks = new ArrayList<>(moves.length - 1);
+    for (int i = 1; i < moves.length; i++) {
+      int index = i;
+      tasks.add(() -> {
+        alphas[index] = alpha.get();
+        int value = searchRootMove(context, pits, playerOneMove, moves[index], depth, alphas[index]);
+        alpha.accumulateAndGet(value, Math::max);
+        return value;
+      });
+    }
+    try {
+      List<Future<Integer>> futures = pool.invokeAll(tasks);
+      for (int i = 1; i < moves.length; i++) {
+        values[i] = futures.get(i - 1).get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      context.stopped = true;
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("Search failed", e.getCause());
+    }
+  }
+
+  /**
+   * Picks the root move with the highest value. A value that is not above the alpha its move was searched with
+   * is only an upper bound and may equal the best value while the move is worse, such moves never win.
+   * The first move is searched with an open window and alpha only grows to exact values, so there always is
+   * a move with an exact value.
+   * @param moves root moves in search order
+   * @param values value of every move
+   * @param alphas alpha every move was searched with
+   * @return the best move and its value
+   */
+  static RootResult bestRootMove(int[] moves, int[] values, int[] alphas) {
+    int best = 0;
+    for (int i = 1; i < moves.length; i++) {
+      if (values[i] > alphas[i] && values[i] > values[best]) {
+        best = i;
+      }
+    }
+    return new RootResult(moves[best], values[best]);
+  }
+
+  private int searchRootMove(Context context, int[] pits, boolean playerOneMove, int pit, int depth, int alpha) {
+    Worker worker = workers.get();
+    worker.start(context, pits);
+    try {
+      return worker.searchMove(0, playerOneMove, pit, depth, alpha, INFINITY);
+    } finally {
+      context.nodes.add(worker.nodes);
+    }
+  }
+
+  private static int[] legalMoves(KalahVariant variant, int[] pits, boolean playerOneMove) {
+    int firstPit = variant.firstPitOf(playerOneMove);
+    int count = 0;
+    int[] moves = new int[variant.getPitsPerPlayer()];
+    // pits closest to the kalah first, they are the ones giving extra turns
+    for (int pit = variant.kalahOf(playerOneMove) - 1; pit >= firstPit; pit--) {
+      if (pits[pit] > 0) {
+        moves[count++] = pit;
+      }
+    }
+    int[] legalMoves = new int[count];
+    System.arraycopy(moves, 0, legalMoves, 0, count);
+    return legalMoves;
+  }
+
+  private static void moveToFront(int[] moves, int pit) {
+    int index = 0;
+    while (moves[index] != pit) {
+      index++;
+    }
+    System.arraycopy(moves, 0, moves, 1, index);
+    moves[0] = pit;
+  }
+
+  record RootResult(int pit, int value) {}
+
+  private static final class Context {
+
+    private final KalahVariant variant;
+    private final Zobrist zobrist;
+    private final long deadline;
+    private final LongAdder nodes = new LongAdder();
+    private volatile boolean timed;
+    private volatile boolean stopped;
+
+    private Context(KalahVariant variant, Zobrist zobrist, long deadline) {
+      this.variant = variant;
+      this.zobrist = zobrist;
+      this.deadline = deadline;
+    }
+  }
+
+  /**
+   * Per-thread search state with a preallocated board for every ply.
+   */
+  private final class Worker {
+
+    private int[][] boards = new int[MAX_PLY + 1][0];
+    private Context context;
+    private KalahVariant variant;
+    private long nodes;
+
+    private void start(Context context, int[] pits) {
+      this.context = context;
+      this.variant = context.variant;
+      this.nodes = 0;
+      if (boards[0].length != pits.length) {
+        boards = new int[MAX_PLY + 1][pits.length];
+      }
+      System.arraycopy(pits, 0, boards[0], 0, pits.length);
+    }
+
+    private int searchMove(int ply, boolean playerOneMove, int pit, int depth, int alpha, int beta) {
+      int[] board = boards[ply];
+      int[] child = boards[ply + 1];
+      System.arraycopy(board, 0, child, 0, board.length);
+      int playersKalah = variant.kalahOf(playerOneMove);
+      int otherPlayersKalah = variant.kalahOf(!playerOneMove);
+
+      int lastPit = variant.move(child, pit, playerOneMove);
+      boolean finished = variant.finishIfOver(child);
+      int gain = child[playersKalah] - board[playersKalah] - (child[otherPlayersKalah] - board[otherPlayersKalah]);
+      if (finished) {
+        return gain;
+      }
+      if (variant.nextPlayerOne(lastPit, playerOneMove) == playerOneMove) {
+        return gain + negamax(ply + 1, playerOneMove, depth - 1, alpha - gain, beta - gain);
+      }
+      return gain - negamax(ply + 1, !playerOneMove, depth - 1, gain - beta, gain - alpha);
+    }
+
+    private int negamax(int ply, boolean playerOneMove, int depth, int alpha, int beta) {
+      if ((++nodes & TIME_CHECK_MASK) == 0 && context.timed && System.nanoTime() > context.deadline) {
+        context.stopped = true;
+      }
+      if (context.stopped) {
+        return 0;
+      }
+      int[] board = boards[ply];
+      if (variant == KalahVariant.STANDARD) {
+        int endgameEntry = endgameDatabase.probe(board, playerOneMove);
+        if (endgameEntry != EndgameDatabase.MISS) {
+          return EndgameDatabase.value(endgameEntry);
+        }
+      }
+      if (depth <= 0 || ply >= MAX_PLY) {
+        return 0;
+      }
+      long key = context.zobrist.hash(board, playerOneMove);
+      long entry = table.probe(key);
+      int hashMove = 0;
+      if (entry != 0) {
+        hashMove = TranspositionTable.move(entry);
+        if (TranspositionTable.depth(entry) >= depth) {
+          int value = TranspositionTable.value(entry);
+          int flag = TranspositionTable.flag(entry);
+          if (flag == TranspositionTable.EXACT
+            || flag == TranspositionTable.LOWER_BOUND && value >= beta
+            || flag == TranspositionTable.UPPER_BOUND && value <= alpha) {
+            return value;
+          }
+        }
+      }
+
+      int originalAlpha = alpha;
+      int best = -INFINITY;
+      int bestMove = 0;
+      if (hashMove != 0) {
+        best = searchMove(ply, playerOneMove, hashMove, depth, alpha, beta);
+        bestMove = hashMove;
+        alpha = Math.max(alpha, best);
+      }
+      int firstPit = variant.firstPitOf(playerOneMove);
+      for (int pit = variant.kalahOf(playerOneMove) - 1; pit >= firstPit && alpha < beta; pit--) {
+        if (pit == hashMove || board[pit] == 0) {
+          continue;
+        }
+        int value = searchMove(ply, playerOneMove, pit, depth, alpha, beta);
+        if (value > best) {
+          best = value;
+          bestMove = pit;
+          alpha = Math.max(alpha, value);
+        }
+      }
+      if (context.stopped) {
+        return 0;
+      }
+
+      int flag = best <= originalAlpha ? TranspositionTable.UPPER_BOUND
+        : best >= beta ? TranspositionTable.LOWER_BOUND : TranspositionTable.EXACT;
+      table.store(key, depth, flag, best, bestMove);
+      return best;
+    }
+  }
+}
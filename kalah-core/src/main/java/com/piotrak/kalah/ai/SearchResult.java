@@ -0,0 +1,18 @@
+package com.piotrak.kalah.ai;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Outcome of a search.
+ * @param pit best pit to move from
+ * @param score expected final difference between the mover's kalah and the opponent's kalah
+ * @param depth last fully searched depth
+ * @param nodes number of visited positions
+ * @param elapsedNanos time spent searching
+ */
+public record SearchResult(int pit, int score, int depth, long nodes, long elapsedNanos) {
+
+  public long nodesPerSecond() {
+    return elapsedNanos == 0 ? nodes : nodes * TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+  }
+}
@@ -0,0 +1,67 @@
+package com.piotrak.kalah.ai;
+
+/**
+ * Fixed size, lock-free transposition table shared by the search threads.
+ * Every slot stores the key xor-ed with the data, a torn write therefore shows up as a miss instead of
+ * returning the data of another position.
+ */
+final class TranspositionTable {
+
+  static final int EXACT = 0;
+  static final int LOWER_BOUND = 1;
+  static final int UPPER_BOUND = 2;
+
+  private static final long VALID = 1L << 32;
+
+  private final long[] keys;
+  private final long[] data;
+  private final int mask;
+
+  TranspositionTable(int sizeBits) {
+    int size = 1 << sizeBits;
+    this.keys = new long[size];
+    this.data = new long[size];
+    this.mask = size - 1;
+  }
+
+  /**
+   * Looks up a position.
+   * @param key Zobrist key
+   * @return the packed entry or 0 if the position is not in the table
+   */
+  long probe(long key) {
+    int index = (int) key & mask;
+    long entry = data[index];
+    if ((keys[index] ^ entry) != key) {
+      return 0;
+    }
+    return entry;
+  }
+
+  void store(long key, int depth, int flag, int value, int move) {
+    long entry = VALID
+      | (long) move << 26
+      | (long) flag << 24
+      | (long) Math.min(depth, 0xFF) << 16
+      | (value & 0xFFFF);
+    int index = (int) key & mask;
+    keys[index] = key ^ entry;
+    data[index] = entry;
+  }
+
+  static int value(long entry) {
+    return (short) entry;
+  }
+
+  static int depth(long entry) {
+    return (int) (entry >>> 16) & 0xFF;
+  }
+
+  static int flag(long entry) {
+    return (int) (entry >>> 24) & 0x3;
+  }
+
+  static int move(long entry) {
+    return (int) (entry >>> 26) & 0x3F;
+  }
+}
@@ -0,0 +1,39 @@
+package com.piotrak.kalah.ai;
+
+import com.piotrak.kalah.engine.KalahVariant;
+import java.util.SplittableRandom;
+
+/**
+ * Zobrist keys of the positions of a Kalah variant. The kalahs are not part of the key, what happens next only
+ * depends on the rocks still in the pits and on the player to move. The keys are drawn from a seed depending on
+ * the variant, so positions of different variants do not share keys.
+ */
+final class Zobrist {
+
+  private final long[][] pitKeys;
+  private final long playerTwoKey;
+
+  Zobrist(KalahVariant variant) {
+    int boardSize = variant.getBoardSize();
+    int totalRocks = variant.getTotalRocks();
+    pitKeys = new long[boardSize + 1][totalRocks + 1];
+    SplittableRandom random = new SplittableRandom(
+      0x6b616c6168L ^ (long) variant.getPitsPerPlayer() << 40 ^ (long) variant.getInitialRocks() << 48);
+    for (int pit = 1; pit <= boardSize; pit++) {
+      if (!variant.isKalah(pit)) {
+        for (int rocks = 1; rocks <= totalRocks; rocks++) {
+          pitKeys[pit][rocks] = random.nextLong();
+        }
+      }
+    }
+    playerTwoKey = random.nextLong();
+  }
+
+  long hash(int[] pits, boolean playerOneMove) {
+    long key = playerOneMove ? 0 : playerTwoKey;
+    for (int pit = 1; pit < pitKeys.length; pit++) {
+      key ^= pitKeys[pit][pits[pit]];
+    }
+    return key;
+  }
+}
@@ -0,0 +1,102 @@
+package com.piotrak.kalah.endgame;
+
+import static com.piotrak.kalah.engine.KalahEngine.PLAYER_ONE_START_PIT;
+import static com.piotrak.kalah.engine.KalahEngine.PLAYER_PIT_NUMBER;
+import static com.piotrak.kalah.engine.KalahEngine.PLAYER_TWO_START_PIT;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read-only view of an endgame database file, memory-mapped so that a probe is a single read from the
+ * page cache.
+ * <p>
+ * The file starts with a header (magic, format version, pits per player, maximum number of rocks, number
+ * of entries) followed by one entry per {@link EndgameIndex} position: the exact number of rocks the player
+ * to move wins from the pits with best play, and the best pit counted from the first pit of that player.
+ */
+public final class EndgameDatabase {
+
+  public static final EndgameDatabase EMPTY = new EndgameDatabase(null, null);
+  public static final int MISS = Integer.MIN_VALUE;
+
+  static final int MAGIC = 0x4B454442;
+  static final int FORMAT_VERSION = 1;
+  static final int HEADER_SIZE = 24;
+  static final int ENTRY_SIZE = 2;
+
+  private final EndgameIndex index;
+  private final ByteBuffer entries;
+
+  private EndgameDatabase(EndgameIndex index, ByteBuffer entries) {
+    this.index = index;
+    this.entries = entries;
+  }
+
+  /**
+   * Maps a database file into memory.
+   * @param file the database file
+   * @return the database
+   * @throws IOException if the file cannot be read or is not an endgame database of this board
+   */
+  public static EndgameDatabase open(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+      if (header.getInt() != MAGIC || header.getInt() != FORMAT_VERSION) {
+        throw new IOException(String.format("%s is not an endgame database", file));
+      }
+      int pitsPerPlayer = header.getInt();
+      if (pitsPerPlayer != PLAYER_PIT_NUMBER) {
+        throw new IOException(String.format("%s was generated for %s pits per player", file, pitsPerPlayer));
+      }
+      EndgameIndex index = new EndgameIndex(header.getInt());
+      long size = header.getLong();
+      if (size != index.size() || channel.size() != HEADER_SIZE + size * ENTRY_SIZE) {
+        throw new IOException(String.format("%s is truncated", file));
+      }
+      ByteBuffer entries = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE, size * ENTRY_SIZE);
+      return new EndgameDatabase(index, entries);
+    }
+  }
+
+  /**
+   * @return the maximum number of rocks in the pits of the stored positions, -1 for an empty database
+   */
+  public int getMaxSeeds() {
+    return index == null ? -1 : index.getMaxSeeds();
+  }
+
+  /**
+   * Looks up a position.
+   * @param pits the board
+   * @param playerOneMove true if it's player one's turn
+   * @return the entry of the position or {@link #MISS} if there are too many rocks left
+   */
+  public int probe(int[] pits, boolean playerOneMove) {
+    if (index == null || EndgameIndex.seedsInPits(pits) > index.getMaxSeeds()) {
+      return MISS;
+    }
+    int offset = (int) (index.rank(pits, playerOneMove) * ENTRY_SIZE);
+    return entries.get(offset) << 8 | entries.get(offset + 1) & 0xFF;
+  }
+
+  /**
+   * @param entry probed entry
+   * @return number of rocks from the pits the player to move wins over the opponent with best play
+   */
+  public static int value(int entry) {
+    return entry >> 8;
+  }
+
+  /**
+   * @param entry probed entry
+   * @param playerOneMove true if it's player one's turn
+   * @return the best pit to move from
+   */
+  public static int bestPit(int entry, boolean playerOneMove) {
+    return (playerOneMove ? PLAYER_ONE_START_PIT : PLAYER_TWO_START_PIT) + (entry & 0xFF);
+  }
+}
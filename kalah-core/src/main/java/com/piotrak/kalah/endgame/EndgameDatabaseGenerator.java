@@ -0,0 +1,185 @@
+package com.piotrak.kalah.endgame;
+
+import static com.piotrak.kalah.engine.KalahEngine.BOARD_SIZE;
+import static com.piotrak.kalah.engine.KalahEngine.PLAYER_ONE_KALAH;
+import static com.piotrak.kalah.engine.KalahEngine.PLAYER_ONE_START_PIT;
+import static com.piotrak.kalah.engine.KalahEngine.PLAYER_PIT_NUMBER;
+import static com.piotrak.kalah.engine.KalahEngine.PLAYER_TWO_KALAH;
+import static com.piotrak.kalah.engine.KalahEngine.PLAYER_TWO_START_PIT;
+
+import com.piotrak.kalah.engine.KalahEngine;
+import java.io.IOException;
+import java.lang.System.Logger.Level;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Offline generator of the endgame database.
+ * <p>
+ * A move either puts rocks into a kalah, leaving fewer rocks in the pits, or moves the player's rocks
+ * further along his own side. The positions with the same number of rocks therefore form an acyclic graph
+ * and every position is solved from positions that are already solved: all positions with fewer rocks
+ * and, recursively, its successors with the same number of rocks.
+ * <p>
+ * Usage: {@code EndgameDatabaseGenerator <file> [maxSeeds]}
+ */
+public final class EndgameDatabaseGenerator {
+
+  private static final System.Logger log = System.getLogger(EndgameDatabaseGenerator.class.getName());
+  private static final int DEFAULT_MAX_SEEDS = 12;
+  private static final int MAX_SEEDS_LIMIT = 20;
+  private static final byte UNSOLVED = Byte.MIN_VALUE;
+
+  private final EndgameIndex index;
+  private final byte[] values;
+  private final byte[] moves;
+
+  EndgameDatabaseGenerator(int maxSeeds) {
+    if (maxSeeds < 0 || maxSeeds > MAX_SEEDS_LIMIT) {
+      throw new IllegalArgumentException(String.format("maxSeeds has to be between 0 and %s", MAX_SEEDS_LIMIT));
+    }
+    this.index = new EndgameIndex(maxSeeds);
+    this.values = new byte[(int) index.size()];
+    this.moves = new byte[(int) index.size()];
+    Arrays.fill(values, UNSOLVED);
+  }
+
+  public static void main(String[] args) throws IOException {
+    if (args.length < 1) {
+      System.err.println("Usage: EndgameDatabaseGenerator <file> [maxSeeds]");
+      System.exit(1);
+    }
+    int maxSeeds = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_MAX_SEEDS;
+    generate(Path.of(args[0]), maxSeeds);
+  }
+
+  /**
+   * Solves all positions with at most {@code maxSeeds} rocks in the pits and writes them to a file.
+   * @param file the database file
+   * @param maxSeeds maximum number of rocks in the pits
+   * @throws IOException if the file cannot be written
+   */
+  public static void generate(Path file, int maxSeeds) throws IOException {
+    long start = System.nanoTime();
+    EndgameDatabaseGenerator generator = new EndgameDatabaseGenerator(maxSeeds);
+    generator.solveAll();
+    generator.write(file);
+    log.log(Level.INFO, "Solved {0} positions with up to {1} rocks in {2} ms", generator.values.length, maxSeeds,
+      (System.nanoTime() - start) / 1_000_000);
+  }
+
+  private void solveAll() {
+    int[] pits = new int[BOARD_SIZE + 1];
+    enumerate(pits, 0, index.getMaxSeeds());
+  }
+
+  /**
+   * Visits every position with player one to move, player one is the player to move in the ranking.
+   */
+  private void enumerate(int[] pits, int position, int remaining) {
+    if (position == EndgameIndex.PITS) {
+      solve(pits);
+      return;
+    }
+    int pit = position < PLAYER_PIT_NUMBER ? PLAYER_ONE_START_PIT + position
+      : PLAYER_TWO_START_PIT + position - PLAYER_PIT_NUMBER;
+    for (int rocks = 0; rocks <= remaining; rocks++) {
+      pits[pit] = rocks;
+      enumerate(pits, position + 1, remaining - rocks);
+    }
+    pits[pit] = 0;
+  }
+
+  /**
+   * Solves a position with player one to move.
+   * @param pits the board, the kalahs are ignored
+   * @return the value of the position
+   */
+  private int solve(int[] pits) {
+    int rank = (int) index.rank(pits, true);
+    if (values[rank] != UNSOLVED) {
+      return values[rank];
+    }
+    int best = Integer.MIN_VALUE;
+    int bestMove = 0;
+    int[] child = new int[BOARD_SIZE + 1];
+    for (int move = 0; move < PLAYER_PIT_NUMBER; move++) {
+      int pit = PLAYER_ONE_START_PIT + move;
+      if (pits[pit] == 0) {
+        continue;
+      }
+      System.arraycopy(pits, 0, child, 0, child.length);
+      child[PLAYER_ONE_KALAH] = 0;
+      child[PLAYER_TWO_KALAH] = 0;
+      int value = playMove(child, pit);
+      if (value > best) {
+        best = value;
+        bestMove = move;
+      }
+    }
+    if (best == Integer.MIN_VALUE) {
+      // the player to move has no rocks, the game ended before reaching this position
+      best = 0;
+    }
+    values[rank] = (byte) best;
+    moves[rank] = (byte) bestMove;
+    return best;
+  }
+
+  private int playMove(int[] child, int pit) {
+    int lastPit = KalahEngine.move(child, pit, true);
+    boolean finished = KalahEngine.finishIfOver(child);
+    int gain = child[PLAYER_ONE_KALAH] - child[PLAYER_TWO_KALAH];
+    if (finished) {
+      return gain;
+    }
+    if (lastPit == PLAYER_ONE_KALAH) {
+      return gain + solve(child);
+    }
+    return gain - solve(mirror(child));
+  }
+
+  /**
+   * Swaps the sides of the board so that player two becomes the player to move in the ranking.
+   */
+  private static int[] mirror(int[] pits) {
+    int[] mirrored = new int[BOARD_SIZE + 1];
+    for (int i = 0; i < PLAYER_PIT_NUMBER; i++) {
+      mirrored[PLAYER_ONE_START_PIT + i] = pits[PLAYER_TWO_START_PIT + i];
+      mirrored[PLAYER_TWO_START_PIT + i] = pits[PLAYER_ONE_START_PIT + i];
+    }
+    return mirrored;
+  }
+
+  private void write(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+      StandardOpenOption.TRUNCATE_EXISTING)) {
+      ByteBuffer header = ByteBuffer.allocate(EndgameDatabase.HEADER_SIZE)
+        .putInt(EndgameDatabase.MAGIC)
+        .putInt(EndgameDatabase.FORMAT_VERSION)
+        .putInt(PLAYER_PIT_NUMBER)
+        .putInt(index.getMaxSeeds())
+        .putLong(values.length)
+        .flip();
+      writeFully(channel, header);
+      ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+      for (int i = 0; i < values.length; i++) {
+        if (buffer.remaining() < EndgameDatabase.ENTRY_SIZE) {
+          writeFully(channel, buffer.flip());
+          buffer.clear();
+        }
+        buffer.put(values[i]).put(moves[i]);
+      }
+      writeFully(channel, buffer.flip());
+    }
+  }
+
+  private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+  }
+}
@@ -0,0 +1,84 @@
+package com.piotrak.kalah.endgame;
+
+import static com.piotrak.kalah.engine.KalahEngine.PLAYER_ONE_START_PIT;
+import static com.piotrak.kalah.engine.KalahEngine.PLAYER_PIT_NUMBER;
+import static com.piotrak.kalah.engine.KalahEngine.PLAYER_TWO_START_PIT;
+
+/**
+ * Combinatorial ranking of the positions with at most {@code maxSeeds} rocks in the pits to a dense index.
+ * <p>
+ * A position is seen from the player to move: his pits first, then the opponent's pits, each starting
+ * from the pit farthest from his kalah. The kalahs are not part of the position. The positions are
+ * ranked in lexicographic order, the number of positions whose remaining {@code k} pits hold at most
+ * {@code r} rocks is {@code C(r + k, k)}.
+ */
+public final class EndgameIndex {
+
+  static final int PITS = PLAYER_PIT_NUMBER * 2;
+
+  private final int maxSeeds;
+  private final long[][] binomial;
+
+  public EndgameIndex(int maxSeeds) {
+    this.maxSeeds = maxSeeds;
+    this.binomial = new long[maxSeeds + PITS + 2][PITS + 2];
+    for (int n = 0; n < binomial.length; n++) {
+      binomial[n][0] = 1;
+      for (int k = 1; k <= PITS + 1 && n > 0; k++) {
+        binomial[n][k] = binomial[n - 1][k - 1] + binomial[n - 1][k];
+      }
+    }
+  }
+
+  public int getMaxSeeds() {
+    return maxSeeds;
+  }
+
+  /**
+   * @return number of positions with at most {@code maxSeeds} rocks in the pits
+   */
+  public long size() {
+    return binomial[maxSeeds + PITS][PITS];
+  }
+
+  /**
+   * Counts the rocks left in the pits of a board.
+   * @param pits the board
+   * @return number of rocks outside the kalahs
+   */
+  public static int seedsInPits(int[] pits) {
+    int seeds = 0;
+    for (int i = 0; i < PLAYER_PIT_NUMBER; i++) {
+      seeds += pits[PLAYER_ONE_START_PIT + i] + pits[PLAYER_TWO_START_PIT + i];
+    }
+    return seeds;
+  }
+
+  /**
+   * Ranks a board seen from the player to move, the board must not hold more than {@code maxSeeds} rocks
+   * in the pits.
+   * @param pits the board
+   * @param playerOneMove true if it's player one's turn
+   * @return index of the position
+   */
+  public long rank(int[] pits, boolean playerOneMove) {
+    int playersStart = playerOneMove ? PLAYER_ONE_START_PIT : PLAYER_TWO_START_PIT;
+    int otherPlayersStart = playerOneMove ? PLAYER_TWO_START_PIT : PLAYER_ONE_START_PIT;
+    long rank = 0;
+    int remaining = maxSeeds;
+    for (int i = 0; i < PITS; i++) {
+      int rocks = i < PLAYER_PIT_NUMBER ? pits[playersStart + i] : pits[otherPlayersStart + i - PLAYER_PIT_NUMBER];
+      rank += countBelow(remaining, PITS - 1 - i, rocks);
+      remaining -= rocks;
+    }
+    return rank;
+  }
+
+  /**
+   * Number of positions of the remaining pits which come before the ones starting with {@code rocks}:
+   * the sum of {@code C(remaining - v + k, k)} for v below {@code rocks}, folded with the hockey-stick identity.
+   */
+  private long countBelow(int remaining, int k, int rocks) {
+    return binomial[remaining + k + 1][k + 1] - binomial[remaining - rocks + k + 1][k + 1];
+  }
+}
@@ -0,0 +1,86 @@
+package com.piotrak.kalah.engine;
+
+/**
+ * Allocation-free Kalah move engine working on a flat {@code int[]} board of the standard Kalah(6, 6) variant.
+ * The array is indexed by pit id, index 0 is unused so that pit ids map directly to array slots.
+ * Other variants are played through their {@link KalahVariant}.
+ */
+public final class KalahEngine {
+
+  public static final int PLAYER_PIT_NUMBER = 6;
+  public static final int INITIAL_ROCKS_NUMBER = 6;
+  public static final int BOARD_SIZE = (PLAYER_PIT_NUMBER + 1) * 2;
+
+  public static final int PLAYER_ONE_START_PIT = 1;
+  public static final int PLAYER_ONE_KALAH = PLAYER_PIT_NUMBER + 1;
+  public static final int PLAYER_TWO_START_PIT = PLAYER_ONE_KALAH + 1;
+  public static final int PLAYER_TWO_KALAH = PLAYER_ONE_KALAH * 2;
+
+  private static final KalahVariant STANDARD = KalahVariant.STANDARD;
+
+  private KalahEngine() {
+  }
+
+  /**
+   * Creates a board with the initial number of rocks in every pit.
+   * @return a new board
+   */
+  public static int[] newBoard() {
+    return STANDARD.newBoard();
+  }
+
+  public static boolean isValidPit(int pit) {
+    return STANDARD.isValidPit(pit);
+  }
+
+  public static boolean isKalah(int pit) {
+    return STANDARD.isKalah(pit);
+  }
+
+  public static boolean isPlayerOnePit(int pit) {
+    return STANDARD.isPlayerOnePit(pit);
+  }
+
+  public static int kalahOf(boolean playerOne) {
+    return STANDARD.kalahOf(playerOne);
+  }
+
+  public static int oppositePit(int pit) {
+    return STANDARD.oppositePit(pit);
+  }
+
+  /**
+   * @see KalahVariant#move(int[], int, boolean)
+   */
+  public static int move(int[] pits, int pitId, boolean playerOneMove) {
+    return STANDARD.move(pits, pitId, playerOneMove);
+  }
+
+  /**
+   * @see KalahVariant#sow(int[], int, boolean)
+   */
+  public static int sow(int[] pits, int pitId, boolean playerOneMove) {
+    return STANDARD.sow(pits, pitId, playerOneMove);
+  }
+
+  /**
+   * @see KalahVariant#capture(int[], int, boolean)
+   */
+  public static boolean capture(int[] pits, int lastPit, boolean playerOneMove) {
+    return STANDARD.capture(pits, lastPit, playerOneMove);
+  }
+
+  /**
+   * @see KalahVariant#finishIfOver(int[])
+   */
+  public static boolean finishIfOver(int[] pits) {
+    return STANDARD.finishIfOver(pits);
+  }
+
+  /**
+   * @see KalahVariant#nextPlayerOne(int, boolean)
+   */
+  public static boolean nextPlayerOne(int lastPit, boolean playerOneMove) {
+    return STANDARD.nextPlayerOne(lastPit, playerOneMove);
+  }
+}
@@ -0,0 +1,313 @@
+package com.piotrak.kalah.engine;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Rules of a Kalah variant, Kalah(pits per player, initial rocks per pit), working on a flat {@code int[]} board.
+ * <p>
+ * Player one's pits are numbered from 1, followed by player one's kalah, player two's pits and player two's
+ * kalah. Index 0 of the board is unused so that pit ids map directly to array slots.
+ * <p>
+ * The pits a player sows into and the opposite pits are precomputed per variant. Sowing adds the full laps
+ * around the board to every pit at once and then the remaining rocks one by one, so a move costs at most two
+ * passes over the board whatever the number of rocks. Variants are immutable and shared, use {@link #of}.
+ */
+public final class KalahVariant {
+
+  public static final int MAX_PITS_PER_PLAYER = 12;
+  public static final int MAX_INITIAL_ROCKS = 99;
+
+  private static final Map<Integer, KalahVariant> VARIANTS = new ConcurrentHashMap<>();
+
+  public static final KalahVariant STANDARD = of(6, 6);
+
+  private final int pitsPerPlayer;
+  private final int initialRocks;
+  private final int boardSize;
+  private final int playerOneKalah;
+  private final int playerTwoKalah;
+  /**
+   * Number of pits a player sows into, every pit but the opponent's kalah.
+   */
+  private final int lapLength;
+  /**
+   * Pits a player sows into in sowing order, twice, so that the rocks left after the full laps never wrap.
+   */
+  private final int[] playerOneSowing;
+  private final int[] playerTwoSowing;
+  /**
+   * Position of a pit in the player's sowing order.
+   */
+  private final int[] playerOneSowingIndex;
+  private final int[] playerTwoSowingIndex;
+  private final int[] oppositePits;
+  /**
+   * Bits of a pit in a {@link PackedBoard}, enough for all the rocks in one pit.
+   */
+  private final int bitsPerPit;
+  private final int lanes;
+  /**
+   * Pits of each player as bit sets, bit n for pit n, kalahs excluded.
+   */
+  private final int playerOnePits;
+  private final int playerTwoPits;
+  private final PackedBoard initialPosition;
+
+  private KalahVariant(int pitsPerPlayer, int initialRocks) {
+    this.pitsPerPlayer = pitsPerPlayer;
+    this.initialRocks = initialRocks;
+    this.boardSize = (pitsPerPlayer + 1) * 2;
+    this.playerOneKalah = pitsPerPlayer + 1;
+    this.playerTwoKalah = boardSize;
+    this.lapLength = boardSize - 1;
+    this.playerOneSowing = new int[lapLength * 2];
+    this.playerTwoSowing = new int[lapLength * 2];
+    this.playerOneSowingIndex = new int[boardSize + 1];
+    this.playerTwoSowingIndex = new int[boardSize + 1];
+    fillSowing(playerOneSowing, playerOneSowingIndex, playerTwoKalah);
+    fillSowing(playerTwoSowing, playerTwoSowingIndex, playerOneKalah);
+    this.oppositePits = new int[boardSize + 1];
+    for (int pit = 1; pit <= boardSize; pit++) {
+      oppositePits[pit] = isKalah(pit) ? pit : boardSize - pit;
+    }
+    this.bitsPerPit = Integer.SIZE - Integer.numberOfLeadingZeros(getTotalRocks());
+    int pitsPerLane = Long.SIZE / bitsPerPit;
+    this.lanes = (boardSize + pitsPerLane - 1) / pitsPerLane;
+    int pitsMask = (1 << pitsPerPlayer) - 1;
+    this.playerOnePits = pitsMask << 1;
+    this.playerTwoPits = pitsMask << playerOneKalah + 1;
+    this.initialPosition = PackedBoard.pack(this, newBoard());
+  }
+
+  private void fillSowing(int[] sowing, int[] sowingIndex, int skippedKalah) {
+    int position = 0;
+    for (int pit = 1; pit <= boardSize; pit++) {
+      if (pit != skippedKalah) {
+        sowingIndex[pit] = position;
+        sowing[position] = pit;
+        sowing[position + lapLength] = pit;
+        position++;
+      }
+    }
+    // the skipped kalah is never moved from, it only needs a valid index
+    sowingIndex[skippedKalah] = sowingIndex[skippedKalah - 1];
+  }
+
+  /**
+   * Gets the rules of a variant.
+   * @param pitsPerPlayer number of pits of each player, kalahs excluded
+   * @param initialRocks number of rocks in every pit at the start
+   * @return the variant
+   * @throws IllegalArgumentException if the variant is not supported
+   */
+  public static KalahVariant of(int pitsPerPlayer, int initialRocks) {
+    if (!isSupported(pitsPerPlayer, initialRocks)) {
+      throw new IllegalArgumentException(String.format(
+        "Kalah(%s, %s) is not supported, use 1 to %s pits per player and 1 to %s rocks per pit",
+        pitsPerPlayer, initialRocks, MAX_PITS_PER_PLAYER, MAX_INITIAL_ROCKS));
+    }
+    return VARIANTS.computeIfAbsent(pitsPerPlayer * (MAX_INITIAL_ROCKS + 1) + initialRocks,
+      key -> new KalahVariant(pitsPerPlayer, initialRocks));
+  }
+
+  public static boolean isSupported(int pitsPerPlayer, int initialRocks) {
+    return pitsPerPlayer >= 1 && pitsPerPlayer <= MAX_PITS_PER_PLAYER
+      && initialRocks >= 1 && initialRocks <= MAX_INITIAL_ROCKS;
+  }
+
+  public int getPitsPerPlayer() {
+    return pitsPerPlayer;
+  }
+
+  public int getInitialRocks() {
+    return initialRocks;
+  }
+
+  /**
+   * @return number of pits including the kalahs, the highest pit id
+   */
+  public int getBoardSize() {
+    return boardSize;
+  }
+
+  /**
+   * @return number of rocks on the board
+   */
+  public int getTotalRocks() {
+    return pitsPerPlayer * initialRocks * 2;
+  }
+
+  int getBitsPerPit() {
+    return bitsPerPit;
+  }
+
+  /**
+   * @return number of 64-bit lanes of a {@link PackedBoard}
+   */
+  int getLanes() {
+    return lanes;
+  }
+
+  /**
+   * @return the packed initial board, shared by all the games of the variant
+   */
+  public PackedBoard getInitialPosition() {
+    return initialPosition;
+  }
+
+  /**
+   * @param playerOne true for the pits of player one
+   * @return the pits of the player as a bit set, bit n for pit n, kalah excluded
+   */
+  public int pitsOf(boolean playerOne) {
+    return playerOne ? playerOnePits : playerTwoPits;
+  }
+
+  public int firstPitOf(boolean playerOne) {
+    return playerOne ? 1 : playerOneKalah + 1;
+  }
+
+  public int kalahOf(boolean playerOne) {
+    return playerOne ? playerOneKalah : playerTwoKalah;
+  }
+
+  /**
+   * Creates a board with the initial number of rocks in every pit.
+   * @return a new board
+   */
+  public int[] newBoard() {
+    int[] pits = new int[boardSize + 1];
+    for (int pit = 1; pit <= boardSize; pit++) {
+      if (!isKalah(pit)) {
+        pits[pit] = initialRocks;
+      }
+    }
+    return pits;
+  }
+
+  public boolean isValidPit(int pit) {
+    return pit >= 1 && pit <= boardSize;
+  }
+
+  public boolean isKalah(int pit) {
+    return pit == playerOneKalah || pit == playerTwoKalah;
+  }
+
+  public boolean isPlayerOnePit(int pit) {
+    return pit <= playerOneKalah;
+  }
+
+  public int oppositePit(int pit) {
+    return oppositePits[pit];
+  }
+
+  /**
+   * Sows the rocks from a pit and captures the opponent's rocks if the last rock lands in an empty own pit.
+   * The board is updated in place.
+   * @param pits the board
+   * @param pitId the pit to move from
+   * @param playerOneMove true if it's player one's turn
+   * @return the pit where the last rock was placed
+   */
+  public int move(int[] pits, int pitId, boolean playerOneMove) {
+    int lastPit = sow(pits, pitId, playerOneMove);
+    capture(pits, lastPit, playerOneMove);
+    return lastPit;
+  }
+
+  /**
+   * Moves the rocks from a pit counter-clockwise, skipping the opponent's kalah.
+   * @param pits the board
+   * @param pitId the pit to move from
+   * @param playerOneMove true if it's player one's turn
+   * @return the pit where the last rock was placed
+   */
+  public int sow(int[] pits, int pitId, boolean playerOneMove) {
+    int[] sowing = playerOneMove ? playerOneSowing : playerTwoSowing;
+    int start = (playerOneMove ? playerOneSowingIndex : playerTwoSowingIndex)[pitId];
+    int rocks = pits[pitId];
+    pits[pitId] = 0;
+    int laps = rocks / lapLength;
+    if (laps > 0) {
+      for (int i = 0; i < lapLength; i++) {
+        pits[sowing[i]] += laps;
+      }
+    }
+    int end = start + rocks % lapLength;
+    for (int i = start + 1; i <= end; i++) {
+      pits[sowing[i]]++;
+    }
+    // a whole number of laps ends in the pit moved from
+    return sowing[end];
+  }
+
+  /**
+   * Captures the last rock and the rocks from the opposite pit if the last rock was placed in an empty pit
+   * on the player's side.
+   * @param pits the board
+   * @param lastPit the pit where the last rock was placed
+   * @param playerOneMove true if it's player one's turn
+   * @return true if a capture happened
+   */
+  public boolean capture(int[] pits, int lastPit, boolean playerOneMove) {
+    if (pits[lastPit] != 1 || isKalah(lastPit) || isPlayerOnePit(lastPit) != playerOneMove) {
+      return false;
+    }
+    int opponentsPit = oppositePits[lastPit];
+    pits[kalahOf(playerOneMove)] += pits[lastPit] + pits[opponentsPit];
+    pits[lastPit] = 0;
+    pits[opponentsPit] = 0;
+    return true;
+  }
+
+  /**
+   * Checks if one of the players has run out of rocks, if so the other player moves the remaining rocks
+   * to his kalah.
+   * @param pits the board
+   * @return true if the game is finished
+   */
+  public boolean finishIfOver(int[] pits) {
+    int playerOneRocksOnBoard = sumPits(pits, 1, playerOneKalah);
+    int playerTwoRocksOnBoard = sumPits(pits, playerOneKalah + 1, playerTwoKalah);
+    if (playerOneRocksOnBoard == 0) {
+      sweep(pits, playerOneKalah + 1, playerTwoKalah, playerTwoRocksOnBoard);
+      return true;
+    }
+    if (playerTwoRocksOnBoard == 0) {
+      sweep(pits, 1, playerOneKalah, playerOneRocksOnBoard);
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Determines the next player's turn, the player moves again if the last rock was placed in his kalah.
+   * @param lastPit the last pit where a rock was placed
+   * @param playerOneMove true if it was player one's turn
+   * @return true if it's player one's turn
+   */
+  public boolean nextPlayerOne(int lastPit, boolean playerOneMove) {
+    return lastPit == kalahOf(playerOneMove) ? playerOneMove : !playerOneMove;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("Kalah(%s, %s)", pitsPerPlayer, initialRocks);
+  }
+
+  private static int sumPits(int[] pits, int from, int kalah) {
+    int sum = 0;
+    for (int i = from; i < kalah; i++) {
+      sum += pits[i];
+    }
+    return sum;
+  }
+
+  private static void sweep(int[] pits, int from, int kalah, int rocks) {
+    pits[kalah] += rocks;
+    for (int i = from; i < kalah; i++) {
+      pits[i] = 0;
+    }
+  }
+}
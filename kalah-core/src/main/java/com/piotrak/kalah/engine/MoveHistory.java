@@ -0,0 +1,155 @@
+package com.piotrak.kalah.engine;
+
+import java.util.Arrays;
+
+/**
+ * Moves played in a game, one byte per move, with the position before every {@link #CHECKPOINT_INTERVAL}th move
+ * so that the board at any ply is rebuilt with fewer than {@link #CHECKPOINT_INTERVAL} moves.
+ * <p>
+ * A history is immutable. Appending writes into the storage shared with the history it was appended to, when
+ * that history is the longest one using the storage, and copies the storage otherwise, so histories of the
+ * copies of a game share their moves and undoing a move costs nothing. The checkpoints are the positions the
+ * game held anyway, they are not copied. Histories of a game are appended to while its lock is held.
+ */
+public final class MoveHistory {
+
+  public static final int CHECKPOINT_INTERVAL = 16;
+  public static final MoveHistory EMPTY = new MoveHistory(new Storage(0), 0);
+
+  private static final int PLAYER_ONE_MOVE = 0x80;
+  private static final int PIT_MASK = 0x7F;
+
+  private final Storage storage;
+  private final int size;
+
+  private MoveHistory(Storage storage, int size) {
+    this.storage = storage;
+    this.size = size;
+  }
+
+  /**
+   * Rebuilds the history of a game from its moves.
+   * @param variant rules of the game
+   * @param moves the moves as returned by {@link #toBytes()}
+   * @return the history
+   */
+  public static MoveHistory of(KalahVariant variant, byte[] moves) {
+    MoveHistory history = EMPTY;
+    int[] pits = variant.newBoard();
+    PackedBoard position = variant.getInitialPosition();
+    for (byte move : moves) {
+      int pitId = move & PIT_MASK;
+      boolean playerOneMove = (move & PLAYER_ONE_MOVE) != 0;
+      history = history.append(position, pitId, playerOneMove);
+      variant.move(pits, pitId, playerOneMove);
+      position = PackedBoard.pack(variant, pits);
+    }
+    return history;
+  }
+
+  /**
+   * @return number of moves, the ply of the game
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * @param ply number of moves before the move
+   * @return pit moved from
+   */
+  public int pitAt(int ply) {
+    return storage.moves[checkIndex(ply)] & PIT_MASK;
+  }
+
+  /**
+   * @param ply number of moves before the move
+   * @return true if player one made the move
+   */
+  public boolean isPlayerOneMove(int ply) {
+    return (storage.moves[checkIndex(ply)] & PLAYER_ONE_MOVE) != 0;
+  }
+
+  /**
+   * Adds a move.
+   * @param before position before the move
+   * @param pitId pit moved from
+   * @param playerOneMove true if player one made the move
+   * @return the longer history
+   */
+  public MoveHistory append(PackedBoard before, int pitId, boolean playerOneMove) {
+    Storage target = storage;
+    if (size != storage.used || size == storage.moves.length) {
+      target = storage.copy(size, Math.max(CHECKPOINT_INTERVAL, size * 2));
+    }
+    target.moves[size] = (byte) (pitId | (playerOneMove ? PLAYER_ONE_MOVE : 0));
+    if (size % CHECKPOINT_INTERVAL == 0) {
+      target.checkpoints[size / CHECKPOINT_INTERVAL] = before;
+    }
+    target.used = size + 1;
+    return new MoveHistory(target, size + 1);
+  }
+
+  /**
+   * @return the history without its last move
+   */
+  public MoveHistory undo() {
+    if (size == 0) {
+      throw new IllegalStateException("There is no move to undo");
+    }
+    return new MoveHistory(storage, size - 1);
+  }
+
+  /**
+   * Rebuilds the board before a move from the closest checkpoint.
+   * @param variant rules of the game
+   * @param ply number of moves before the position, less than the size of the history
+   * @return the pits indexed by pit number
+   */
+  public int[] positionAt(KalahVariant variant, int ply) {
+    checkIndex(ply);
+    int checkpoint = ply / CHECKPOINT_INTERVAL;
+    int[] pits = storage.checkpoints[checkpoint].unpack();
+    for (int i = checkpoint * CHECKPOINT_INTERVAL; i < ply; i++) {
+      variant.move(pits, pitAt(i), isPlayerOneMove(i));
+    }
+    return pits;
+  }
+
+  /**
+   * @return the moves, one byte each
+   */
+  public byte[] toBytes() {
+    return Arrays.copyOf(storage.moves, size);
+  }
+
+  private int checkIndex(int ply) {
+    if (ply < 0 || ply >= size) {
+      throw new IndexOutOfBoundsException(String.format("Ply %s is not in a history of %s moves", ply, size));
+    }
+    return ply;
+  }
+
+  private static final class Storage {
+
+    private final byte[] moves;
+    private final PackedBoard[] checkpoints;
+    /**
+     * Size of the longest history using the storage, moves after it are free.
+     */
+    private int used;
+
+    private Storage(int capacity) {
+      this.moves = new byte[capacity];
+      this.checkpoints = new PackedBoard[capacity / CHECKPOINT_INTERVAL + 1];
+    }
+
+    private Storage copy(int size, int capacity) {
+      Storage copy = new Storage(capacity);
+      System.arraycopy(moves, 0, copy.moves, 0, size);
+      System.arraycopy(checkpoints, 0, copy.checkpoints, 0, (size + CHECKPOINT_INTERVAL - 1) / CHECKPOINT_INTERVAL);
+      copy.used = size;
+      return copy;
+    }
+  }
+}
@@ -0,0 +1,193 @@
+package com.piotrak.kalah.engine;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Immutable Kalah position packed into 64-bit lanes, the stored form of a game's board.
+ * <p>
+ * Every pit, kalahs included, takes the number of bits needed for all the rocks of the variant, 7 bits for
+ * Kalah(6, 6), and a pit never straddles two lanes. The standard board fits in two longs, which are fields of
+ * the position, bigger variants keep their other lanes in an array.
+ * <p>
+ * Identical positions can be shared through {@link #intern()}. Only positions many games go through, the first
+ * moves of a game, are worth it, a position reached by a single game costs more in the cache than it saves.
+ */
+public final class PackedBoard {
+
+  private static final int INTERN_STRIPES = 64;
+  @SuppressWarnings("unchecked")
+  private static final Map<PackedBoard, WeakReference<PackedBoard>>[] INTERNED = new Map[INTERN_STRIPES];
+
+  static {
+    for (int i = 0; i < INTERN_STRIPES; i++) {
+      INTERNED[i] = new WeakHashMap<>();
+    }
+  }
+
+  private final KalahVariant variant;
+  private final long firstLane;
+  private final long secondLane;
+  /**
+   * Lanes after the second one, null for the variants fitting in two lanes.
+   */
+  private final long[] otherLanes;
+  /**
+   * Pits holding rocks, bit n for pit n, computed once so that the legal moves of a position are a single bitwise
+   * and. It fits in the padding of the object.
+   */
+  private final int occupied;
+
+  private PackedBoard(KalahVariant variant, long firstLane, long secondLane, long[] otherLanes, int occupied) {
+    this.variant = variant;
+    this.firstLane = firstLane;
+    this.secondLane = secondLane;
+    this.otherLanes = otherLanes;
+    this.occupied = occupied;
+  }
+
+  /**
+   * Packs a board.
+   * @param variant rules of the game
+   * @param pits the pits indexed by pit number
+   * @return the packed board
+   */
+  public static PackedBoard pack(KalahVariant variant, int[] pits) {
+    int lanes = variant.getLanes();
+    long[] otherLanes = lanes > 2 ? new long[lanes - 2] : null;
+    long firstLane = packLane(variant, pits, 0);
+    long secondLane = lanes > 1 ? packLane(variant, pits, 1) : 0;
+    for (int lane = 2; lane < lanes; lane++) {
+      otherLanes[lane - 2] = packLane(variant, pits, lane);
+    }
+    int occupied = 0;
+    for (int pit = 1; pit < pits.length; pit++) {
+      if (pits[pit] != 0) {
+        occupied |= 1 << pit;
+      }
+    }
+    return new PackedBoard(variant, firstLane, secondLane, otherLanes, occupied);
+  }
+
+  private static long packLane(KalahVariant variant, int[] pits, int lane) {
+    int bits = variant.getBitsPerPit();
+    int pitsPerLane = Long.SIZE / bits;
+    int firstPit = lane * pitsPerLane + 1;
+    int lastPit = Math.min(firstPit + pitsPerLane, pits.length) - 1;
+    long value = 0;
+    for (int pit = lastPit; pit >= firstPit; pit--) {
+      value = value << bits | pits[pit];
+    }
+    return value;
+  }
+
+  public KalahVariant getVariant() {
+    return variant;
+  }
+
+  /**
+   * Gets the number of rocks in a pit.
+   * @param pit the pit number
+   * @return the number of rocks
+   */
+  public int get(int pit) {
+    int bits = variant.getBitsPerPit();
+    int pitsPerLane = Long.SIZE / bits;
+    int slot = pit - 1;
+    return (int) (lane(slot / pitsPerLane) >>> (slot % pitsPerLane * bits)) & ((1 << bits) - 1);
+  }
+
+  /**
+   * Gets the pits a player may move from, the pits of the player holding rocks.
+   * @param playerOne true for player one
+   * @return the pits as a bit set, bit n for pit n
+   */
+  public int legalMoves(boolean playerOne) {
+    return occupied & variant.pitsOf(playerOne);
+  }
+
+  /**
+   * Unpacks the board into a new array.
+   * @return the pits indexed by pit number
+   */
+  public int[] unpack() {
+    int[] pits = new int[variant.getBoardSize() + 1];
+    unpackTo(pits);
+    return pits;
+  }
+
+  /**
+   * Unpacks the board into an array.
+   * @param pits receives the pits indexed by pit number
+   */
+  public void unpackTo(int[] pits) {
+    int bits = variant.getBitsPerPit();
+    int pitsPerLane = Long.SIZE / bits;
+    long mask = (1L << bits) - 1;
+    int pit = 1;
+    for (int lane = 0; pit < pits.length; lane++) {
+      long value = lane(lane);
+      for (int i = 0; i < pitsPerLane && pit < pits.length; i++, pit++) {
+        pits[pit] = (int) (value & mask);
+        value >>>= bits;
+      }
+    }
+  }
+
+  /**
+   * Gets the shared instance of this position, which stays shared as long as a game holds it.
+   * @return the shared position equal to this one
+   */
+  public PackedBoard intern() {
+    int hash = hashCode();
+    Map<PackedBoard, WeakReference<PackedBoard>> interned = INTERNED[(hash >>> 16 ^ hash) & (INTERN_STRIPES - 1)];
+    synchronized (interned) {
+      WeakReference<PackedBoard> reference = interned.get(this);
+      PackedBoard shared = reference == null ? null : reference.get();
+      if (shared == null) {
+        interned.put(this, new WeakReference<>(this));
+        shared = this;
+      }
+      return shared;
+    }
+  }
+
+  private long lane(int lane) {
+    return lane == 0 ? firstLane : lane == 1 ? secondLane : otherLanes[lane - 2];
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof PackedBoard other) || other.variant != variant) {
+      return false;
+    }
+    for (int lane = 0; lane < variant.getLanes(); lane++) {
+      if (lane(lane) != other.lane(lane)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public int hashCode() {
+    long hash = variant.hashCode();
+    for (int lane = 0; lane < variant.getLanes(); lane++) {
+      hash = hash * 0x9E3779B97F4A7C15L + lane(lane);
+    }
+    return (int) (hash ^ hash >>> 32);
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder(variant.toString()).append('[');
+    for (int pit = 1; pit <= variant.getBoardSize(); pit++) {
+      builder.append(pit == 1 ? "" : ", ").append(get(pit));
+    }
+    return builder.append(']').toString();
+  }
+}
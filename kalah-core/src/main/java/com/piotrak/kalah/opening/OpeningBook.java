@@ -0,0 +1,172 @@
+package com.piotrak.kalah.opening;
+
+import com.piotrak.kalah.engine.KalahVariant;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read-only view of an opening book file, memory-mapped so that a lookup is a few reads from the page cache,
+ * without locks or allocation.
+ * <p>
+ * The file starts with a header (magic, format version, pits per player, initial rocks, plies, search depth,
+ * index bits, number of entries) followed by the bucket index and the entries. An entry is the 64-bit key of a
+ * position, the best pit and the number of rocks the player to move wins from the pits with that move. Entries
+ * are sorted by key, the index holds the first entry of every bucket of keys sharing their high bits, so a
+ * lookup reads two index slots and searches the few entries of one bucket.
+ */
+public final class OpeningBook {
+
+  public static final OpeningBook EMPTY = new OpeningBook(null, 0, 0, 0, null, null);
+  public static final int MISS = Integer.MIN_VALUE;
+
+  static final int MAGIC = 0x4B4F504E;
+  static final int FORMAT_VERSION = 1;
+  static final int HEADER_SIZE = 40;
+  static final int ENTRY_SIZE = 12;
+
+  private final KalahVariant variant;
+  private final int plies;
+  private final int searchDepth;
+  private final int indexBits;
+  private final ByteBuffer index;
+  private final ByteBuffer entries;
+
+  private OpeningBook(KalahVariant variant, int plies, int searchDepth, int indexBits, ByteBuffer index,
+    ByteBuffer entries) {
+    this.variant = variant;
+    this.plies = plies;
+    this.searchDepth = searchDepth;
+    this.indexBits = indexBits;
+    this.index = index;
+    this.entries = entries;
+  }
+
+  /**
+   * Maps a book file into memory.
+   * @param file the book file
+   * @return the book
+   * @throws IOException if the file cannot be read or is not an opening book
+   */
+  public static OpeningBook open(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+      if (header.getInt() != MAGIC || header.getInt() != FORMAT_VERSION) {
+        throw new IOException(String.format("%s is not an opening book", file));
+      }
+      int pitsPerPlayer = header.getInt();
+      int initialRocks = header.getInt();
+      if (!KalahVariant.isSupported(pitsPerPlayer, initialRocks)) {
+        throw new IOException(String.format("%s was built for Kalah(%s, %s)", file, pitsPerPlayer, initialRocks));
+      }
+      int plies = header.getInt();
+      int searchDepth = header.getInt();
+      int indexBits = header.getInt();
+      header.getInt();
+      long size = header.getLong();
+      long indexSize = indexSize(indexBits);
+      if (indexBits < 1 || indexBits > 30 || channel.size() != HEADER_SIZE + indexSize + size * ENTRY_SIZE) {
+        throw new IOException(String.format("%s is truncated", file));
+      }
+      ByteBuffer index = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE, indexSize);
+      ByteBuffer entries = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE + indexSize, size * ENTRY_SIZE);
+      return new OpeningBook(KalahVariant.of(pitsPerPlayer, initialRocks), plies, searchDepth, indexBits, index,
+        entries);
+    }
+  }
+
+  /**
+   * @return number of moves from the initial board the book covers, -1 for an empty book
+   */
+  public int getPlies() {
+    return entries == null ? -1 : plies;
+  }
+
+  /**
+   * @return depth in plies every position of the book was searched to
+   */
+  public int getSearchDepth() {
+    return searchDepth;
+  }
+
+  /**
+   * @return number of positions in the book
+   */
+  public int size() {
+    return entries == null ? 0 : entries.capacity() / ENTRY_SIZE;
+  }
+
+  /**
+   * Looks up a position.
+   * @param variant rules of the game
+   * @param pits the board
+   * @param playerOneMove true if it's player one's turn
+   * @return the entry of the position or {@link #MISS} if the book does not have it
+   */
+  public int probe(KalahVariant variant, int[] pits, boolean playerOneMove) {
+    if (entries == null || variant != this.variant) {
+      return MISS;
+    }
+    long key = key(variant, pits, playerOneMove);
+    int bucket = (int) (key >>> (Long.SIZE - indexBits));
+    int low = index.getInt(bucket * Integer.BYTES);
+    int high = index.getInt((bucket + 1) * Integer.BYTES) - 1;
+    while (low <= high) {
+      int middle = (low + high) >>> 1;
+      int comparison = Long.compareUnsigned(entries.getLong(middle * ENTRY_SIZE), key);
+      if (comparison < 0) {
+        low = middle + 1;
+      } else if (comparison > 0) {
+        high = middle - 1;
+      } else {
+        return entries.getInt(middle * ENTRY_SIZE + Long.BYTES);
+      }
+    }
+    return MISS;
+  }
+
+  /**
+   * @param entry probed entry
+   * @return the best pit to move from
+   */
+  public static int bestPit(int entry) {
+    return entry >>> 16;
+  }
+
+  /**
+   * @param entry probed entry
+   * @return number of rocks from the pits the player to move wins over the opponent with the best move
+   */
+  public static int value(int entry) {
+    return (short) entry;
+  }
+
+  static int entry(int pit, int value) {
+    return pit << 16 | value & 0xFFFF;
+  }
+
+  static long indexSize(int indexBits) {
+    return ((1L << indexBits) + 1) * Integer.BYTES;
+  }
+
+  /**
+   * Hashes the rocks in the pits and the player to move, the kalahs do not change the best move.
+   * @param variant rules of the game
+   * @param pits the board
+   * @param playerOneMove true if it's player one's turn
+   * @return the key of the position
+   */
+  static long key(KalahVariant variant, int[] pits, boolean playerOneMove) {
+    long hash = playerOneMove ? 0xCBF29CE484222325L : 0x84222325CBF29CE4L;
+    for (int pit = 1; pit <= variant.getBoardSize(); pit++) {
+      if (!variant.isKalah(pit)) {
+        hash = (hash ^ pits[pit]) * 0x100000001B3L;
+      }
+    }
+    hash = (hash ^ hash >>> 33) * 0xFF51AFD7ED558CCDL;
+    hash = (hash ^ hash >>> 33) * 0xC4CEB9FE1A85EC53L;
+    return hash ^ hash >>> 33;
+  }
+}
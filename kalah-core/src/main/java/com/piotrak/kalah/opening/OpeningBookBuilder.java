@@ -0,0 +1,192 @@
+package com.piotrak.kalah.opening;
+
+import com.piotrak.kalah.ai.AlphaBetaSearch;
+import com.piotrak.kalah.ai.SearchResult;
+import com.piotrak.kalah.endgame.EndgameDatabase;
+import com.piotrak.kalah.engine.KalahVariant;
+import java.io.IOException;
+import java.lang.System.Logger.Level;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Offline builder of the opening book.
+ * <p>
+ * Every position reachable from the initial board in at most a number of moves is searched to a fixed depth.
+ * A move ending in the player's own kalah is followed by another move of the same player, so the positions are
+ * enumerated move by move rather than turn by turn, and positions reached by different orders of moves are
+ * searched once.
+ * <p>
+ * Usage: {@code OpeningBookBuilder <file> [plies] [searchDepth] [pitsPerPlayer] [initialRocks]}
+ */
+public final class OpeningBookBuilder {
+
+  private static final System.Logger log = System.getLogger(OpeningBookBuilder.class.getName());
+  private static final int DEFAULT_PLIES = 4;
+  private static final int DEFAULT_SEARCH_DEPTH = 14;
+  private static final int MAX_PLIES = 12;
+  private static final int TRANSPOSITION_TABLE_BITS = 22;
+
+  private OpeningBookBuilder() {
+  }
+
+  public static void main(String[] args) throws IOException {
+    if (args.length < 1) {
+      System.err.println("Usage: OpeningBookBuilder <file> [plies] [searchDepth] [pitsPerPlayer] [initialRocks]");
+      System.exit(1);
+    }
+    int plies = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_PLIES;
+    int searchDepth = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_SEARCH_DEPTH;
+    KalahVariant variant = KalahVariant.of(args.length > 3 ? Integer.parseInt(args[3]) : 6,
+      args.length > 4 ? Integer.parseInt(args[4]) : 6);
+    build(Path.of(args[0]), variant, plies, searchDepth);
+  }
+
+  /**
+   * Searches the positions of the first moves and writes them to a file.
+   * @param file the book file
+   * @param variant rules of the games
+   * @param plies number of moves from the initial board covered by the book
+   * @param searchDepth depth in plies every position is searched to
+   * @throws IOException if the file cannot be written
+   */
+  public static void build(Path file, KalahVariant variant, int plies, int searchDepth) throws IOException {
+    if (plies < 0 || plies > MAX_PLIES || searchDepth < 1) {
+      throw new IllegalArgumentException(String.format("plies has to be between 0 and %s and searchDepth positive",
+        MAX_PLIES));
+    }
+    long start = System.nanoTime();
+    List<Position> positions = enumerate(variant, plies);
+    log.log(Level.INFO, "Searching {0} positions of {1} up to {2} moves deep to depth {3}", positions.size(),
+      variant, plies, searchDepth);
+    long[] keys = new long[positions.size()];
+    int[] entries = new int[positions.size()];
+    try (AlphaBetaSearch search = new AlphaBetaSearch(0, TRANSPOSITION_TABLE_BITS, EndgameDatabase.EMPTY)) {
+      for (int i = 0; i < positions.size(); i++) {
+        Position position = positions.get(i);
+        int[] pits = position.pits();
+        SearchResult result = search.search(variant, pits, position.playerOneMove(), Duration.ofDays(1),
+          searchDepth);
+        int kalahDifference =
+          pits[variant.kalahOf(position.playerOneMove())] - pits[variant.kalahOf(!position.playerOneMove())];
+        keys[i] = position.key();
+        entries[i] = OpeningBook.entry(result.pit(), result.score() - kalahDifference);
+        if ((i + 1) % 1_000 == 0) {
+          log.log(Level.INFO, "Searched {0} of {1} positions", i + 1, positions.size());
+        }
+      }
+    }
+    write(file, variant, plies, searchDepth, keys, entries);
+    log.log(Level.INFO, "Built an opening book of {0} positions in {1} ms", positions.size(),
+      (System.nanoTime() - start) / 1_000_000);
+  }
+
+  /**
+   * Collects the positions with a move to make reachable in at most {@code plies} moves, each once.
+   */
+  static List<Position> enumerate(KalahVariant variant, int plies) {
+    List<Position> positions = new ArrayList<>();
+    Set<Long> seen = new HashSet<>();
+    List<Position> frontier = List.of(new Position(variant.newBoard(), true,
+      OpeningBook.key(variant, variant.newBoard(), true)));
+    seen.add(frontier.get(0).key());
+    for (int ply = 0; ply <= plies && !frontier.isEmpty(); ply++) {
+      positions.addAll(frontier);
+      List<Position> next = new ArrayList<>();
+      if (ply < plies) {
+        for (Position position : frontier) {
+          int legalMoves = variant.pitsOf(position.playerOneMove()) & occupied(position.pits());
+          for (int bits = legalMoves; bits != 0; bits &= bits - 1) {
+            int[] pits = position.pits().clone();
+            int lastPit = variant.move(pits, Integer.numberOfTrailingZeros(bits), position.playerOneMove());
+            if (variant.finishIfOver(pits)) {
+              continue;
+            }
+            boolean playerOneMove = variant.nextPlayerOne(lastPit, position.playerOneMove());
+            long key = OpeningBook.key(variant, pits, playerOneMove);
+            if (seen.add(key)) {
+              next.add(new Position(pits, playerOneMove, key));
+            }
+          }
+        }
+      }
+      frontier = next;
+    }
+    return positions;
+  }
+
+  private static int occupied(int[] pits) {
+    int occupied = 0;
+    for (int pit = 1; pit < pits.length; pit++) {
+      if (pits[pit] != 0) {
+        occupied |= 1 << pit;
+      }
+    }
+    return occupied;
+  }
+
+  private static void write(Path file, KalahVariant variant, int plies, int searchDepth, long[] keys,
+    int[] entries) throws IOException {
+    Integer[] order = new Integer[keys.length];
+    Arrays.setAll(order, i -> i);
+    Arrays.sort(order, (a, b) -> Long.compareUnsigned(keys[a], keys[b]));
+    // about four entries per bucket
+    int indexBits = Math.max(1, Math.min(30, Integer.SIZE - Integer.numberOfLeadingZeros(keys.length / 4)));
+    int[] bucketStarts = new int[(1 << indexBits) + 1];
+    int entry = 0;
+    for (int bucket = 0; bucket < 1 << indexBits; bucket++) {
+      bucketStarts[bucket] = entry;
+      while (entry < keys.length && (int) (keys[order[entry]] >>> (Long.SIZE - indexBits)) == bucket) {
+        entry++;
+      }
+    }
+    bucketStarts[1 << indexBits] = keys.length;
+
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+      StandardOpenOption.TRUNCATE_EXISTING)) {
+      ByteBuffer header = ByteBuffer.allocate(OpeningBook.HEADER_SIZE)
+        .putInt(OpeningBook.MAGIC)
+        .putInt(OpeningBook.FORMAT_VERSION)
+        .putInt(variant.getPitsPerPlayer())
+        .putInt(variant.getInitialRocks())
+        .putInt(plies)
+        .putInt(searchDepth)
+        .putInt(indexBits)
+        .putInt(0)
+        .putLong(keys.length)
+        .flip();
+      writeFully(channel, header);
+      ByteBuffer index = ByteBuffer.allocate((int) OpeningBook.indexSize(indexBits));
+      for (int start : bucketStarts) {
+        index.putInt(start);
+      }
+      writeFully(channel, index.flip());
+      ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+      for (Integer i : order) {
+        if (buffer.remaining() < OpeningBook.ENTRY_SIZE) {
+          writeFully(channel, buffer.flip());
+          buffer.clear();
+        }
+        buffer.putLong(keys[i]).putInt(entries[i]);
+      }
+      writeFully(channel, buffer.flip());
+    }
+  }
+
+  private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+  }
+
+  record Position(int[] pits, boolean playerOneMove, long key) {
+  }
+}
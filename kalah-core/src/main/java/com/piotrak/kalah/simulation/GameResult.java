@@ -0,0 +1,21 @@
+package com.piotrak.kalah.simulation;
+
+/**
+ * Outcome of a simulated game.
+ * @param game number of the game in the simulation
+ * @param playerOneScore rocks in player one's kalah at the end
+ * @param playerTwoScore rocks in player two's kalah at the end
+ * @param moves number of moves made, extra turns included
+ * @param captures number of moves capturing the opponent's rocks
+ * @param extraTurns number of moves ending in the mover's kalah
+ */
+public record GameResult(long game, int playerOneScore, int playerTwoScore, int moves, int captures,
+  int extraTurns) {
+
+  /**
+   * @return 1 if player one won, 2 if player two won, 0 for a draw
+   */
+  public int winner() {
+    return playerOneScore > playerTwoScore ? 1 : playerOneScore < playerTwoScore ? 2 : 0;
+  }
+}
@@ -0,0 +1,19 @@
+package com.piotrak.kalah.simulation;
+
+/**
+ * Chooses the moves of a player in a simulated game. A policy is used by one thread only and may keep
+ * reusable state between moves.
+ */
+public interface Policy extends AutoCloseable {
+
+  /**
+   * @param pits the board, it must not be modified
+   * @param playerOneMove true if it's player one's turn
+   * @return a non-empty pit of the player to move
+   */
+  int choose(int[] pits, boolean playerOneMove);
+
+  @Override
+  default void close() {
+  }
+}
@@ -0,0 +1,94 @@
+package com.piotrak.kalah.simulation;
+
+import com.piotrak.kalah.ai.AlphaBetaSearch;
+import com.piotrak.kalah.endgame.EndgameDatabase;
+import com.piotrak.kalah.engine.KalahVariant;
+import java.time.Duration;
+import java.util.SplittableRandom;
+
+/**
+ * Policies the simulated players can use.
+ */
+public enum PolicyType {
+
+  /**
+   * A random non-empty pit.
+   */
+  RANDOM {
+    @Override
+    Policy create(KalahVariant variant, SplittableRandom random) {
+      return (pits, playerOneMove) -> {
+        int firstPit = variant.firstPitOf(playerOneMove);
+        int pitsPerPlayer = variant.getPitsPerPlayer();
+        int pit = firstPit + random.nextInt(pitsPerPlayer);
+        while (pits[pit] == 0) {
+          pit = pit == firstPit + pitsPerPlayer - 1 ? firstPit : pit + 1;
+        }
+        return pit;
+      };
+    }
+  },
+
+  /**
+   * The move gaining the most rocks for the player's kalah, preferring extra turns, ties broken at random.
+   */
+  GREEDY {
+    @Override
+    Policy create(KalahVariant variant, SplittableRandom random) {
+      int[] scratch = new int[variant.getBoardSize() + 1];
+      return (pits, playerOneMove) -> {
+        int kalah = variant.kalahOf(playerOneMove);
+        int bestPit = 0;
+        int bestScore = Integer.MIN_VALUE;
+        int ties = 0;
+        for (int pit = variant.firstPitOf(playerOneMove); pit < kalah; pit++) {
+          if (pits[pit] == 0) {
+            continue;
+          }
+          System.arraycopy(pits, 0, scratch, 0, scratch.length);
+          int lastPit = variant.move(scratch, pit, playerOneMove);
+          int score = 2 * (scratch[kalah] - pits[kalah]) + (lastPit == kalah ? 1 : 0);
+          if (score > bestScore) {
+            bestPit = pit;
+            bestScore = score;
+            ties = 1;
+          } else if (score == bestScore && random.nextInt(++ties) == 0) {
+            bestPit = pit;
+          }
+        }
+        return bestPit;
+      };
+    }
+  },
+
+  /**
+   * The computer player's alpha-beta search to a fixed depth, on the calling thread without a thread pool.
+   */
+  SEARCH {
+    private static final int DEPTH = 6;
+
+    @Override
+    Policy create(KalahVariant variant, SplittableRandom random) {
+      AlphaBetaSearch search = new AlphaBetaSearch(1, 16, EndgameDatabase.EMPTY);
+      return new Policy() {
+        @Override
+        public int choose(int[] pits, boolean playerOneMove) {
+          return search.search(variant, pits, playerOneMove, Duration.ofDays(1), DEPTH).pit();
+        }
+
+        @Override
+        public void close() {
+          search.close();
+        }
+      };
+    }
+  };
+
+  /**
+   * Creates the policy of one simulation thread.
+   * @param variant rules of the games
+   * @param random the thread's random generator
+   * @return the policy
+   */
+  abstract Policy create(KalahVariant variant, SplittableRandom random);
+}
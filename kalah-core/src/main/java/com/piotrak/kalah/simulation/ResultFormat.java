@@ -0,0 +1,56 @@
+package com.piotrak.kalah.simulation;
+
+/**
+ * Line formats of the streamed game results.
+ */
+public enum ResultFormat {
+
+  CSV {
+    @Override
+    String header() {
+      return "game,playerOneScore,playerTwoScore,winner,moves,captures,extraTurns\n";
+    }
+
+    @Override
+    void append(StringBuilder out, GameResult result) {
+      out.append(result.game()).append(',')
+        .append(result.playerOneScore()).append(',')
+        .append(result.playerTwoScore()).append(',')
+        .append(result.winner()).append(',')
+        .append(result.moves()).append(',')
+        .append(result.captures()).append(',')
+        .append(result.extraTurns()).append('\n');
+    }
+  },
+
+  NDJSON {
+    @Override
+    String header() {
+      return "";
+    }
+
+    @Override
+    void append(StringBuilder out, GameResult result) {
+      out.append("{\"game\":").append(result.game())
+        .append(",\"playerOneScore\":").append(result.playerOneScore())
+        .append(",\"playerTwoScore\":").append(result.playerTwoScore())
+        .append(",\"winner\":").append(result.winner())
+        .append(",\"moves\":").append(result.moves())
+        .append(",\"captures\":").append(result.captures())
+        .append(",\"extraTurns\":").append(result.extraTurns())
+        .append("}\n");
+    }
+  };
+
+  /**
+   * @return text written once before the results
+   */
+  abstract String header();
+
+  /**
+   * Appends one result as a line.
+   * @param out buffer of the simulation thread
+   * @param result game result
+   */
+  abstract void append(StringBuilder out, GameResult result);
+}
@@ -0,0 +1,219 @@
+package com.piotrak.kalah.simulation;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.piotrak.kalah.engine.KalahVariant;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Headless self-play of Kalah games for rule and balance analysis.
+ * <p>
+ * The games are split in equal ranges, one per thread. A thread owns its random generator, split from the
+ * simulation's seed, its policies, its board and its statistics, so nothing is shared while playing and a
+ * simulation with the same seed and number of threads plays the same games. The game results are buffered per
+ * thread and written in chunks, the statistics are merged when all the threads are done.
+ * <p>
+ * The moves are applied with the same {@link KalahVariant} rules as the game service, without its store and
+ * locks.
+ * <p>
+ * Usage: {@code SelfPlaySimulator <games> <policyOne> <policyTwo> [csv|ndjson|none] [pitsPerPlayer]
+ * [initialRocks] [randomOpeningMoves]}, the results are written to the standard output and the statistics to
+ * the standard error.
+ */
+public class SelfPlaySimulator {
+
+  private static final int FLUSH_SIZE = 1 << 16;
+
+  private final KalahVariant variant;
+  private final PolicyType playerOne;
+  private final PolicyType playerTwo;
+  private final int threads;
+  private final long seed;
+  private final int randomOpeningMoves;
+
+  /**
+   * @param variant rules of the games
+   * @param playerOne policy of player one
+   * @param playerTwo policy of player two
+   * @param threads number of threads playing
+   * @param seed seed of the random generators
+   * @param randomOpeningMoves number of random moves every game starts with, so that deterministic policies
+   * play different games
+   */
+  public SelfPlaySimulator(KalahVariant variant, PolicyType playerOne, PolicyType playerTwo, int threads, long seed,
+    int randomOpeningMoves) {
+    this.variant = variant;
+    this.playerOne = playerOne;
+    this.playerTwo = playerTwo;
+    this.threads = Math.max(1, threads);
+    this.seed = seed;
+    this.randomOpeningMoves = randomOpeningMoves;
+  }
+
+  public static void main(String[] args) throws IOException {
+    if (args.length < 3) {
+      System.err.println("Usage: SelfPlaySimulator <games> <policyOne> <policyTwo> [csv|ndjson|none] "
+        + "[pitsPerPlayer] [initialRocks] [randomOpeningMoves]");
+      System.err.println("Policies: " + List.of(PolicyType.values()));
+      System.exit(1);
+    }
+    long games = Long.parseLong(args[0]);
+    PolicyType playerOne = PolicyType.valueOf(args[1].toUpperCase(Locale.ROOT));
+    PolicyType playerTwo = PolicyType.valueOf(args[2].toUpperCase(Locale.ROOT));
+    String formatName = args.length > 3 ? args[3].toUpperCase(Locale.ROOT) : "NONE";
+    ResultFormat format = formatName.equals("NONE") ? null : ResultFormat.valueOf(formatName);
+    KalahVariant variant = KalahVariant.of(args.length > 4 ? Integer.parseInt(args[4]) : 6,
+      args.length > 5 ? Integer.parseInt(args[5]) : 6);
+    int randomOpeningMoves = args.length > 6 ? Integer.parseInt(args[6]) : 0;
+    int threads = Runtime.getRuntime().availableProcessors();
+
+    SelfPlaySimulator simulator = new SelfPlaySimulator(variant, playerOne, playerTwo, threads, System.nanoTime(),
+      randomOpeningMoves);
+    long start = System.nanoTime();
+    SimulationStatistics statistics;
+    try (Writer out = new BufferedWriter(new OutputStreamWriter(System.out, UTF_8), FLUSH_SIZE)) {
+      statistics = simulator.run(games, format, out);
+    }
+    double seconds = (System.nanoTime() - start) / 1e9;
+    System.err.printf(Locale.ROOT, "%s, %s against %s: %d games in %.1f s, %.0f games/s, %.0f games/s per thread%n",
+      variant, playerOne, playerTwo, games, seconds, games / seconds, games / seconds / threads);
+    System.err.println(statistics.toJson());
+  }
+
+  /**
+   * Plays the games on all the threads.
+   * @param games number of games
+   * @param format format of the results written, null to only aggregate them
+   * @param out receives the results
+   * @return statistics of all the games
+   * @throws IOException if the results cannot be written
+   */
+  public SimulationStatistics run(long games, ResultFormat format, Writer out) throws IOException {
+    if (format != null) {
+      out.write(format.header());
+    }
+    SplittableRandom random = new SplittableRandom(seed);
+    List<Callable<SimulationStatistics>> workers = new ArrayList<>(threads);
+    for (int i = 0; i < threads; i++) {
+      workers.add(new Worker(games * i / threads, games * (i + 1) / threads, random.split(), format, out));
+    }
+    AtomicInteger threadNumber = new AtomicInteger();
+    ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+      Thread thread = new Thread(runnable, "self-play-" + threadNumber.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+    try {
+      SimulationStatistics statistics = new SimulationStatistics(variant.getTotalRocks());
+      for (Future<SimulationStatistics> future : executor.invokeAll(workers)) {
+        statistics.merge(future.get());
+      }
+      out.flush();
+      return statistics;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("The simulation was interrupted", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof UncheckedIOException io) {
+        throw io.getCause();
+      }
+      throw new IllegalStateException("The simulation failed", e.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private final class Worker implements Callable<SimulationStatistics> {
+
+    private final long from;
+    private final long to;
+    private final SplittableRandom random;
+    private final ResultFormat format;
+    private final Writer out;
+    private final int[] initialBoard = variant.newBoard();
+    private final int[] pits = new int[initialBoard.length];
+    private final StringBuilder buffer = new StringBuilder();
+
+    private Worker(long from, long to, SplittableRandom random, ResultFormat format, Writer out) {
+      this.from = from;
+      this.to = to;
+      this.random = random;
+      this.format = format;
+      this.out = out;
+    }
+
+    @Override
+    public SimulationStatistics call() {
+      SimulationStatistics statistics = new SimulationStatistics(variant.getTotalRocks());
+      try (Policy randomPolicy = PolicyType.RANDOM.create(variant, random);
+        Policy playerOnePolicy = playerOne.create(variant, random);
+        Policy playerTwoPolicy = playerTwo.create(variant, random)) {
+        for (long game = from; game < to; game++) {
+          GameResult result = play(game, randomPolicy, playerOnePolicy, playerTwoPolicy);
+          statistics.record(result);
+          if (format != null) {
+            format.append(buffer, result);
+            if (buffer.length() >= FLUSH_SIZE) {
+              flush();
+            }
+          }
+        }
+      }
+      flush();
+      return statistics;
+    }
+
+    private GameResult play(long game, Policy randomPolicy, Policy playerOnePolicy, Policy playerTwoPolicy) {
+      System.arraycopy(initialBoard, 0, pits, 0, pits.length);
+      boolean playerOneMove = true;
+      int moves = 0;
+      int captures = 0;
+      int extraTurns = 0;
+      while (true) {
+        Policy policy = moves < randomOpeningMoves ? randomPolicy
+          : playerOneMove ? playerOnePolicy : playerTwoPolicy;
+        int lastPit = variant.sow(pits, policy.choose(pits, playerOneMove), playerOneMove);
+        if (variant.capture(pits, lastPit, playerOneMove)) {
+          captures++;
+        }
+        moves++;
+        if (lastPit == variant.kalahOf(playerOneMove)) {
+          extraTurns++;
+        }
+        if (variant.finishIfOver(pits)) {
+          return new GameResult(game, pits[variant.kalahOf(true)], pits[variant.kalahOf(false)], moves, captures,
+            extraTurns);
+        }
+        playerOneMove = variant.nextPlayerOne(lastPit, playerOneMove);
+      }
+    }
+
+    private void flush() {
+      if (buffer.length() == 0) {
+        return;
+      }
+      try {
+        synchronized (out) {
+          out.append(buffer);
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      buffer.setLength(0);
+    }
+  }
+}
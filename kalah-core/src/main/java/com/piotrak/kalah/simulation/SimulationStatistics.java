@@ -0,0 +1,197 @@
+package com.piotrak.kalah.simulation;
+
+import java.util.Locale;
+
+/**
+ * Aggregated results of simulated games. Every simulation thread records into its own instance, the instances
+ * are merged at the end, so recording needs no synchronization.
+ */
+public class SimulationStatistics {
+
+  /**
+   * Games of this many moves or more share the last bucket of the game length histogram.
+   */
+  static final int MAX_MOVES = 1024;
+  private static final double Z_95 = 1.959964;
+
+  private final int totalRocks;
+  private final long[] moveHistogram = new long[MAX_MOVES + 1];
+  /**
+   * Games by player one's score minus player two's score, offset by the number of rocks.
+   */
+  private final long[] marginHistogram;
+  private long games;
+  private long playerOneWins;
+  private long playerTwoWins;
+  private long moves;
+  private long captures;
+  private long extraTurns;
+
+  /**
+   * @param totalRocks number of rocks of the simulated variant
+   */
+  public SimulationStatistics(int totalRocks) {
+    this.totalRocks = totalRocks;
+    this.marginHistogram = new long[2 * totalRocks + 1];
+  }
+
+  public void record(GameResult result) {
+    games++;
+    if (result.winner() == 1) {
+      playerOneWins++;
+    } else if (result.winner() == 2) {
+      playerTwoWins++;
+    }
+    moves += result.moves();
+    captures += result.captures();
+    extraTurns += result.extraTurns();
+    moveHistogram[Math.min(result.moves(), MAX_MOVES)]++;
+    marginHistogram[result.playerOneScore() - result.playerTwoScore() + totalRocks]++;
+  }
+
+  /**
+   * Adds the games of other statistics of the same variant to these.
+   * @param other statistics to add
+   * @return these statistics
+   */
+  public SimulationStatistics merge(SimulationStatistics other) {
+    if (other.totalRocks != totalRocks) {
+      throw new IllegalArgumentException("Statistics of different variants cannot be merged");
+    }
+    games += other.games;
+    playerOneWins += other.playerOneWins;
+    playerTwoWins += other.playerTwoWins;
+    moves += other.moves;
+    captures += other.captures;
+    extraTurns += other.extraTurns;
+    for (int i = 0; i < moveHistogram.length; i++) {
+      moveHistogram[i] += other.moveHistogram[i];
+    }
+    for (int i = 0; i < marginHistogram.length; i++) {
+      marginHistogram[i] += other.marginHistogram[i];
+    }
+    return this;
+  }
+
+  public long getGames() {
+    return games;
+  }
+
+  public long getPlayerOneWins() {
+    return playerOneWins;
+  }
+
+  public long getPlayerTwoWins() {
+    return playerTwoWins;
+  }
+
+  public long getDraws() {
+    return games - playerOneWins - playerTwoWins;
+  }
+
+  public long getMoves() {
+    return moves;
+  }
+
+  public long getCaptures() {
+    return captures;
+  }
+
+  public long getExtraTurns() {
+    return extraTurns;
+  }
+
+  /**
+   * @return player one's win rate with its 95% Wilson score interval
+   */
+  public Proportion playerOneWinRate() {
+    return Proportion.wilson(playerOneWins, games, Z_95);
+  }
+
+  /**
+   * @return player two's win rate with its 95% Wilson score interval
+   */
+  public Proportion playerTwoWinRate() {
+    return Proportion.wilson(playerTwoWins, games, Z_95);
+  }
+
+  public double meanMoves() {
+    return games == 0 ? 0 : (double) moves / games;
+  }
+
+  public double capturesPerGame() {
+    return games == 0 ? 0 : (double) captures / games;
+  }
+
+  /**
+   * @return mean of player one's score minus player two's score
+   */
+  public double meanMargin() {
+    long sum = 0;
+    for (int i = 0; i < marginHistogram.length; i++) {
+      sum += (i - totalRocks) * marginHistogram[i];
+    }
+    return games == 0 ? 0 : (double) sum / games;
+  }
+
+  /**
+   * @param quantile between 0 and 1
+   * @return the number of moves not exceeded by that share of the games, at most {@link #MAX_MOVES}
+   */
+  public int movesQuantile(double quantile) {
+    long rank = (long) Math.ceil(quantile * games);
+    long seen = 0;
+    for (int i = 0; i < moveHistogram.length; i++) {
+      seen += moveHistogram[i];
+      if (seen >= rank && seen > 0) {
+        return i;
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * @return the statistics as one JSON object
+   */
+  public String toJson() {
+    Proportion playerOne = playerOneWinRate();
+    Proportion playerTwo = playerTwoWinRate();
+    return String.format(Locale.ROOT, "{\"games\":%d,\"playerOneWins\":%d,\"playerTwoWins\":%d,"
+        + "\"draws\":%d,\"playerOneWinRate\":%.5f,\"playerOneWinRateLow\":%.5f,\"playerOneWinRateHigh\":%.5f,"
+        + "\"playerTwoWinRate\":%.5f,\"playerTwoWinRateLow\":%.5f,\"playerTwoWinRateHigh\":%.5f,"
+        + "\"meanMargin\":%.3f,\"meanMoves\":%.3f,\"medianMoves\":%d,\"p99Moves\":%d,\"capturesPerGame\":%.3f,"
+        + "\"extraTurnsPerGame\":%.3f}",
+      games, playerOneWins, playerTwoWins, getDraws(), playerOne.rate(), playerOne.low(), playerOne.high(),
+      playerTwo.rate(), playerTwo.low(), playerTwo.high(), meanMargin(), meanMoves(), movesQuantile(0.5),
+      movesQuantile(0.99), capturesPerGame(), games == 0 ? 0 : (double) extraTurns / games);
+  }
+
+  /**
+   * A share of the games with its confidence interval.
+   * @param rate observed share
+   * @param low lower bound of the interval
+   * @param high upper bound of the interval
+   */
+  public record Proportion(double rate, double low, double high) {
+
+    /**
+     * Wilson score interval, unlike the normal approximation it stays within [0, 1] and works for rates
+     * close to 0 or 1.
+     * @param successes number of games counted
+     * @param trials number of games
+     * @param z quantile of the standard normal distribution for the confidence level
+     * @return the proportion
+     */
+    static Proportion wilson(long successes, long trials, double z) {
+      if (trials == 0) {
+        return new Proportion(0, 0, 1);
+      }
+      double rate = (double) successes / trials;
+      double z2 = z * z;
+      double denominator = 1 + z2 / trials;
+      double center = (rate + z2 / (2 * trials)) / denominator;
+      double margin = z * Math.sqrt(rate * (1 - rate) / trials + z2 / (4.0 * trials * trials)) / denominator;
+      return new Proportion(rate, Math.max(0, center - margin), Math.min(1, center + margin));
+    }
+  }
+}
@@ -0,0 +1,112 @@
+package com.piotrak.kalah.ai;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.piotrak.kalah.endgame.EndgameDatabase;
+import com.piotrak.kalah.engine.KalahEngine;
+import com.piotrak.kalah.engine.KalahVariant;
+import java.time.Duration;
+import java.util.Set;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class AlphaBetaSearchTest {
+
+  private final AlphaBetaSearch search = new AlphaBetaSearch(2, 16, EndgameDatabase.EMPTY);
+
+  @AfterEach
+  public void after() {
+    search.close();
+  }
+
+  @Test
+  public void test_search_capture() {
+    int[] pits = new int[] {0, 1, 0, 0, 0, 1, 0, 0, 1, 1, 1, 1, 20, 1, 0};
+    int[] copy = pits.clone();
+
+    SearchResult result = search.search(pits, true, Duration.ofSeconds(1), 10);
+
+    assertEquals(1, result.pit());
+    assertTrue(result.score() > 0);
+    assertArrayEquals(copy, pits);
+  }
+
+  @Test
+  public void test_search_solvesEndgame() {
+    // player two has to move the only rock into his kalah and then has no rocks left
+    int[] pits = new int[] {0, 0, 0, 0, 0, 2, 0, 30, 0, 0, 0, 0, 0, 1, 39};
+
+    SearchResult result = search.search(pits, false, Duration.ofSeconds(1), 10);
+
+    assertEquals(13, result.pit());
+    assertEquals(40 - 32, result.score());
+  }
+
+  @Test
+  public void test_search_variant() {
+    KalahVariant variant = KalahVariant.of(3, 20);
+    // 29 rocks from pit 3 make four laps of the 7 pits of player one and end in his kalah
+    int[] pits = new int[] {0, 0, 0, 29, 0, 1, 1, 1, 0};
+    int[] copy = pits.clone();
+
+    SearchResult result = search.search(variant, pits, true, Duration.ofSeconds(1), 20);
+
+    assertEquals(3, result.pit());
+    assertTrue(result.depth() > 1);
+    assertTrue(result.score() > 0);
+    assertArrayEquals(copy, pits);
+  }
+
+  @Test
+  public void test_search_equalValuedRootMoves() {
+    // pits 3, 4 and 5 all win by 7 when played to the end, pits 1 and 2 only by 5
+    int[] pits = new int[] {0, 2, 2, 1, 2, 2, 0, 20, 2, 0, 1, 0, 1, 2, 20};
+
+    for (int i = 0; i < 10; i++) {
+      SearchResult result = search.search(pits, true, Duration.ofSeconds(10), 60);
+
+      assertTrue(result.pit() >= 3 && result.pit() <= 5, "pit " + result.pit());
+      assertEquals(7, result.score());
+    }
+  }
+
+  @Test
+  public void test_search_singleThreadSearchesInline() {
+    int[] pits = new int[] {0, 2, 2, 1, 2, 2, 0, 20, 2, 0, 1, 0, 1, 2, 20};
+    Set<Thread> threads = Thread.getAllStackTraces().keySet();
+
+    SearchResult result;
+    try (AlphaBetaSearch inline = new AlphaBetaSearch(1, 16, EndgameDatabase.EMPTY)) {
+      result = inline.search(pits, true, Duration.ofSeconds(10), 60);
+    }
+
+    assertTrue(Thread.getAllStackTraces().keySet().stream()
+      .noneMatch(thread -> !threads.contains(thread) && thread.getName().startsWith("ForkJoinPool-")));
+    assertEquals(7, result.score());
+    assertEquals(search.search(pits, true, Duration.ofSeconds(10), 60).score(), result.score());
+  }
+
+  @Test
+  public void test_bestRootMove_failLowTie() {
+    // pit 5 was searched once pit 4 had raised alpha to 7, its 7 is only an upper bound
+    int[] moves = new int[] {3, 5, 4};
+    int[] values = new int[] {5, 7, 7};
+    int[] alphas = new int[] {-10_000, 7, 5};
+
+    AlphaBetaSearch.RootResult result = AlphaBetaSearch.bestRootMove(moves, values, alphas);
+
+    assertEquals(4, result.pit());
+    assertEquals(7, result.value());
+  }
+
+  @Test
+  public void test_search_respectsTimeBudget() {
+    SearchResult result = search.search(KalahEngine.newBoard(), true, Duration.ofMillis(50), 100);
+
+    assertTrue(result.depth() >= 1);
+    assertTrue(result.elapsedNanos() < Duration.ofSeconds(1).toNanos());
+    assertTrue(KalahEngine.isPlayerOnePit(result.pit()));
+  }
+}
@@ -0,0 +1,78 @@
+package com.piotrak.kalah.endgame;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.piotrak.kalah.ai.AlphaBetaSearch;
+import com.piotrak.kalah.ai.SearchResult;
+import com.piotrak.kalah.engine.KalahEngine;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class EndgameDatabaseTest {
+
+  private static final int MAX_SEEDS = 6;
+
+  @TempDir
+  Path directory;
+
+  @Test
+  public void test_rank_isDense() {
+    EndgameIndex index = new EndgameIndex(2);
+    int[] pits = new int[KalahEngine.BOARD_SIZE + 1];
+    assertEquals(0, index.rank(pits, true));
+    pits[13] = 2;
+    assertEquals(2, index.rank(pits, true));
+    pits[13] = 0;
+    pits[1] = 2;
+    assertEquals(index.size() - 1, index.rank(pits, true));
+    pits[1] = 0;
+    pits[8] = 2;
+    assertEquals(index.size() - 1, index.rank(pits, false));
+  }
+
+  @Test
+  public void test_probe_matchesExhaustiveSearch() throws Exception {
+    Path file = directory.resolve("endgame.db");
+    EndgameDatabaseGenerator.generate(file, MAX_SEEDS);
+    EndgameDatabase database = EndgameDatabase.open(file);
+    SplittableRandom random = new SplittableRandom(7);
+
+    try (AlphaBetaSearch search = new AlphaBetaSearch(1, 16, EndgameDatabase.EMPTY)) {
+      for (int i = 0; i < 200; i++) {
+        int[] pits = randomPosition(random);
+        boolean playerOneMove = random.nextBoolean();
+        SearchResult result = search.search(pits, playerOneMove, Duration.ofSeconds(10), 60);
+
+        int entry = database.probe(pits, playerOneMove);
+
+        assertNotEquals(EndgameDatabase.MISS, entry);
+        assertEquals(result.score(), EndgameDatabase.value(entry));
+        assertTrue(pits[EndgameDatabase.bestPit(entry, playerOneMove)] > 0);
+      }
+    }
+  }
+
+  @Test
+  public void test_probe_tooManySeeds() {
+    assertEquals(EndgameDatabase.MISS, EndgameDatabase.EMPTY.probe(KalahEngine.newBoard(), true));
+  }
+
+  private static int[] randomPosition(SplittableRandom random) {
+    int[] pits = new int[KalahEngine.BOARD_SIZE + 1];
+    pits[1 + random.nextInt(6)]++;
+    pits[8 + random.nextInt(6)]++;
+    int seeds = 2 + random.nextInt(MAX_SEEDS - 1);
+    for (int i = 2; i < seeds; i++) {
+      int pit = 1 + random.nextInt(KalahEngine.BOARD_SIZE);
+      if (!KalahEngine.isKalah(pit)) {
+        pits[pit]++;
+      }
+    }
+    return pits;
+  }
+}
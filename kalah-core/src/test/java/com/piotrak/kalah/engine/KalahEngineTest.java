@@ -0,0 +1,59 @@
+package com.piotrak.kalah.engine;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class KalahEngineTest {
+
+  @Test
+  public void test_newBoard() {
+    int[] pits = KalahEngine.newBoard();
+
+    assertArrayEquals(new int[] {0, 6, 6, 6, 6, 6, 6, 0, 6, 6, 6, 6, 6, 6, 0}, pits);
+  }
+
+  @Test
+  public void test_move_skipsOpponentKalah() {
+    int[] pits = new int[] {0, 0, 0, 0, 0, 0, 8, 0, 0, 0, 0, 0, 0, 0, 0};
+
+    int lastPit = KalahEngine.move(pits, 6, true);
+
+    assertEquals(1, lastPit);
+    assertEquals(0, pits[14]);
+    assertEquals(0, pits[13]);
+    assertEquals(3, pits[7]);
+  }
+
+  @Test
+  public void test_move_capture() {
+    int[] pits = new int[] {0, 0, 0, 0, 0, 0, 13, 0, 6, 6, 6, 6, 6, 6, 0};
+
+    int lastPit = KalahEngine.move(pits, 6, true);
+
+    assertEquals(6, lastPit);
+    assertEquals(0, pits[6]);
+    assertEquals(0, pits[8]);
+    assertEquals(9, pits[7]);
+  }
+
+  @Test
+  public void test_finishIfOver() {
+    int[] pits = new int[] {0, 0, 0, 0, 0, 0, 0, 10, 1, 2, 3, 0, 0, 0, 4};
+
+    assertTrue(KalahEngine.finishIfOver(pits));
+    assertEquals(10, pits[14]);
+    assertFalse(KalahEngine.finishIfOver(KalahEngine.newBoard()));
+  }
+
+  @Test
+  public void test_nextPlayerOne() {
+    assertTrue(KalahEngine.nextPlayerOne(7, true));
+    assertFalse(KalahEngine.nextPlayerOne(3, true));
+    assertFalse(KalahEngine.nextPlayerOne(14, false));
+    assertTrue(KalahEngine.nextPlayerOne(9, false));
+  }
+}
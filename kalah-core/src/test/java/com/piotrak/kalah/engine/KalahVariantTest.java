@@ -0,0 +1,91 @@
+package com.piotrak.kalah.engine;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+
+public class KalahVariantTest {
+
+  @Test
+  public void test_of_sharesVariants() {
+    assertSame(KalahVariant.STANDARD, KalahVariant.of(6, 6));
+    assertSame(KalahVariant.of(4, 3), KalahVariant.of(4, 3));
+    assertThrows(IllegalArgumentException.class, () -> KalahVariant.of(13, 6));
+  }
+
+  @Test
+  public void test_newBoard() {
+    KalahVariant variant = KalahVariant.of(4, 3);
+
+    assertArrayEquals(new int[] {0, 3, 3, 3, 3, 0, 3, 3, 3, 3, 0}, variant.newBoard());
+    assertEquals(5, variant.kalahOf(true));
+    assertEquals(6, variant.firstPitOf(false));
+    assertEquals(9, variant.oppositePit(1));
+  }
+
+  @Test
+  public void test_sow_fullLaps() {
+    KalahVariant variant = KalahVariant.of(4, 3);
+    int[] pits = new int[] {0, 0, 0, 20, 0, 0, 0, 0, 0, 0, 0};
+
+    // 9 pits per lap for player one: two laps, then pits 4 and 5
+    int lastPit = variant.sow(pits, 3, true);
+
+    assertEquals(5, lastPit);
+    assertArrayEquals(new int[] {0, 2, 2, 2, 3, 3, 2, 2, 2, 2, 0}, pits);
+  }
+
+  @Test
+  public void test_sow_wholeLapsEndInPitMovedFrom() {
+    KalahVariant variant = KalahVariant.of(4, 3);
+    int[] pits = new int[] {0, 0, 0, 0, 0, 0, 0, 18, 0, 0, 0};
+
+    int lastPit = variant.sow(pits, 7, false);
+
+    assertEquals(7, lastPit);
+    assertArrayEquals(new int[] {0, 2, 2, 2, 2, 0, 2, 2, 2, 2, 2}, pits);
+  }
+
+  @Test
+  public void test_move_matchesSowingRockByRock() {
+    SplittableRandom random = new SplittableRandom(7);
+    int[][] variants = {{6, 6}, {4, 3}, {6, 20}, {1, 1}, {12, 99}};
+    for (int[] rules : variants) {
+      KalahVariant variant = KalahVariant.of(rules[0], rules[1]);
+      for (int i = 0; i < 1_000; i++) {
+        int[] pits = new int[variant.getBoardSize() + 1];
+        for (int pit = 1; pit <= variant.getBoardSize(); pit++) {
+          pits[pit] = random.nextInt(3 * variant.getBoardSize());
+        }
+        boolean playerOneMove = random.nextBoolean();
+        int pitId = variant.firstPitOf(playerOneMove) + random.nextInt(variant.getPitsPerPlayer());
+        int[] expected = pits.clone();
+        int expectedLastPit = moveRockByRock(variant, expected, pitId, playerOneMove);
+
+        int lastPit = variant.move(pits, pitId, playerOneMove);
+
+        assertEquals(expectedLastPit, lastPit, variant.toString());
+        assertArrayEquals(expected, pits, variant.toString());
+      }
+    }
+  }
+
+  private static int moveRockByRock(KalahVariant variant, int[] pits, int pitId, boolean playerOneMove) {
+    int rocks = pits[pitId];
+    pits[pitId] = 0;
+    int currentPit = pitId;
+    for (int i = 0; i < rocks; i++) {
+      currentPit = currentPit % variant.getBoardSize() + 1;
+      if (currentPit == variant.kalahOf(!playerOneMove)) {
+        currentPit = currentPit % variant.getBoardSize() + 1;
+      }
+      pits[currentPit]++;
+    }
+    variant.capture(pits, currentPit, playerOneMove);
+    return currentPit;
+  }
+}
@@ -0,0 +1,57 @@
+package com.piotrak.kalah.engine;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class MoveHistoryTest {
+
+  private final KalahVariant variant = KalahVariant.STANDARD;
+
+  @Test
+  public void test_append_keepsOlderHistories() {
+    PackedBoard start = variant.getInitialPosition();
+    MoveHistory one = MoveHistory.EMPTY.append(start, 1, true);
+    MoveHistory two = one.append(start, 2, true);
+
+    MoveHistory undone = two.undo();
+    MoveHistory other = undone.append(start, 3, true);
+    MoveHistory third = two.append(start, 8, false);
+
+    assertEquals(0, MoveHistory.EMPTY.size());
+    assertEquals(2, two.size());
+    assertEquals(2, two.pitAt(1));
+    assertEquals(3, other.pitAt(1));
+    assertEquals(8, third.pitAt(2));
+    assertFalse(third.isPlayerOneMove(2));
+    assertTrue(third.isPlayerOneMove(1));
+    assertThrows(IndexOutOfBoundsException.class, () -> one.pitAt(1));
+  }
+
+  @Test
+  public void test_of_rebuildsCheckpoints() {
+    int[] pits = variant.newBoard();
+    MoveHistory history = MoveHistory.EMPTY;
+    boolean playerOneMove = true;
+    for (int ply = 0; ply < 3 * MoveHistory.CHECKPOINT_INTERVAL && !variant.finishIfOver(pits.clone()); ply++) {
+      int firstPit = variant.firstPitOf(playerOneMove);
+      int pit = firstPit;
+      while (pits[pit] == 0) {
+        pit++;
+      }
+      history = history.append(PackedBoard.pack(variant, pits), pit, playerOneMove);
+      playerOneMove = variant.nextPlayerOne(variant.move(pits, pit, playerOneMove), playerOneMove);
+    }
+
+    MoveHistory rebuilt = MoveHistory.of(variant, history.toBytes());
+
+    assertArrayEquals(history.toBytes(), rebuilt.toBytes());
+    for (int ply = 0; ply < history.size(); ply++) {
+      assertArrayEquals(history.positionAt(variant, ply), rebuilt.positionAt(variant, ply), "ply " + ply);
+    }
+  }
+}
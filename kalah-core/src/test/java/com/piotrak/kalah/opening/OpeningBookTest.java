@@ -0,0 +1,72 @@
+package com.piotrak.kalah.opening;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.piotrak.kalah.ai.AlphaBetaSearch;
+import com.piotrak.kalah.ai.SearchResult;
+import com.piotrak.kalah.endgame.EndgameDatabase;
+import com.piotrak.kalah.engine.KalahVariant;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class OpeningBookTest {
+
+  private static final KalahVariant VARIANT = KalahVariant.of(4, 3);
+  private static final int PLIES = 3;
+  private static final int SEARCH_DEPTH = 6;
+
+  @TempDir
+  Path directory;
+
+  @Test
+  public void test_probe_findsEveryOpeningPosition() throws Exception {
+    Path file = directory.resolve("opening.book");
+    OpeningBookBuilder.build(file, VARIANT, PLIES, SEARCH_DEPTH);
+    OpeningBook book = OpeningBook.open(file);
+    List<OpeningBookBuilder.Position> positions = OpeningBookBuilder.enumerate(VARIANT, PLIES);
+
+    assertEquals(positions.size(), book.size());
+    assertEquals(PLIES, book.getPlies());
+    for (OpeningBookBuilder.Position position : positions) {
+      int entry = book.probe(VARIANT, position.pits(), position.playerOneMove());
+
+      assertNotEquals(OpeningBook.MISS, entry);
+      assertTrue((VARIANT.pitsOf(position.playerOneMove()) & 1 << OpeningBook.bestPit(entry)) != 0);
+      assertTrue(position.pits()[OpeningBook.bestPit(entry)] > 0);
+    }
+  }
+
+  @Test
+  public void test_probe_matchesSearchOfInitialBoard() throws Exception {
+    Path file = directory.resolve("opening.book");
+    OpeningBookBuilder.build(file, VARIANT, 0, SEARCH_DEPTH);
+    OpeningBook book = OpeningBook.open(file);
+
+    try (AlphaBetaSearch search = new AlphaBetaSearch(1, 16, EndgameDatabase.EMPTY)) {
+      SearchResult result = search.search(VARIANT, VARIANT.newBoard(), true, Duration.ofSeconds(10), SEARCH_DEPTH);
+      int entry = book.probe(VARIANT, VARIANT.newBoard(), true);
+
+      assertEquals(1, book.size());
+      assertEquals(result.score(), OpeningBook.value(entry));
+    }
+  }
+
+  @Test
+  public void test_probe_missesOutsideOfTheBook() throws Exception {
+    Path file = directory.resolve("opening.book");
+    OpeningBookBuilder.build(file, VARIANT, 1, SEARCH_DEPTH);
+    OpeningBook book = OpeningBook.open(file);
+    int[] pits = VARIANT.newBoard();
+    pits[1] = 0;
+    pits[2] = 6;
+
+    assertEquals(OpeningBook.MISS, book.probe(VARIANT, pits, true));
+    assertEquals(OpeningBook.MISS, book.probe(KalahVariant.STANDARD, KalahVariant.STANDARD.newBoard(), true));
+    assertEquals(OpeningBook.MISS, OpeningBook.EMPTY.probe(VARIANT, VARIANT.newBoard(), true));
+  }
+}
@@ -0,0 +1,76 @@
+package com.piotrak.kalah.simulation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.piotrak.kalah.engine.KalahVariant;
+import com.piotrak.kalah.simulation.SimulationStatistics.Proportion;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class SelfPlaySimulatorTest {
+
+  @Test
+  public void test_run_playsEveryGameOnce() throws IOException {
+    SelfPlaySimulator simulator = new SelfPlaySimulator(KalahVariant.STANDARD, PolicyType.RANDOM,
+      PolicyType.GREEDY, 3, 42, 0);
+    StringWriter out = new StringWriter();
+
+    SimulationStatistics statistics = simulator.run(1_000, ResultFormat.CSV, out);
+
+    assertEquals(1_000, statistics.getGames());
+    assertEquals(1_000, statistics.getPlayerOneWins() + statistics.getPlayerTwoWins() + statistics.getDraws());
+    // the greedy player beats the random one
+    assertTrue(statistics.getPlayerTwoWins() > statistics.getPlayerOneWins());
+    List<String> lines = out.toString().lines().toList();
+    assertEquals(1_001, lines.size());
+    assertEquals(1_000, lines.stream().skip(1).map(line -> line.split(",")[0]).distinct().count());
+    for (String line : lines.subList(1, lines.size())) {
+      String[] fields = line.split(",");
+      assertEquals(72, Integer.parseInt(fields[1]) + Integer.parseInt(fields[2]));
+    }
+  }
+
+  @Test
+  public void test_run_isReproducible() throws IOException {
+    KalahVariant variant = KalahVariant.of(4, 20);
+    SimulationStatistics first = new SelfPlaySimulator(variant, PolicyType.GREEDY, PolicyType.SEARCH, 2, 7, 2)
+      .run(50, null, new StringWriter());
+    SimulationStatistics second = new SelfPlaySimulator(variant, PolicyType.GREEDY, PolicyType.SEARCH, 2, 7, 2)
+      .run(50, null, new StringWriter());
+
+    assertEquals(first.toJson(), second.toJson());
+  }
+
+  @Test
+  public void test_merge_addsStatistics() {
+    SimulationStatistics first = new SimulationStatistics(8);
+    first.record(new GameResult(0, 6, 2, 10, 1, 2));
+    SimulationStatistics second = new SimulationStatistics(8);
+    second.record(new GameResult(1, 4, 4, 20, 0, 1));
+    second.record(new GameResult(2, 1, 7, 30, 3, 0));
+
+    first.merge(second);
+
+    assertEquals(3, first.getGames());
+    assertEquals(1, first.getDraws());
+    assertEquals(20, first.meanMoves());
+    assertEquals(20, first.movesQuantile(0.5));
+    assertEquals(30, first.movesQuantile(1));
+    assertEquals(-2.0 / 3, first.meanMargin(), 1e-9);
+    assertEquals(4, first.getCaptures());
+  }
+
+  @Test
+  public void test_wilson_staysWithinBounds() {
+    Proportion none = Proportion.wilson(0, 10, 1.96);
+    Proportion half = Proportion.wilson(500, 1_000, 1.96);
+
+    assertEquals(0, none.low());
+    assertEquals(0.278, none.high(), 0.001);
+    assertEquals(0.469, half.low(), 0.001);
+    assertEquals(0.531, half.high(), 0.001);
+  }
+}
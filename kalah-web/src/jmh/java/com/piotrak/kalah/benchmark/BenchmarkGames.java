@@ -0,0 +1,51 @@
+package com.piotrak.kalah.benchmark;
+
+import com.piotrak.kalah.engine.KalahVariant;
+import com.piotrak.kalah.engine.PackedBoard;
+import com.piotrak.kalah.model.Game;
+import java.util.SplittableRandom;
+
+/**
+ * Move selection shared by the benchmarks.
+ */
+final class BenchmarkGames {
+
+  static final String URL = "http://localhost:8080/games";
+
+  private BenchmarkGames() {
+  }
+
+  /**
+   * Picks the first non-empty pit of the player to move.
+   * @param game Kalah game
+   * @return pit id
+   */
+  static int firstLegalPit(Game game) {
+    KalahVariant variant = game.getVariant();
+    int firstPit = variant.firstPitOf(game.isPlayerOneMove());
+    PackedBoard position = game.getPosition();
+    for (int pit = firstPit; pit < firstPit + variant.getPitsPerPlayer(); pit++) {
+      if (position.get(pit) > 0) {
+        return pit;
+      }
+    }
+    throw new IllegalStateException("No legal move in game " + game.getId());
+  }
+
+  /**
+   * Picks a random non-empty pit of the player to move.
+   * @param game Kalah game
+   * @param random random generator
+   * @return pit id
+   */
+  static int randomLegalPit(Game game, SplittableRandom random) {
+    KalahVariant variant = game.getVariant();
+    int firstPit = variant.firstPitOf(game.isPlayerOneMove());
+    PackedBoard position = game.getPosition();
+    int pit = firstPit + random.nextInt(variant.getPitsPerPlayer());
+    while (position.get(pit) == 0) {
+      pit = pit == firstPit + variant.getPitsPerPlayer() - 1 ? firstPit : pit + 1;
+    }
+    return pit;
+  }
+}
@@ -0,0 +1,104 @@
+package com.piotrak.kalah.benchmark;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.piotrak.kalah.controller.GameController;
+import com.piotrak.kalah.exception.handler.GlobalExceptionHandler;
+import com.piotrak.kalah.model.Game;
+import com.piotrak.kalah.repository.InMemoryGameRepository;
+import com.piotrak.kalah.service.GameJsonCache;
+import com.piotrak.kalah.service.GameService;
+import com.piotrak.kalah.service.GameWatchProperties;
+import com.piotrak.kalah.service.GameWatcher;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+/**
+ * In-process cost of move and read requests, including request mapping and JSON serialization.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GameControllerBenchmark {
+
+  private InMemoryGameRepository repository;
+  private GameService service;
+  private MockMvc mockMvc;
+  private Game game;
+  private String eTag;
+
+  @Setup
+  public void setup() {
+    repository = new InMemoryGameRepository();
+    GameJsonCache gameJsonCache = new GameJsonCache(new ObjectMapper(), repository);
+    service = new GameService(repository, List.of(gameJsonCache));
+    mockMvc = MockMvcBuilders.standaloneSetup(new GameController(service, new GameWatcher(gameJsonCache),
+        new GameWatchProperties(Duration.ofSeconds(30)), gameJsonCache))
+      .setControllerAdvice(new GlobalExceptionHandler())
+      .build();
+    game = newGame();
+    eTag = gameJsonCache.get(game.getId(), service::snapshot).eTag();
+  }
+
+  @Benchmark
+  public MvcResult makeMove() throws Exception {
+    if (game.isFinished()) {
+      game = newGame();
+    }
+    return mockMvc.perform(put("/games/{gameId}/pits/{pitId}", game.getId(), BenchmarkGames.firstLegalPit(game)))
+      .andReturn();
+  }
+
+  /**
+   * A move from player two's pit while player one is to move, answered with the error JSON.
+   */
+  @Benchmark
+  public MvcResult rejectedMove() throws Exception {
+    return mockMvc.perform(put("/games/{gameId}/pits/{pitId}", game.getId(), game.isPlayerOneMove() ? 8 : 1))
+      .andReturn();
+  }
+
+  /**
+   * Reads an unchanged game, answered synchronously with its cached JSON.
+   */
+  @Benchmark
+  public MvcResult getGame() throws Exception {
+    return mockMvc.perform(get("/games/{gameId}", game.getId())).andReturn();
+  }
+
+  /**
+   * Reads an unchanged game the client already has, sending back the ETag it was given.
+   */
+  @Benchmark
+  public MvcResult getGameNotModified() throws Exception {
+    return mockMvc.perform(get("/games/{gameId}", game.getId())
+        .header("If-None-Match", eTag))
+      .andReturn();
+  }
+
+  /**
+   * The service answers with copies, the benchmark follows the game kept by the repository.
+   */
+  private Game newGame() {
+    return repository.find(service.createGame(BenchmarkGames.URL).getId());
+  }
+}
@@ -0,0 +1,76 @@
+package com.piotrak.kalah.benchmark;
+
+import com.piotrak.kalah.model.Game;
+import com.piotrak.kalah.repository.InMemoryGameRepository;
+import com.piotrak.kalah.service.GameService;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of the game rules behind the REST layer, for Kalah(6, n) with a growing number of rocks per pit.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GameServiceBenchmark {
+
+  @Param({"6", "20", "60"})
+  public int initialRocks;
+
+  private GameService service;
+  private Game game;
+  private SplittableRandom random;
+
+  @Setup
+  public void setup() {
+    service = new GameService(new InMemoryGameRepository(), List.of());
+    game = newGame();
+    random = new SplittableRandom(42);
+  }
+
+  @Benchmark
+  public Game createGame() {
+    return newGame();
+  }
+
+  @Benchmark
+  public Game makeMove() {
+    if (game.isFinished()) {
+      game = newGame();
+    }
+    game = service.makeMove(game.getId(), BenchmarkGames.firstLegalPit(game));
+    return game;
+  }
+
+  /**
+   * Plays a whole game with random legal moves from the initial board.
+   * @return the finished game
+   */
+  @Benchmark
+  public Game randomPlayout() {
+    Game playout = newGame();
+    while (!playout.isFinished()) {
+      playout = service.makeMove(playout.getId(), BenchmarkGames.randomLegalPit(playout, random));
+    }
+    return playout;
+  }
+
+  private Game newGame() {
+    return service.createGame(BenchmarkGames.URL, 6, initialRocks);
+  }
+}
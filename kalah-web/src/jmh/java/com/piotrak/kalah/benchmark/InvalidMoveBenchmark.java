@@ -0,0 +1,69 @@
+package com.piotrak.kalah.benchmark;
+
+import com.piotrak.kalah.exception.ForbiddenOperationException;
+import com.piotrak.kalah.model.Game;
+import com.piotrak.kalah.repository.InMemoryGameRepository;
+import com.piotrak.kalah.service.GameService;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of rejecting the moves of a bot probing illegal pits, against the same rejection carrying a stack trace as
+ * it did before the rejections became stackless.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InvalidMoveBenchmark {
+
+  private GameService service;
+  private Game game;
+
+  @Setup
+  public void setup() {
+    service = new GameService(new InMemoryGameRepository(), List.of());
+    game = service.createGame(BenchmarkGames.URL);
+  }
+
+  /**
+   * A move from player two's pit while player one is to move.
+   */
+  @Benchmark
+  public Object rejectedMove() {
+    try {
+      return service.makeMove(game.getId(), 8);
+    } catch (ForbiddenOperationException e) {
+      return e;
+    }
+  }
+
+  /**
+   * The same rejection filling in a stack trace, the cost every rejected move used to pay.
+   */
+  @Benchmark
+  public Object rejectedMoveWithStackTrace() {
+    try {
+      return service.makeMove(game.getId(), 8);
+    } catch (ForbiddenOperationException e) {
+      return new ForbiddenOperationException(e.getReason(), e.getMessage());
+    }
+  }
+
+  @Benchmark
+  public Object legalMoves() {
+    return service.legalMoves(game.getId());
+  }
+}
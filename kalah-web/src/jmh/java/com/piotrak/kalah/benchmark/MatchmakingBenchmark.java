@@ -0,0 +1,53 @@
+package com.piotrak.kalah.benchmark;
+
+import com.piotrak.kalah.engine.KalahVariant;
+import com.piotrak.kalah.matchmaking.MatchQueue;
+import com.piotrak.kalah.matchmaking.Ticket;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Latency of players enqueuing concurrently into one pool of the matchmaking, every other one paired with the
+ * player waiting there, while players of other rating bands keep waiting.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class MatchmakingBenchmark {
+
+  private static final int BAND_WIDTH = 100;
+
+  @Param({"0", "1000", "100000"})
+  public int waitingPlayers;
+
+  private MatchQueue<Integer> queue;
+
+  @Setup
+  public void setup() {
+    queue = new MatchQueue<>(BAND_WIDTH, player -> true);
+    for (int i = 0; i < waitingPlayers; i++) {
+      // every third band, out of reach of each other
+      queue.enqueue(new Ticket<>(i, KalahVariant.STANDARD, 3 * i * BAND_WIDTH + BAND_WIDTH / 2));
+    }
+  }
+
+  @Benchmark
+  public Object enqueue() {
+    return queue.enqueue(new Ticket<>(-1, KalahVariant.STANDARD, Ticket.UNRATED));
+  }
+}
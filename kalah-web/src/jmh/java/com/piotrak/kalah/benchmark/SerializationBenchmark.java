@@ -0,0 +1,45 @@
+package com.piotrak.kalah.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.piotrak.kalah.model.Game;
+import com.piotrak.kalah.repository.InMemoryGameRepository;
+import com.piotrak.kalah.service.GameService;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of writing a game as the JSON returned by the REST layer.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private Game game;
+
+  @Setup
+  public void setup() {
+    GameService service = new GameService(new InMemoryGameRepository(), List.of());
+    game = service.makeMove(service.createGame(BenchmarkGames.URL).getId(), 3);
+  }
+
+  @Benchmark
+  public byte[] serializeGame() throws JsonProcessingException {
+    return objectMapper.writeValueAsBytes(game);
+  }
+}
@@ -0,0 +1,195 @@
+package com.piotrak.kalah.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.piotrak.kalah.Application;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Drives the REST API with simulated players to find how many concurrent games one node takes before its p99
+ * latency degrades.
+ * <p>
+ * In the closed loop every player plays games one after the other, the load follows the latency of the server.
+ * In the open loop games start at a fixed rate whatever the latency, a game is played on a thread of its own and
+ * the creation of a game which started late is timed from when it should have started, so a saturated server
+ * shows as growing latencies rather than as a lower request rate.
+ * <p>
+ * Without a base URL the {@link Application} is started on a free local port, with admission control off unless
+ * the Spring arguments set it, so that the server itself is measured.
+ * <p>
+ * Usage: {@code LoadGenerator closed <players> <seconds> [baseUrl] [--spring.property=value...]} or
+ * {@code LoadGenerator open <gamesPerSecond> <seconds> [baseUrl] [--spring.property=value...]}, the interval
+ * lines and the report are written to the standard error.
+ */
+public class LoadGenerator {
+
+  private static final int MAX_OPEN_GAMES = 10_000;
+
+  private final HttpClient client;
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final URI gamesUri;
+  private final LoadStatistics statistics = new LoadStatistics();
+  private final SplittableRandom random = new SplittableRandom();
+
+  public LoadGenerator(URI baseUri) {
+    this.client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    this.gamesUri = baseUri.resolve("/games");
+  }
+
+  public static void main(String[] args) throws InterruptedException {
+    List<String> positional = Arrays.stream(args).filter(arg -> !arg.startsWith("--")).toList();
+    if (positional.size() < 3) {
+      System.err.println("Usage: LoadGenerator closed <players> <seconds> [baseUrl] [--spring.property=value...]");
+      System.err.println("       LoadGenerator open <gamesPerSecond> <seconds> [baseUrl] [--spring.property=value...]");
+      System.exit(1);
+    }
+    String mode = positional.get(0).toLowerCase(Locale.ROOT);
+    double load = Double.parseDouble(positional.get(1));
+    long seconds = Long.parseLong(positional.get(2));
+
+    ConfigurableApplicationContext context = null;
+    URI baseUri;
+    if (positional.size() > 3) {
+      baseUri = URI.create(positional.get(3));
+    } else {
+      context = startApplication(Arrays.stream(args).filter(arg -> arg.startsWith("--")).toList());
+      int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+      baseUri = URI.create("http://localhost:" + port);
+    }
+    try {
+      LoadGenerator generator = new LoadGenerator(baseUri);
+      switch (mode) {
+        case "closed" -> generator.runClosedLoop((int) load, seconds);
+        case "open" -> generator.runOpenLoop(load, seconds);
+        default -> throw new IllegalArgumentException("Unknown mode " + mode + ", use closed or open");
+      }
+    } finally {
+      if (context != null) {
+        context.close();
+      }
+    }
+  }
+
+  private static ConfigurableApplicationContext startApplication(List<String> springArgs) {
+    List<String> arguments = new ArrayList<>(springArgs);
+    arguments.add("--server.port=0");
+    if (springArgs.stream().noneMatch(arg -> arg.startsWith("--kalah.admission.enabled"))) {
+      arguments.add("--kalah.admission.enabled=false");
+    }
+    return new SpringApplicationBuilder(Application.class).run(arguments.toArray(String[]::new));
+  }
+
+  /**
+   * Every player plays games back to back until the end of the test.
+   * @param players number of concurrent players
+   * @param seconds length of the test
+   */
+  public void runClosedLoop(int players, long seconds) throws InterruptedException {
+    long start = System.nanoTime();
+    long deadline = start + TimeUnit.SECONDS.toNanos(seconds);
+    List<Thread> threads = new ArrayList<>(players);
+    for (int i = 0; i < players; i++) {
+      SimulatedPlayer player = newPlayer();
+      Thread thread = new Thread(() -> {
+        try {
+          while (System.nanoTime() < deadline) {
+            player.playGame(System.nanoTime());
+          }
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }, "player-" + i);
+      thread.setDaemon(true);
+      threads.add(thread);
+    }
+    System.err.printf(Locale.ROOT, "closed loop, %d players for %d s against %s%n", players, seconds, gamesUri);
+    ScheduledExecutorService reporter = startReporter();
+    threads.forEach(Thread::start);
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    report(reporter, start);
+  }
+
+  /**
+   * Starts games at a fixed rate until the end of the test, then waits for the games in progress.
+   * @param gamesPerSecond rate at which games start
+   * @param seconds length of the test
+   */
+  public void runOpenLoop(double gamesPerSecond, long seconds) throws InterruptedException {
+    long period = (long) (TimeUnit.SECONDS.toNanos(1) / gamesPerSecond);
+    long start = System.nanoTime();
+    long deadline = start + TimeUnit.SECONDS.toNanos(seconds);
+    AtomicInteger openGames = new AtomicInteger();
+    ExecutorService players = Executors.newCachedThreadPool(runnable -> {
+      Thread thread = new Thread(runnable, "player");
+      thread.setDaemon(true);
+      return thread;
+    });
+    System.err.printf(Locale.ROOT, "open loop, %.1f games/s for %d s against %s%n", gamesPerSecond, seconds,
+      gamesUri);
+    ScheduledExecutorService reporter = startReporter();
+    for (long intendedStart = start; intendedStart < deadline; intendedStart += period) {
+      long delay = intendedStart - System.nanoTime();
+      if (delay > 0) {
+        LockSupport.parkNanos(delay);
+      }
+      if (openGames.incrementAndGet() > MAX_OPEN_GAMES) {
+        openGames.decrementAndGet();
+        statistics.recordError(LoadStatistics.Operation.CREATE, "not started, too many open games");
+        statistics.gameAbandoned();
+        continue;
+      }
+      long gameStart = intendedStart;
+      SimulatedPlayer player = newPlayer();
+      players.execute(() -> {
+        try {
+          player.playGame(gameStart);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        } finally {
+          openGames.decrementAndGet();
+        }
+      });
+    }
+    players.shutdown();
+    players.awaitTermination(1, TimeUnit.MINUTES);
+    report(reporter, start);
+  }
+
+  private SimulatedPlayer newPlayer() {
+    synchronized (random) {
+      return new SimulatedPlayer(client, objectMapper, gamesUri, statistics, random.split());
+    }
+  }
+
+  private ScheduledExecutorService startReporter() {
+    ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "load-reporter");
+      thread.setDaemon(true);
+      return thread;
+    });
+    reporter.scheduleAtFixedRate(() -> System.err.println(statistics.interval(1)), 1, 1, TimeUnit.SECONDS);
+    return reporter;
+  }
+
+  private void report(ScheduledExecutorService reporter, long start) throws InterruptedException {
+    reporter.shutdown();
+    reporter.awaitTermination(1, TimeUnit.SECONDS);
+    System.err.print(statistics.summary((System.nanoTime() - start) / 1e9));
+  }
+}
@@ -0,0 +1,116 @@
+package com.piotrak.kalah.load;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Latencies, throughput and errors of the requests of a load test.
+ * <p>
+ * Every operation records into an HdrHistogram {@link Recorder}, which players write to without locking. The
+ * reporter takes an interval histogram every second, prints it and adds it to the totals, so a p99 degrading
+ * while the load ramps up shows in the interval lines.
+ */
+final class LoadStatistics {
+
+  private static final long MAX_LATENCY = TimeUnit.MINUTES.toNanos(1);
+
+  /**
+   * Kind of a request.
+   */
+  enum Operation {
+    CREATE,
+    MOVE
+  }
+
+  private final Map<Operation, Recorder> recorders = new TreeMap<>();
+  private final Map<Operation, Histogram> totals = new TreeMap<>();
+  private final Map<Operation, Histogram> intervals = new TreeMap<>();
+  private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+  private final LongAdder gamesFinished = new LongAdder();
+  private final LongAdder gamesAbandoned = new LongAdder();
+
+  LoadStatistics() {
+    for (Operation operation : Operation.values()) {
+      recorders.put(operation, new Recorder(MAX_LATENCY, 3));
+      totals.put(operation, new Histogram(MAX_LATENCY, 3));
+    }
+  }
+
+  void record(Operation operation, long latencyNanos) {
+    recorders.get(operation).recordValue(Math.min(latencyNanos, MAX_LATENCY));
+  }
+
+  /**
+   * Counts a failed request.
+   * @param operation kind of the request
+   * @param error HTTP status or exception class
+   */
+  void recordError(Operation operation, String error) {
+    errors.computeIfAbsent(operation.name().toLowerCase(Locale.ROOT) + " " + error, key -> new LongAdder())
+      .increment();
+  }
+
+  void gameFinished() {
+    gamesFinished.increment();
+  }
+
+  void gameAbandoned() {
+    gamesAbandoned.increment();
+  }
+
+  /**
+   * Moves the latencies recorded since the previous call to the totals.
+   * @param seconds length of the interval
+   * @return one line with the throughput and the percentiles of the interval
+   */
+  synchronized String interval(double seconds) {
+    StringBuilder line = new StringBuilder();
+    for (Operation operation : Operation.values()) {
+      Histogram interval = recorders.get(operation).getIntervalHistogram(intervals.get(operation));
+      intervals.put(operation, interval);
+      totals.get(operation).add(interval);
+      line.append(String.format(Locale.ROOT, "%s %8.0f/s p50 %7.2f p99 %7.2f ms   ",
+        operation.name().toLowerCase(Locale.ROOT), interval.getTotalCount() / seconds,
+        millis(interval.getValueAtPercentile(50)), millis(interval.getValueAtPercentile(99))));
+    }
+    return line.append(String.format(Locale.ROOT, "errors %d", errorCount())).toString();
+  }
+
+  /**
+   * @param seconds length of the test
+   * @return the report of the whole test
+   */
+  synchronized String summary(double seconds) {
+    interval(seconds);
+    StringBuilder report = new StringBuilder(String.format(Locale.ROOT,
+      "%d games finished, %d abandoned, %.1f games/s%n", gamesFinished.sum(), gamesAbandoned.sum(),
+      gamesFinished.sum() / seconds));
+    report.append(String.format(Locale.ROOT, "%-6s %10s %10s %9s %9s %9s %9s %9s %9s%n",
+      "", "requests", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "mean ms"));
+    for (Operation operation : Operation.values()) {
+      Histogram total = totals.get(operation);
+      report.append(String.format(Locale.ROOT, "%-6s %10d %10.0f %9.2f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+        operation.name().toLowerCase(Locale.ROOT), total.getTotalCount(), total.getTotalCount() / seconds,
+        millis(total.getValueAtPercentile(50)), millis(total.getValueAtPercentile(90)),
+        millis(total.getValueAtPercentile(99)), millis(total.getValueAtPercentile(99.9)),
+        millis(total.getMaxValue()), total.getMean() / 1e6));
+    }
+    new TreeMap<>(errors).forEach((error, count) ->
+      report.append(String.format(Locale.ROOT, "error %s: %d%n", error, count.sum())));
+    return report.toString();
+  }
+
+  long errorCount() {
+    return errors.values().stream().mapToLong(LongAdder::sum).sum();
+  }
+
+  private static double millis(long nanos) {
+    return nanos / 1e6;
+  }
+}
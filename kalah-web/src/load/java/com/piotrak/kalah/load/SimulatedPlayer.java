@@ -0,0 +1,82 @@
+package com.piotrak.kalah.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.piotrak.kalah.load.LoadStatistics.Operation;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.SplittableRandom;
+
+/**
+ * Plays whole games through the REST API, taking both seats: it creates a game, then picks a random pit among
+ * the legal moves of the last answer until the game is over.
+ */
+final class SimulatedPlayer {
+
+  private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+  private final HttpClient client;
+  private final ObjectMapper objectMapper;
+  private final URI gamesUri;
+  private final LoadStatistics statistics;
+  private final SplittableRandom random;
+
+  SimulatedPlayer(HttpClient client, ObjectMapper objectMapper, URI gamesUri, LoadStatistics statistics,
+    SplittableRandom random) {
+    this.client = client;
+    this.objectMapper = objectMapper;
+    this.gamesUri = gamesUri;
+    this.statistics = statistics;
+    this.random = random;
+  }
+
+  /**
+   * Plays one game to its end, or until a request fails.
+   * @param intendedStart time the game was meant to start at, in nanoseconds, so that the creation of a game
+   *                      which had to wait for a thread counts the wait
+   * @return true if the game was finished
+   */
+  boolean playGame(long intendedStart) throws InterruptedException {
+    JsonNode game = send(Operation.CREATE, HttpRequest.newBuilder(gamesUri)
+      .POST(HttpRequest.BodyPublishers.noBody()), intendedStart);
+    if (game == null) {
+      statistics.gameAbandoned();
+      return false;
+    }
+    URI pitsUri = URI.create(gamesUri + "/" + game.get("id").asInt() + "/pits/");
+    JsonNode legalMoves = game.get("legalMoves");
+    while (legalMoves.size() > 0) {
+      int pit = legalMoves.get(random.nextInt(legalMoves.size())).asInt();
+      game = send(Operation.MOVE, HttpRequest.newBuilder(pitsUri.resolve(Integer.toString(pit)))
+        .PUT(HttpRequest.BodyPublishers.noBody()), System.nanoTime());
+      if (game == null) {
+        statistics.gameAbandoned();
+        return false;
+      }
+      legalMoves = game.get("legalMoves");
+    }
+    statistics.gameFinished();
+    return true;
+  }
+
+  private JsonNode send(Operation operation, HttpRequest.Builder request, long start) throws InterruptedException {
+    try {
+      HttpResponse<byte[]> response = client.send(request.timeout(TIMEOUT).build(),
+        HttpResponse.BodyHandlers.ofByteArray());
+      statistics.record(operation, System.nanoTime() - start);
+      if (response.statusCode() / 100 != 2) {
+        statistics.recordError(operation, Integer.toString(response.statusCode()));
+        return null;
+      }
+      return objectMapper.readTree(response.body());
+    } catch (IOException e) {
+      statistics.record(operation, System.nanoTime() - start);
+      statistics.recordError(operation, e.getClass().getSimpleName());
+      return null;
+    }
+  }
+}
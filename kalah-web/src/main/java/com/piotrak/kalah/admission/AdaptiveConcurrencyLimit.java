@@ -0,0 +1,94 @@
+package com.piotrak.kalah.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Limit of the requests handled at once which adapts to their latency, additive increase and multiplicative
+ * decrease: every request answered within the latency target while at least half of the limit was in use adds
+ * one request to the limit per limit's worth of requests, a slower one cuts the limit by the backoff factor, at
+ * most once per latency target so that one burst of slow requests cuts it once.
+ * <p>
+ * Requests of lower priority only get a share of the limit, they are shed first and leave the rest to the others.
+ */
+final class AdaptiveConcurrencyLimit {
+
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final int minLimit;
+  private final int maxLimit;
+  private final long latencyTarget;
+  private final double backoff;
+  private volatile double limit;
+  private long lastDecrease;
+
+  /**
+   * @param initialLimit limit before any latency was observed
+   * @param minLimit lowest limit
+   * @param maxLimit highest limit
+   * @param latencyTarget latency in nanoseconds above which the limit decreases
+   * @param backoff factor applied to the limit when it decreases
+   */
+  AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, long latencyTarget, double backoff) {
+    if (minLimit < 1 || minLimit > maxLimit || backoff <= 0 || backoff >= 1) {
+      throw new IllegalArgumentException("Invalid concurrency limit settings");
+    }
+    this.minLimit = minLimit;
+    this.maxLimit = maxLimit;
+    this.latencyTarget = latencyTarget;
+    this.backoff = backoff;
+    this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    this.lastDecrease = Long.MIN_VALUE / 2;
+  }
+
+  /**
+   * Takes a slot if the requests in flight are below the share of the limit.
+   * @param share share of the limit the request may use, 1 for the requests with the highest priority
+   * @return true if the request may proceed, it then has to be {@link #release released}
+   */
+  boolean tryAcquire(double share) {
+    int allowed = Math.max(1, (int) (limit * share));
+    while (true) {
+      int current = inFlight.get();
+      if (current >= allowed) {
+        return false;
+      }
+      if (inFlight.compareAndSet(current, current + 1)) {
+        return true;
+      }
+    }
+  }
+
+  /**
+   * Gives a slot back without adapting the limit.
+   */
+  void release() {
+    inFlight.decrementAndGet();
+  }
+
+  /**
+   * Gives a slot back and adapts the limit to the latency of its request.
+   * @param latency latency of the request in nanoseconds
+   * @param now current time in nanoseconds
+   */
+  void release(long latency, long now) {
+    int concurrent = inFlight.getAndDecrement();
+    synchronized (this) {
+      double current = limit;
+      if (latency > latencyTarget) {
+        if (now - lastDecrease >= latencyTarget) {
+          lastDecrease = now;
+          limit = Math.max(minLimit, current * backoff);
+        }
+      } else if (concurrent * 2 >= current) {
+        limit = Math.min(maxLimit, current + 1 / current);
+      }
+    }
+  }
+
+  int getLimit() {
+    return (int) limit;
+  }
+
+  int getInFlight() {
+    return inFlight.get();
+  }
+}
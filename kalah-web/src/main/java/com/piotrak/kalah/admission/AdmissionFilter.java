@@ -0,0 +1,145 @@
+package com.piotrak.kalah.admission;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.piotrak.kalah.admission.AdmissionPolicy.Rejection;
+import com.piotrak.kalah.admission.AdmissionPolicy.RequestKind;
+import com.piotrak.kalah.controller.response.ErrorResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Sheds the game creations and the moves above the limits of the {@link AdmissionPolicy} before they reach the
+ * controllers, with 429 when the client exceeds its own rate and 503 when the server is overloaded, both telling
+ * when to retry. Other requests pass through.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@ConditionalOnProperty(prefix = "kalah.admission", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class AdmissionFilter extends OncePerRequestFilter {
+
+  private static final String GAMES = "/games";
+  private static final String MATCHMAKING = "/matchmaking";
+
+  private final AdmissionPolicy policy;
+  private final String clientHeader;
+  private final Map<AdmissionRejection, byte[]> bodies = new EnumMap<>(AdmissionRejection.class);
+  private final Map<AdmissionRejection, Counter> rejections = new EnumMap<>(AdmissionRejection.class);
+
+  @Autowired
+  public AdmissionFilter(AdmissionProperties properties, ObjectMapper objectMapper, MeterRegistry registry)
+    throws JsonProcessingException {
+    this(new AdmissionPolicy(properties, System::nanoTime), properties.clientHeader(), objectMapper, registry);
+  }
+
+  AdmissionFilter(AdmissionPolicy policy, String clientHeader, ObjectMapper objectMapper, MeterRegistry registry)
+    throws JsonProcessingException {
+    this.policy = policy;
+    this.clientHeader = clientHeader;
+    for (AdmissionRejection reason : AdmissionRejection.values()) {
+      bodies.put(reason, objectMapper.writeValueAsBytes(new ErrorResponse(reason.getMessage())));
+      rejections.put(reason, Counter.builder("kalah.admission.rejected")
+        .description("Requests shed before reaching the games")
+        .tag("reason", reason.name().toLowerCase(Locale.ROOT))
+        .register(registry));
+    }
+    Gauge.builder("kalah.admission.limit", policy, AdmissionPolicy::getConcurrencyLimit)
+      .description("Requests on games which may be handled at once")
+      .register(registry);
+    Gauge.builder("kalah.admission.in-flight", policy, AdmissionPolicy::getInFlight)
+      .description("Requests on games being handled")
+      .register(registry);
+    Gauge.builder("kalah.admission.clients", policy, AdmissionPolicy::getTrackedClients)
+      .description("Clients whose request rates are tracked")
+      .register(registry);
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+    throws ServletException, IOException {
+    RequestKind kind = kindOf(request);
+    if (kind == null) {
+      chain.doFilter(request, response);
+      return;
+    }
+    Rejection rejection = policy.admit(kind, clientOf(request));
+    if (rejection != null) {
+      reject(response, rejection);
+      return;
+    }
+    long start = policy.now();
+    try {
+      chain.doFilter(request, response);
+    } finally {
+      policy.complete(kind, start);
+    }
+  }
+
+  static RequestKind kindOf(String method, String path) {
+    if (MATCHMAKING.equals(path)) {
+      // a waiting player holds no thread, only the game created for a pair costs
+      return "POST".equals(method) ? RequestKind.CREATE : null;
+    }
+    if (!path.startsWith(GAMES) || path.length() > GAMES.length() && path.charAt(GAMES.length()) != '/') {
+      return null;
+    }
+    if (path.length() <= GAMES.length() + 1) {
+      return "POST".equals(method) ? RequestKind.CREATE : null;
+    }
+    if ("PUT".equals(method) && path.indexOf("/pits", GAMES.length() + 1) >= 0) {
+      return RequestKind.MOVE;
+    }
+    if ("POST".equals(method)) {
+      if (path.endsWith("/undo")) {
+        return RequestKind.MOVE;
+      }
+      if (path.endsWith("/ai-move")) {
+        return RequestKind.COMPUTE;
+      }
+    }
+    return null;
+  }
+
+  private static RequestKind kindOf(HttpServletRequest request) {
+    return kindOf(request.getMethod(), request.getRequestURI().substring(request.getContextPath().length()));
+  }
+
+  private String clientOf(HttpServletRequest request) {
+    if (clientHeader != null) {
+      String forwarded = request.getHeader(clientHeader);
+      if (forwarded != null && !forwarded.isBlank()) {
+        int comma = forwarded.indexOf(',');
+        return (comma < 0 ? forwarded : forwarded.substring(0, comma)).trim();
+      }
+    }
+    return request.getRemoteAddr();
+  }
+
+  private void reject(HttpServletResponse response, Rejection rejection) throws IOException {
+    AdmissionRejection reason = rejection.reason();
+    rejections.get(reason).increment();
+    byte[] body = bodies.get(reason);
+    response.setStatus(reason.getStatus().value());
+    response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(rejection.retryAfter()));
+    response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+    response.setContentLength(body.length);
+    response.getOutputStream().write(body);
+  }
+}
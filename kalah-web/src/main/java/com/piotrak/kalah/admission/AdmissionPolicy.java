@@ -0,0 +1,151 @@
+package com.piotrak.kalah.admission;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Decides which requests are handled: the rate of every client and the global rate of new games are limited by
+ * token buckets, the requests handled at once by a limit adapting to the latency of the moves. New games only get
+ * a share of that limit, so under load they are shed before the moves of the games in progress.
+ */
+final class AdmissionPolicy {
+
+  /**
+   * Kind of a request subject to admission.
+   */
+  enum RequestKind {
+    CREATE,
+    MOVE,
+    /**
+     * Move chosen by the computer, its search time does not tell the load of the server.
+     */
+    COMPUTE
+  }
+
+  /**
+   * @param reason why the request was shed
+   * @param retryAfter seconds after which the client may try again
+   */
+  record Rejection(AdmissionRejection reason, long retryAfter) {
+  }
+
+  private final AdmissionProperties properties;
+  private final LongSupplier clock;
+  private final Map<String, TokenBucket> createBuckets = new ConcurrentHashMap<>();
+  private final Map<String, TokenBucket> moveBuckets = new ConcurrentHashMap<>();
+  private final TokenBucket globalCreateBucket;
+  private final AdaptiveConcurrencyLimit concurrencyLimit;
+  private final Lock sweepLock = new ReentrantLock();
+
+  AdmissionPolicy(AdmissionProperties properties, LongSupplier clock) {
+    this.properties = properties;
+    this.clock = clock;
+    this.globalCreateBucket =
+      new TokenBucket(properties.globalCreateRate(), properties.globalCreateBurst(), clock.getAsLong());
+    this.concurrencyLimit = new AdaptiveConcurrencyLimit(properties.initialConcurrency(),
+      properties.minConcurrency(), properties.maxConcurrency(), properties.latencyTarget().toNanos(),
+      properties.backoff());
+  }
+
+  /**
+   * Admits a request, which then has to be {@link #complete completed}.
+   * @param kind kind of the request
+   * @param client address of the client
+   * @return null if the request is admitted, otherwise why it is not
+   */
+  Rejection admit(RequestKind kind, String client) {
+    long now = clock.getAsLong();
+    boolean create = kind == RequestKind.CREATE;
+    TokenBucket clientBucket = clientBucket(create ? createBuckets : moveBuckets, client, create, now);
+    if (clientBucket == null) {
+      return new Rejection(AdmissionRejection.CLIENTS, 1);
+    }
+    long wait = clientBucket.tryAcquire(now);
+    if (wait > 0) {
+      return new Rejection(AdmissionRejection.CLIENT_RATE, retryAfter(wait));
+    }
+    // a request shed by a shared limit gives its tokens back, the client is not charged for the server's load
+    if (create) {
+      wait = globalCreateBucket.tryAcquire(now);
+      if (wait > 0) {
+        clientBucket.refund();
+        return new Rejection(AdmissionRejection.GLOBAL_RATE, retryAfter(wait));
+      }
+    }
+    if (!concurrencyLimit.tryAcquire(create ? properties.createShare() : 1)) {
+      clientBucket.refund();
+      if (create) {
+        globalCreateBucket.refund();
+      }
+      return new Rejection(AdmissionRejection.CONCURRENCY, 1);
+    }
+    return null;
+  }
+
+  /**
+   * Releases the slot of an admitted request, the latency of the moves adapts the concurrency limit.
+   * @param kind kind of the request
+   * @param start time the request was admitted at, in nanoseconds
+   */
+  void complete(RequestKind kind, long start) {
+    if (kind == RequestKind.MOVE) {
+      long now = clock.getAsLong();
+      concurrencyLimit.release(now - start, now);
+    } else {
+      concurrencyLimit.release();
+    }
+  }
+
+  long now() {
+    return clock.getAsLong();
+  }
+
+  int getConcurrencyLimit() {
+    return concurrencyLimit.getLimit();
+  }
+
+  int getInFlight() {
+    return concurrencyLimit.getInFlight();
+  }
+
+  int getTrackedClients() {
+    return Math.max(createBuckets.size(), moveBuckets.size());
+  }
+
+  private TokenBucket clientBucket(Map<String, TokenBucket> buckets, String client, boolean create, long now) {
+    TokenBucket bucket = buckets.get(client);
+    if (bucket != null) {
+      return bucket;
+    }
+    if (buckets.size() >= properties.maxClients()) {
+      sweep(buckets, now);
+      if (buckets.size() >= properties.maxClients()) {
+        return null;
+      }
+    }
+    return buckets.computeIfAbsent(client, key -> create
+      ? new TokenBucket(properties.clientCreateRate(), properties.clientCreateBurst(), now)
+      : new TokenBucket(properties.clientMoveRate(), properties.clientMoveBurst(), now));
+  }
+
+  /**
+   * Forgets the clients whose buckets are full, they would get a full bucket again anyway.
+   */
+  private void sweep(Map<String, TokenBucket> buckets, long now) {
+    if (sweepLock.tryLock()) {
+      try {
+        buckets.values().removeIf(bucket -> bucket.isFull(now));
+      } finally {
+        sweepLock.unlock();
+      }
+    }
+  }
+
+  private static long retryAfter(long waitNanos) {
+    return Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+  }
+}
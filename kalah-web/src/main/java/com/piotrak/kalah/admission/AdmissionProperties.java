@@ -0,0 +1,48 @@
+package com.piotrak.kalah.admission;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Limits applied to the requests before they reach the games.
+ * @param enabled true to shed the requests above the limits
+ * @param clientHeader header carrying the client address, such as X-Forwarded-For behind a proxy, the remote
+ *                     address of the connection when not set
+ * @param maxClients number of clients whose rates are tracked, idle clients are forgotten above it
+ * @param clientCreateRate games a client may create per second
+ * @param clientCreateBurst games a client may create at once
+ * @param globalCreateRate games all the clients together may create per second
+ * @param globalCreateBurst games all the clients together may create at once
+ * @param clientMoveRate moves a client may make per second
+ * @param clientMoveBurst moves a client may make at once
+ * @param initialConcurrency requests handled at once before the limit has adapted
+ * @param minConcurrency lowest limit of the requests handled at once
+ * @param maxConcurrency highest limit of the requests handled at once
+ * @param latencyTarget move latency above which the concurrency limit decreases
+ * @param backoff factor applied to the concurrency limit when the latency is above the target
+ * @param createShare share of the concurrency limit new games may use, the rest is kept for moves
+ */
+@ConfigurationProperties(prefix = "kalah.admission")
+public record AdmissionProperties(
+  @DefaultValue("true") boolean enabled,
+  String clientHeader,
+  @DefaultValue("100000") int maxClients,
+  @DefaultValue("5") double clientCreateRate,
+  @DefaultValue("20") int clientCreateBurst,
+  @DefaultValue("500") double globalCreateRate,
+  @DefaultValue("1000") int globalCreateBurst,
+  @DefaultValue("50") double clientMoveRate,
+  @DefaultValue("100") int clientMoveBurst,
+  @DefaultValue("64") int initialConcurrency,
+  @DefaultValue("8") int minConcurrency,
+  @DefaultValue("512") int maxConcurrency,
+  @DefaultValue("50ms") Duration latencyTarget,
+  @DefaultValue("0.9") double backoff,
+  @DefaultValue("0.75") double createShare) {
+
+  public static AdmissionProperties defaults() {
+    return new AdmissionProperties(true, null, 100_000, 5, 20, 500, 1_000, 50, 100, 64, 8, 512,
+      Duration.ofMillis(50), 0.9, 0.75);
+  }
+}
@@ -0,0 +1,29 @@
+package com.piotrak.kalah.admission;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Reason why a request was shed before reaching the games.
+ */
+public enum AdmissionRejection {
+  CLIENT_RATE(HttpStatus.TOO_MANY_REQUESTS, "Too many requests from this client"),
+  GLOBAL_RATE(HttpStatus.SERVICE_UNAVAILABLE, "Too many games are being created"),
+  CONCURRENCY(HttpStatus.SERVICE_UNAVAILABLE, "The server is overloaded"),
+  CLIENTS(HttpStatus.SERVICE_UNAVAILABLE, "Too many clients");
+
+  private final HttpStatus status;
+  private final String message;
+
+  AdmissionRejection(HttpStatus status, String message) {
+    this.status = status;
+    this.message = message;
+  }
+
+  public HttpStatus getStatus() {
+    return status;
+  }
+
+  public String getMessage() {
+    return message;
+  }
+}
@@ -0,0 +1,64 @@
+package com.piotrak.kalah.admission;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket in its generic cell rate form: the state is the time at which the bucket will be full
+ * again, a request takes one token by pushing that time one emission interval later, as long as it stays within
+ * the burst from now.
+ */
+final class TokenBucket {
+
+  private final long interval;
+  private final long tolerance;
+  private final AtomicLong fullAt;
+
+  /**
+   * @param ratePerSecond tokens added per second
+   * @param burst capacity of the bucket
+   * @param now current time in nanoseconds, the bucket starts full
+   */
+  TokenBucket(double ratePerSecond, int burst, long now) {
+    if (ratePerSecond <= 0 || burst < 1) {
+      throw new IllegalArgumentException("A token bucket needs a positive rate and burst");
+    }
+    this.interval = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond));
+    this.tolerance = interval * burst;
+    this.fullAt = new AtomicLong(now);
+  }
+
+  /**
+   * Takes a token if there is one.
+   * @param now current time in nanoseconds
+   * @return 0 if a token was taken, otherwise the nanoseconds until there is one
+   */
+  long tryAcquire(long now) {
+    while (true) {
+      long current = fullAt.get();
+      long next = Math.max(current, now) + interval;
+      long excess = next - now - tolerance;
+      if (excess > 0) {
+        return excess;
+      }
+      if (fullAt.compareAndSet(current, next)) {
+        return 0;
+      }
+    }
+  }
+
+  /**
+   * Gives back a token taken by a request which another limit then rejected.
+   */
+  void refund() {
+    fullAt.addAndGet(-interval);
+  }
+
+  /**
+   * @param now current time in nanoseconds
+   * @return true if the bucket has all its tokens, it can then be forgotten and created again
+   */
+  boolean isFull(long now) {
+    return fullAt.get() <= now;
+  }
+}
@@ -0,0 +1,20 @@
+package com.piotrak.kalah.ai;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings of the computer opponent.
+ * @param timeBudget time the search may take per move
+ * @param maxDepth maximum search depth in plies
+ * @param parallelism number of search threads, 0 uses all available processors
+ * @param transpositionTableBits log2 of the number of transposition table entries
+ */
+@ConfigurationProperties(prefix = "kalah.ai")
+public record AiProperties(
+  @DefaultValue("200ms") Duration timeBudget,
+  @DefaultValue("40") int maxDepth,
+  @DefaultValue("0") int parallelism,
+  @DefaultValue("20") int transpositionTableBits) {
+}
@@ -0,0 +1,11 @@
+package com.piotrak.kalah.ai;
+
+import com.piotrak.kalah.model.Game;
+
+/**
+ * Move made by the computer player.
+ * @param game the game after the move
+ * @param searchResult the search which picked the move
+ */
+public record ComputerMove(Game game, SearchResult searchResult) {
+}
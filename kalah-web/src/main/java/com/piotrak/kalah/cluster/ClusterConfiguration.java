@@ -0,0 +1,38 @@
+package com.piotrak.kalah.cluster;
+
+import com.piotrak.kalah.repository.GameRepository;
+import com.piotrak.kalah.repository.InMemoryGameRepository;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+@Slf4j
+@Configuration
+@ConditionalOnProperty(prefix = "kalah.cluster", name = "nodes")
+public class ClusterConfiguration {
+
+  @Bean
+  public ShardRing shardRing(ClusterProperties properties) {
+    if (!properties.nodes().contains(properties.node())) {
+      throw new IllegalStateException(
+        String.format("kalah.cluster.node %s is not one of %s", properties.node(), properties.nodes()));
+    }
+    return new ShardRing(properties.nodes(), properties.virtualNodes());
+  }
+
+  /**
+   * The in-memory repository keeps the games of the shards of this node.
+   */
+  @Bean
+  @Primary
+  public ShardedGameRepository shardedGameRepository(ShardRing shardRing, ClusterProperties properties,
+    InMemoryGameRepository inMemoryGameRepository) {
+    log.info("Node {} owns {} of {} shards", properties.node(), shardRing.shardsOf(properties.node()).length,
+      ShardRing.SHARDS);
+    return new ShardedGameRepository(shardRing, Map.<String, GameRepository>of(properties.node(),
+      inMemoryGameRepository));
+  }
+}
@@ -0,0 +1,18 @@
+package com.piotrak.kalah.cluster;
+
+import java.util.List;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings of a cluster of game servers sharing the games by shard.
+ * @param node name of this node, one of the nodes
+ * @param nodes names of all the nodes, games are kept on a single node when not set
+ * @param virtualNodes number of points of every node on the hash ring
+ */
+@ConfigurationProperties(prefix = "kalah.cluster")
+public record ClusterProperties(
+  String node,
+  List<String> nodes,
+  @DefaultValue("64") int virtualNodes) {
+}
@@ -0,0 +1,156 @@
+package com.piotrak.kalah.cluster;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * Consistent hash ring assigning the shards of the game ids to the nodes of a cluster.
+ * <p>
+ * A game id carries its shard in its {@value #SHARD_BITS} high bits, below the sign bit, and a sequence number
+ * of its shard in the others, so the node of a game follows from its id and a table of {@value #SHARDS} owners,
+ * without any lookup. Every node is placed on the ring at a number of virtual points, a shard belongs to the
+ * node of the first point at or after the hash of the shard. Adding a node only moves the shards which fall
+ * before its points, about one shard in every number of nodes, and the shards move from all the other nodes.
+ */
+public final class ShardRing {
+
+  public static final int SHARD_BITS = 8;
+  public static final int SHARDS = 1 << SHARD_BITS;
+  public static final int SEQUENCE_BITS = Integer.SIZE - 1 - SHARD_BITS;
+  public static final int MAX_SEQUENCE = (1 << SEQUENCE_BITS) - 1;
+
+  private final List<String> nodes;
+  private final int virtualNodes;
+  private final String[] owners = new String[SHARDS];
+
+  /**
+   * @param nodes names of the nodes
+   * @param virtualNodes number of points of every node on the ring
+   */
+  public ShardRing(Collection<String> nodes, int virtualNodes) {
+    Set<String> distinct = new LinkedHashSet<>(nodes);
+    if (distinct.isEmpty() || virtualNodes < 1) {
+      throw new IllegalArgumentException("A ring needs at least one node and one virtual node per node");
+    }
+    this.nodes = List.copyOf(distinct);
+    this.virtualNodes = virtualNodes;
+
+    List<Point> points = new ArrayList<>(distinct.size() * virtualNodes);
+    for (String node : distinct) {
+      for (int i = 0; i < virtualNodes; i++) {
+        points.add(new Point(hash(node + "#" + i), node));
+      }
+    }
+    points.sort(Comparator.comparingLong(Point::hash).thenComparing(Point::node));
+    long[] hashes = points.stream().mapToLong(Point::hash).toArray();
+    for (int shard = 0; shard < SHARDS; shard++) {
+      int index = Arrays.binarySearch(hashes, mix(shard + 1));
+      if (index < 0) {
+        index = -index - 1;
+      }
+      owners[shard] = points.get(index == hashes.length ? 0 : index).node();
+    }
+  }
+
+  /**
+   * @param gameId game id
+   * @return the shard of the game
+   */
+  public static int shardOf(int gameId) {
+    return gameId >>> SEQUENCE_BITS;
+  }
+
+  /**
+   * @param shard shard of the game
+   * @param sequence sequence number of the game in its shard, from 1 to {@link #MAX_SEQUENCE}
+   * @return the game id
+   */
+  public static int gameId(int shard, int sequence) {
+    return shard << SEQUENCE_BITS | sequence;
+  }
+
+  /**
+   * @param gameId game id
+   * @return the sequence number of the game in its shard
+   */
+  public static int sequenceOf(int gameId) {
+    return gameId & MAX_SEQUENCE;
+  }
+
+  public List<String> getNodes() {
+    return nodes;
+  }
+
+  /**
+   * @param shard shard number
+   * @return name of the node owning the shard
+   */
+  public String ownerOf(int shard) {
+    return owners[shard];
+  }
+
+  /**
+   * @param gameId game id
+   * @return name of the node owning the game
+   */
+  public String ownerOfGame(int gameId) {
+    return owners[shardOf(gameId)];
+  }
+
+  /**
+   * @return owners indexed by shard, the routing table of a load balancer
+   */
+  public List<String> getOwners() {
+    return List.of(owners);
+  }
+
+  /**
+   * @param node name of a node
+   * @return the shards the node owns, in increasing order
+   */
+  public int[] shardsOf(String node) {
+    return IntStream.range(0, SHARDS).filter(shard -> owners[shard].equals(node)).toArray();
+  }
+
+  /**
+   * @param node name of the added node
+   * @return the ring with one more node
+   */
+  public ShardRing withNode(String node) {
+    List<String> grown = new ArrayList<>(nodes);
+    grown.add(node);
+    return new ShardRing(grown, virtualNodes);
+  }
+
+  /**
+   * 64-bit FNV-1a of the UTF-8 bytes, mixed so that close names land far apart.
+   */
+  private static long hash(String value) {
+    long hash = 0xCBF29CE484222325L;
+    for (byte b : value.getBytes(UTF_8)) {
+      hash = (hash ^ (b & 0xFF)) * 0x100000001B3L;
+    }
+    return mix(hash);
+  }
+
+  /**
+   * Finalizer of MurmurHash3.
+   */
+  private static long mix(long value) {
+    long hash = value;
+    hash = (hash ^ hash >>> 33) * 0xFF51AFD7ED558CCDL;
+    hash = (hash ^ hash >>> 33) * 0xC4CEB9FE1A85EC53L;
+    return hash ^ hash >>> 33;
+  }
+
+  private record Point(long hash, String node) {
+  }
+}
@@ -0,0 +1,227 @@
+package com.piotrak.kalah.cluster;
+
+import com.piotrak.kalah.model.Game;
+import com.piotrak.kalah.repository.GameRepository;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Game repository routing every game to the backend of the node owning its shard on a {@link ShardRing}.
+ * <p>
+ * Ids are allocated round robin over the shards owned by the local backends, so the shard of a game, and with it
+ * its node, is part of its id and of its URL. Games of shards owned by other nodes are not found here, a load
+ * balancer routing by shard sends their requests to their node. Locks are striped by game id independently of
+ * the backends, so a game keeps its lock while it moves to another backend.
+ */
+@Slf4j
+public class ShardedGameRepository implements GameRepository {
+
+  private static final int LOCK_STRIPES = 1024;
+
+  private final Map<String, GameRepository> backends;
+  private final AtomicInteger[] sequences = new AtomicInteger[ShardRing.SHARDS];
+  private final Lock[] locks = new Lock[LOCK_STRIPES];
+  private final AtomicInteger nextShard = new AtomicInteger();
+
+  private volatile ShardRing ring;
+  /**
+   * Ring before the node being added, games not moved yet are still found through it.
+   */
+  private volatile ShardRing previousRing;
+  private volatile int[] localShards;
+  private volatile IntConsumer removalListener = gameId -> { };
+
+  /**
+   * @param ring owners of the shards
+   * @param backends repositories of the nodes hosted by this instance, by node name
+   */
+  public ShardedGameRepository(ShardRing ring, Map<String, GameRepository> backends) {
+    for (String node : backends.keySet()) {
+      if (!ring.getNodes().contains(node)) {
+        throw new IllegalArgumentException(String.format("Node %s is not on the ring %s", node, ring.getNodes()));
+      }
+    }
+    for (int i = 0; i < ShardRing.SHARDS; i++) {
+      sequences[i] = new AtomicInteger();
+    }
+    for (int i = 0; i < LOCK_STRIPES; i++) {
+      locks[i] = new ReentrantLock();
+    }
+    this.backends = new ConcurrentHashMap<>(backends);
+    this.backends.values().forEach(backend -> backend.useLocks(this::lockFor));
+    this.ring = ring;
+    this.localShards = localShards(ring);
+  }
+
+  public ShardRing getRing() {
+    return ring;
+  }
+
+  @Override
+  public void onRemoval(IntConsumer removalListener) {
+    this.removalListener = removalListener;
+    backends.values().forEach(backend -> backend.onRemoval(removalListener));
+  }
+
+  /**
+   * Allocates the next id of one of the local shards, taking the shards in turn.
+   * @return game id
+   */
+  @Override
+  public int nextId() {
+    int[] shards = localShards;
+    if (shards.length == 0) {
+      throw new IllegalStateException("No shard is owned by the nodes of this instance");
+    }
+    int shard = shards[Math.floorMod(nextShard.getAndIncrement(), shards.length)];
+    int sequence = sequences[shard].incrementAndGet();
+    if (sequence > ShardRing.MAX_SEQUENCE) {
+      throw new IllegalStateException(String.format("Shard %s has run out of game ids", shard));
+    }
+    return ShardRing.gameId(shard, sequence);
+  }
+
+  @Override
+  public void restoreId(int gameId) {
+    sequences[ShardRing.shardOf(gameId)].accumulateAndGet(ShardRing.sequenceOf(gameId), Math::max);
+  }
+
+  @Override
+  public void delete(Integer gameId) {
+    GameRepository backend = backendOf(gameId);
+    if (backend != null) {
+      backend.delete(gameId);
+    }
+  }
+
+  /**
+   * Stores a game in the backend of its shard.
+   * @param game Kalah game
+   * @throws IllegalStateException if the shard of the game belongs to another node
+   */
+  @Override
+  public void save(Game game) {
+    GameRepository backend = backendOf(game.getId());
+    if (backend == null) {
+      throw new IllegalStateException(
+        String.format("Game %s belongs to node %s", game.getId(), ring.ownerOfGame(game.getId())));
+    }
+    backend.save(game);
+  }
+
+  @Override
+  public Game find(Integer gameId) {
+    GameRepository backend = backendOf(gameId);
+    Game game = backend == null ? null : backend.find(gameId);
+    ShardRing previous = previousRing;
+    if (game == null && previous != null) {
+      GameRepository previousBackend = backends.get(previous.ownerOfGame(gameId));
+      if (previousBackend != null && previousBackend != backend) {
+        game = previousBackend.find(gameId);
+      }
+    }
+    return game;
+  }
+
+  @Override
+  public void finished(Game game) {
+    GameRepository backend = backendOf(game.getId());
+    if (backend != null) {
+      backend.finished(game);
+    }
+  }
+
+  @Override
+  public void resumed(Game game) {
+    GameRepository backend = backendOf(game.getId());
+    if (backend != null) {
+      backend.resumed(game);
+    }
+  }
+
+  @Override
+  public void forEach(Consumer<Game> action) {
+    backends.values().forEach(backend -> backend.forEach(action));
+  }
+
+  @Override
+  public int size() {
+    return backends.values().stream().mapToInt(GameRepository::size).sum();
+  }
+
+  @Override
+  public Lock lockFor(int gameId) {
+    return locks[gameId & (LOCK_STRIPES - 1)];
+  }
+
+  /**
+   * Adds a node hosted by this instance to the ring and moves to it the games of the shards it takes over. Games
+   * stay findable, and are moved one at a time under their lock, while the node is being added.
+   * @param node name of the node
+   * @param backend repository of the node
+   * @return number of games moved
+   */
+  public synchronized int addNode(String node, GameRepository backend) {
+    if (backends.containsKey(node)) {
+      throw new IllegalArgumentException(String.format("Node %s is already hosted", node));
+    }
+    ShardRing next = ring.withNode(node);
+    backend.onRemoval(removalListener);
+    backend.useLocks(this::lockFor);
+
+    List<Game> moving = new ArrayList<>();
+    forEach(game -> {
+      if (next.ownerOfGame(game.getId()).equals(node)) {
+        moving.add(game);
+      }
+    });
+    backends.put(node, backend);
+    previousRing = ring;
+    ring = next;
+    localShards = localShards(next);
+    int moved = 0;
+    for (Game game : moving) {
+      moved += move(game.getId(), backends.get(previousRing.ownerOfGame(game.getId())), backend);
+    }
+    previousRing = null;
+    log.info("Added node {} to the ring, moved {} games to it", node, moved);
+    return moved;
+  }
+
+  private int move(int gameId, GameRepository from, GameRepository to) {
+    Lock lock = lockFor(gameId);
+    lock.lock();
+    try {
+      Game game = from.find(gameId);
+      if (game == null) {
+        return 0;
+      }
+      to.save(game);
+      if (game.isFinished()) {
+        to.finished(game);
+      }
+      from.delete(gameId);
+      return 1;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private GameRepository backendOf(int gameId) {
+    return backends.get(ring.ownerOfGame(gameId));
+  }
+
+  private int[] localShards(ShardRing ring) {
+    return backends.keySet().stream().flatMapToInt(node -> Arrays.stream(ring.shardsOf(node)))
+      .sorted().toArray();
+  }
+}
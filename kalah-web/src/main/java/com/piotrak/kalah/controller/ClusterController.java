@@ -0,0 +1,40 @@
+package com.piotrak.kalah.controller;
+
+import com.piotrak.kalah.cluster.ClusterProperties;
+import com.piotrak.kalah.cluster.ShardRing;
+import com.piotrak.kalah.controller.response.ClusterResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.AllArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping(value = "/cluster")
+@AllArgsConstructor
+@ConditionalOnProperty(prefix = "kalah.cluster", name = "nodes")
+@Tag(name = "cluster", description = "Routing of the games between the nodes")
+public class ClusterController {
+
+  private final ShardRing shardRing;
+  private final ClusterProperties clusterProperties;
+
+  @Operation(summary = "Get the shard owners", description = "This method will return the node owning every shard, "
+    + "the shard of a game being its id shifted right by " + ShardRing.SEQUENCE_BITS + " bits")
+  @ApiResponses(value = {
+    @ApiResponse(responseCode = "200", description = "Owners of the shards")})
+  @RequestMapping(method = RequestMethod.GET, produces = "application/json")
+  @ResponseBody
+  public ResponseEntity<ClusterResponse> getCluster() {
+    ClusterResponse response = new ClusterResponse(clusterProperties.node(), shardRing.getNodes(),
+      ShardRing.SEQUENCE_BITS, shardRing.getOwners());
+    return new ResponseEntity<>(response, HttpStatus.OK);
+  }
+}
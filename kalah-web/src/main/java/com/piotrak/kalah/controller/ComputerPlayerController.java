@@ -0,0 +1,51 @@
+package com.piotrak.kalah.controller;
+
+import com.piotrak.kalah.controller.response.AiMoveResponse;
+import com.piotrak.kalah.service.ComputerPlayerService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.AllArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping(value = "/games")
+@AllArgsConstructor
+@Tag(name = "kalah", description = "Kalah game operations")
+public class ComputerPlayerController {
+
+  private final ComputerPlayerService computerPlayerService;
+
+  @Operation(summary = "Let the computer move", description = "This method will make a move for the player whose turn it is, chosen by the computer")
+  @ApiResponses(value = {
+    @ApiResponse(responseCode = "200", description = "Move made"),
+    @ApiResponse(responseCode = "400", description = "Bad request"),
+    @ApiResponse(responseCode = "409", description = "Game kept changing while the move was searched")})
+  @RequestMapping(value = "{gameId}/ai-move", method = RequestMethod.POST, produces = "application/json")
+  @ResponseBody
+  public ResponseEntity<AiMoveResponse> makeMove(
+    @Parameter(description = "Id of the kalah game", example = "1") @PathVariable(name = "gameId") Integer gameId) {
+    AiMoveResponse response = AiMoveResponse.of(computerPlayerService.makeMove(gameId));
+    return new ResponseEntity<>(response, HttpStatus.OK);
+  }
+
+  @Operation(summary = "Get a hint", description = "This method will return the move the computer would make for the player whose turn it is, without making it. Positions of the opening are answered from the opening book")
+  @ApiResponses(value = {
+    @ApiResponse(responseCode = "200", description = "Move suggested"),
+    @ApiResponse(responseCode = "400", description = "Bad request")})
+  @RequestMapping(value = "{gameId}/hint", method = RequestMethod.GET, produces = "application/json")
+  @ResponseBody
+  public ResponseEntity<AiMoveResponse> hint(
+    @Parameter(description = "Id of the kalah game", example = "1") @PathVariable(name = "gameId") Integer gameId) {
+    AiMoveResponse response = AiMoveResponse.of(computerPlayerService.hint(gameId));
+    return new ResponseEntity<>(response, HttpStatus.OK);
+  }
+}
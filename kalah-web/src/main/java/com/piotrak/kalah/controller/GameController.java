@@ -0,0 +1,159 @@
+package com.piotrak.kalah.controller;
+
+import com.piotrak.kalah.controller.request.BatchMoveRequest;
+import com.piotrak.kalah.model.BatchMode;
+import com.piotrak.kalah.model.BatchMoveResult;
+import com.piotrak.kalah.model.Game;
+import com.piotrak.kalah.model.GameMode;
+import com.piotrak.kalah.model.LegalMoves;
+import com.piotrak.kalah.service.GameJsonCache;
+import com.piotrak.kalah.service.GameJsonCache.CachedGame;
+import com.piotrak.kalah.service.GameService;
+import com.piotrak.kalah.service.GameWatchProperties;
+import com.piotrak.kalah.service.GameWatcher;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.AllArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+
+@RestController
+@RequestMapping(value = "/games")
+@AllArgsConstructor
+@Tag(name = "kalah", description = "Kalah game operations")
+public class GameController {
+
+  private final GameService gameService;
+  private final GameWatcher gameWatcher;
+  private final GameWatchProperties watchProperties;
+  private final GameJsonCache gameJsonCache;
+
+  @Operation(summary = "Get a game", description = "This method will return a game of Kalah, with an ETag "
+    + "changing with its version. With a matching If-None-Match header the game is not sent again")
+  @ApiResponses(value = {
+    @ApiResponse(responseCode = "200", description = "Game found"),
+    @ApiResponse(responseCode = "304", description = "Game not modified"),
+    @ApiResponse(responseCode = "400", description = "Bad request")})
+  @RequestMapping(value = "{gameId}", method = RequestMethod.GET, params = "!afterVersion",
+    produces = "application/json")
+  @ResponseBody
+  public ResponseEntity<byte[]> getGame(
+    @Parameter(description = "Id of the kalah game", example = "1") @PathVariable(name = "gameId") Integer gameId,
+    @RequestHeader HttpHeaders headers) {
+    CachedGame game = gameJsonCache.get(gameId, gameService::snapshot);
+    return game.matches(headers.getIfNoneMatch()) ? game.toNotModifiedResponse() : game.toResponse();
+  }
+
+  @Operation(summary = "Wait for a move", description = "This method will wait until a move was made in the game "
+    + "of Kalah after the given version or the timeout passed, then return the game")
+  @ApiResponses(value = {
+    @ApiResponse(responseCode = "200", description = "Game found"),
+    @ApiResponse(responseCode = "400", description = "Bad request")})
+  @RequestMapping(value = "{gameId}", method = RequestMethod.GET, params = "afterVersion",
+    produces = "application/json")
+  @ResponseBody
+  public DeferredResult<ResponseEntity<byte[]>> awaitGame(
+    @Parameter(description = "Id of the kalah game", example = "1") @PathVariable(name = "gameId") Integer gameId,
+    @Parameter(description = "Version the client knows, the request waits for a newer one", example = "0")
+    @RequestParam(name = "afterVersion") int afterVersion) {
+    DeferredResult<ResponseEntity<byte[]>> result = new DeferredResult<>(watchProperties.timeout().toMillis(),
+      () -> timeoutResult(gameId));
+    gameWatcher.watch(gameId, result);
+    // checked after registering, so that a concurrent move either shows here or completes the waiter
+    CachedGame game;
+    try {
+      game = gameJsonCache.get(gameId, gameService::snapshot);
+    } catch (IllegalArgumentException e) {
+      result.setErrorResult(e);
+      return result;
+    }
+    if (game.version() > afterVersion) {
+      result.setResult(game.toResponse());
+    }
+    return result;
+  }
+
+  @Operation(summary = "Create a new game", description = "This method will create a new game of Kalah, "
+    + "Kalah(6, 6) between two players unless another variant or mode is given")
+  @ApiResponses(value = {
+    @ApiResponse(responseCode = "201", description = "Game created"),
+    @ApiResponse(responseCode = "400", description = "Bad request")})
+  @RequestMapping(method = RequestMethod.POST, produces = "application/json")
+  @ResponseBody
+  public ResponseEntity<Game> createGame(HttpServletRequest request,
+    @Parameter(description = "Number of pits of each player", example = "6")
+    @RequestParam(name = "pitsPerPlayer", defaultValue = "6") int pitsPerPlayer,
+    @Parameter(description = "Number of rocks in every pit at the start", example = "6")
+    @RequestParam(name = "initialRocks", defaultValue = "6") int initialRocks,
+    @Parameter(description = "How the game is played, moves can be taken back in PRACTICE", example = "TWO_PLAYER")
+    @RequestParam(name = "mode", defaultValue = "TWO_PLAYER") GameMode mode) {
+    String baseUrl = request.getRequestURL().toString();
+    Game game = gameService.createGame(baseUrl, pitsPerPlayer, initialRocks, mode);
+    return new ResponseEntity<>(game, HttpStatus.CREATED);
+  }
+
+  @Operation(summary = "Get the legal moves", description = "This method will return the pits the player to move may move from, as a list and as a bit set with bit n for pit n")
+  @ApiResponses(value = {
+    @ApiResponse(responseCode = "200", description = "Legal moves"),
+    @ApiResponse(responseCode = "400", description = "Bad request")})
+  @RequestMapping(value = "{gameId}/moves", method = RequestMethod.GET, produces = "application/json")
+  @ResponseBody
+  public ResponseEntity<LegalMoves> getLegalMoves(
+    @Parameter(description = "Id of the kalah game", example = "1") @PathVariable(name = "gameId") Integer gameId) {
+    LegalMoves legalMoves = gameService.legalMoves(gameId);
+    return new ResponseEntity<>(legalMoves, HttpStatus.OK);
+  }
+
+  @Operation(summary = "Make a move", description = "This method will make a move in the game of Kalah")
+  @ApiResponses(value = {
+    @ApiResponse(responseCode = "200", description = "Move made"),
+    @ApiResponse(responseCode = "400", description = "Bad request")})
+  @RequestMapping(value = "{gameId}/pits/{pitId}", method = RequestMethod.PUT, produces = "application/json")
+  @ResponseBody
+  public ResponseEntity<Game> makeMove(
+    @Parameter(description = "Id of the kalah game", example = "1") @PathVariable(name = "gameId") Integer gameId,
+    @Parameter(description = "Id of the pit from which to move", example = "1") @PathVariable(name = "pitId") Integer pitId) {
+    Game game = gameService.makeMove(gameId, pitId);
+    return new ResponseEntity<>(game, HttpStatus.OK);
+  }
+
+  @Operation(summary = "Make a sequence of moves", description = "This method will make several moves in the game of Kalah in one request")
+  @ApiResponses(value = {
+    @ApiResponse(responseCode = "200", description = "Moves processed"),
+    @ApiResponse(responseCode = "400", description = "Bad request")})
+  @RequestMapping(value = "{gameId}/pits", method = RequestMethod.PUT, consumes = "application/json", produces = "application/json")
+  @ResponseBody
+  public ResponseEntity<BatchMoveResult> makeMoves(
+    @Parameter(description = "Id of the kalah game", example = "1") @PathVariable(name = "gameId") Integer gameId,
+    @RequestBody BatchMoveRequest request) {
+    BatchMode mode = request.mode() == null ? BatchMode.STOP : request.mode();
+    BatchMoveResult result = gameService.makeMoves(gameId, request.pits(), mode);
+    return new ResponseEntity<>(result, HttpStatus.OK);
+  }
+
+  /**
+   * Answers a waiter whose timeout passed with the game, or with the error if the game was removed while it waited,
+   * an error result is handled like the one set when the game cannot be found upfront.
+   */
+  private Object timeoutResult(Integer gameId) {
+    try {
+      return gameJsonCache.get(gameId, gameService::snapshot).toResponse();
+    } catch (IllegalArgumentException e) {
+      return e;
+    }
+  }
+}
@@ -0,0 +1,49 @@
+package com.piotrak.kalah.controller;
+
+import com.piotrak.kalah.service.GameExporter;
+import com.piotrak.kalah.service.GameExporter.Filter;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping(value = "/games")
+@AllArgsConstructor
+@Tag(name = "kalah", description = "Kalah game operations")
+public class GameExportController {
+
+  private static final String NDJSON = "application/x-ndjson";
+
+  private final GameExporter gameExporter;
+
+  @Operation(summary = "Export the games", description = "This method will stream the stored games as NDJSON, one "
+    + "game per line, while they are being played. Games created or removed during the export may be missing")
+  @ApiResponses(value = {
+    @ApiResponse(responseCode = "200", description = "Games exported"),
+    @ApiResponse(responseCode = "400", description = "Bad request")})
+  @RequestMapping(value = "export", method = RequestMethod.GET, produces = NDJSON)
+  public void export(HttpServletResponse response,
+    @Parameter(description = "Only export finished games", example = "false")
+    @RequestParam(name = "finished", defaultValue = "false") boolean finishedOnly,
+    @Parameter(description = "Only export games changed since this time", example = "2024-01-01T00:00:00Z")
+    @RequestParam(name = "updatedSince", required = false) Instant updatedSince,
+    @Parameter(description = "Compress the lines with gzip", example = "false")
+    @RequestParam(name = "gzip", defaultValue = "false") boolean gzip) throws IOException {
+    response.setContentType(gzip ? "application/gzip" : NDJSON);
+    if (gzip) {
+      response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"games.ndjson.gz\"");
+    }
+    gameExporter.export(response.getOutputStream(), new Filter(finishedOnly, updatedSince), gzip);
+  }
+}
@@ -0,0 +1,65 @@
+package com.piotrak.kalah.controller;
+
+import com.piotrak.kalah.model.Game;
+import com.piotrak.kalah.model.GameHistory;
+import com.piotrak.kalah.model.GamePosition;
+import com.piotrak.kalah.service.GameService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.AllArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping(value = "/games")
+@AllArgsConstructor
+@Tag(name = "kalah", description = "Kalah game operations")
+public class GameHistoryController {
+
+  private final GameService gameService;
+
+  @Operation(summary = "Get the moves of a game", description = "This method will return the moves played in a "
+    + "game of Kalah, in order")
+  @ApiResponses(value = {
+    @ApiResponse(responseCode = "200", description = "Game found"),
+    @ApiResponse(responseCode = "400", description = "Bad request")})
+  @RequestMapping(value = "{gameId}/history", method = RequestMethod.GET, produces = "application/json")
+  @ResponseBody
+  public ResponseEntity<GameHistory> getHistory(
+    @Parameter(description = "Id of the kalah game", example = "1") @PathVariable(name = "gameId") Integer gameId) {
+    return new ResponseEntity<>(gameService.history(gameId), HttpStatus.OK);
+  }
+
+  @Operation(summary = "Replay a game", description = "This method will return the board of a game of Kalah "
+    + "after a number of moves")
+  @ApiResponses(value = {
+    @ApiResponse(responseCode = "200", description = "Position found"),
+    @ApiResponse(responseCode = "400", description = "Bad request")})
+  @RequestMapping(value = "{gameId}/history/{ply}", method = RequestMethod.GET, produces = "application/json")
+  @ResponseBody
+  public ResponseEntity<GamePosition> getPosition(
+    @Parameter(description = "Id of the kalah game", example = "1") @PathVariable(name = "gameId") Integer gameId,
+    @Parameter(description = "Number of moves played", example = "0") @PathVariable(name = "ply") Integer ply) {
+    return new ResponseEntity<>(gameService.positionAt(gameId, ply), HttpStatus.OK);
+  }
+
+  @Operation(summary = "Take back a move", description = "This method will undo the last move of a game of Kalah "
+    + "played in PRACTICE mode")
+  @ApiResponses(value = {
+    @ApiResponse(responseCode = "200", description = "Move taken back"),
+    @ApiResponse(responseCode = "400", description = "Bad request")})
+  @RequestMapping(value = "{gameId}/undo", method = RequestMethod.POST, produces = "application/json")
+  @ResponseBody
+  public ResponseEntity<Game> undoMove(
+    @Parameter(description = "Id of the kalah game", example = "1") @PathVariable(name = "gameId") Integer gameId) {
+    return new ResponseEntity<>(gameService.undoMove(gameId), HttpStatus.OK);
+  }
+}
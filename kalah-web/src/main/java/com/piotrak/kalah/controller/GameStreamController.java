@@ -0,0 +1,36 @@
+package com.piotrak.kalah.controller;
+
+import com.piotrak.kalah.service.GameService;
+import com.piotrak.kalah.stream.GameUpdatePublisher;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.AllArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping(value = "/games")
+@AllArgsConstructor
+@Tag(name = "kalah", description = "Kalah game operations")
+public class GameStreamController {
+
+  private final GameService gameService;
+  private final GameUpdatePublisher gameUpdatePublisher;
+
+  @Operation(summary = "Stream the updates of a game", description = "This method will send the current state of the game as a 'state' event, then a 'delta' event with the changed pits after every move. A client too slow to keep up gets a 'state' event with the latest state instead of the deltas it missed")
+  @ApiResponses(value = {
+    @ApiResponse(responseCode = "200", description = "Stream opened"),
+    @ApiResponse(responseCode = "400", description = "Bad request")})
+  @RequestMapping(value = "{gameId}/events", method = RequestMethod.GET, produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter streamUpdates(
+    @Parameter(description = "Id of the kalah game", example = "1") @PathVariable(name = "gameId") Integer gameId) {
+    return gameService.snapshot(gameId, gameUpdatePublisher::subscribe);
+  }
+}
@@ -0,0 +1,48 @@
+package com.piotrak.kalah.controller;
+
+import com.piotrak.kalah.matchmaking.Matchmaker;
+import com.piotrak.kalah.model.Match;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.AllArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+@RestController
+@RequestMapping(value = "/matchmaking")
+@AllArgsConstructor
+@Tag(name = "kalah", description = "Kalah game operations")
+public class MatchmakingController {
+
+  private final Matchmaker matchmaker;
+
+  @Operation(summary = "Find an opponent", description = "This method will wait until another player looks for a "
+    + "game of the same variant, and rating band if a rating is given, then create a game for both. The player who "
+    + "waited longer plays player one")
+  @ApiResponses(value = {
+    @ApiResponse(responseCode = "200", description = "Game created"),
+    @ApiResponse(responseCode = "204", description = "No opponent found in time"),
+    @ApiResponse(responseCode = "400", description = "Bad request")})
+  @RequestMapping(method = RequestMethod.POST, produces = "application/json")
+  @ResponseBody
+  public DeferredResult<ResponseEntity<Match>> findOpponent(HttpServletRequest request,
+    @Parameter(description = "Number of pits of each player", example = "6")
+    @RequestParam(name = "pitsPerPlayer", defaultValue = "6") int pitsPerPlayer,
+    @Parameter(description = "Number of rocks in every pit at the start", example = "6")
+    @RequestParam(name = "initialRocks", defaultValue = "6") int initialRocks,
+    @Parameter(description = "Rating of the player, only players of close ratings are paired", example = "1500")
+    @RequestParam(name = "rating", required = false) Integer rating) {
+    String baseUrl = ServletUriComponentsBuilder.fromContextPath(request).path("/games").toUriString();
+    return matchmaker.enqueue(baseUrl, pitsPerPlayer, initialRocks, rating);
+  }
+}
@@ -0,0 +1,12 @@
+package com.piotrak.kalah.controller.request;
+
+import com.piotrak.kalah.model.BatchMode;
+import java.util.List;
+
+/**
+ * Request DTO for a sequence of moves.
+ * @param pits pits to move from, in order
+ * @param mode what to do when a move is rejected, {@link BatchMode#STOP} if not set
+ */
+public record BatchMoveRequest(List<Integer> pits, BatchMode mode) {
+}
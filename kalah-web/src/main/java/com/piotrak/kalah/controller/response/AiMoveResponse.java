@@ -0,0 +1,19 @@
+package com.piotrak.kalah.controller.response;
+
+import com.piotrak.kalah.ai.ComputerMove;
+import com.piotrak.kalah.ai.SearchResult;
+import com.piotrak.kalah.model.Game;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Response DTO for a move made by the computer player.
+ */
+public record AiMoveResponse(Game game, int pit, int score, int depth, long nodes, long nodesPerSecond,
+                             long timeMillis) {
+
+  public static AiMoveResponse of(ComputerMove move) {
+    SearchResult result = move.searchResult();
+    return new AiMoveResponse(move.game(), result.pit(), result.score(), result.depth(), result.nodes(),
+      result.nodesPerSecond(), TimeUnit.NANOSECONDS.toMillis(result.elapsedNanos()));
+  }
+}
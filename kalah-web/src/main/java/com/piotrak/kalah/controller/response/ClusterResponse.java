@@ -0,0 +1,9 @@
+package com.piotrak.kalah.controller.response;
+
+import java.util.List;
+
+/**
+ * Response DTO for the routing table of a cluster, the owner of a game is {@code owners[gameId >>> shardShift]}.
+ */
+public record ClusterResponse(String node, List<String> nodes, int shardShift, List<String> owners) {
+}
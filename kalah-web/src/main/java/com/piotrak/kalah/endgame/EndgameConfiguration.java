@@ -0,0 +1,21 @@
+package com.piotrak.kalah.endgame;
+
+import java.io.IOException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Slf4j
+@Configuration
+public class EndgameConfiguration {
+
+  @Bean
+  public EndgameDatabase endgameDatabase(EndgameProperties properties) throws IOException {
+    if (properties.file() == null) {
+      return EndgameDatabase.EMPTY;
+    }
+    EndgameDatabase database = EndgameDatabase.open(properties.file());
+    log.info("Mapped endgame database {} with up to {} rocks", properties.file(), database.getMaxSeeds());
+    return database;
+  }
+}
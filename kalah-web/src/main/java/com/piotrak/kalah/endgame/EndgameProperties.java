@@ -0,0 +1,12 @@
+package com.piotrak.kalah.endgame;
+
+import java.nio.file.Path;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Location of the endgame database.
+ * @param file database file written by {@link EndgameDatabaseGenerator}, no database is used when not set
+ */
+@ConfigurationProperties(prefix = "kalah.endgame")
+public record EndgameProperties(Path file) {
+}
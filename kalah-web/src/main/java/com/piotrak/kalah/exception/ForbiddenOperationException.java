@@ -0,0 +1,34 @@
+package com.piotrak.kalah.exception;
+
+import lombok.Getter;
+
+@Getter
+public class ForbiddenOperationException extends RuntimeException {
+
+  private final MoveRejection reason;
+
+  public ForbiddenOperationException(String message) {
+    this(MoveRejection.OTHER, message);
+  }
+
+  public ForbiddenOperationException(MoveRejection reason, String message) {
+    super(message);
+    this.reason = reason;
+  }
+
+  private ForbiddenOperationException(MoveRejection reason, String message, boolean writableStackTrace) {
+    super(message, null, false, writableStackTrace);
+    this.reason = reason;
+  }
+
+  /**
+   * Creates an exception without a stack trace, which is cheap to throw for every rejected move and, as it holds
+   * nothing of the request, can be created once and thrown again.
+   * @param reason why the operation is forbidden
+   * @param message error message
+   * @return the exception
+   */
+  public static ForbiddenOperationException stackless(MoveRejection reason, String message) {
+    return new ForbiddenOperationException(reason, message, false);
+  }
+}
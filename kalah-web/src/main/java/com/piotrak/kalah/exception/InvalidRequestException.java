@@ -0,0 +1,47 @@
+package com.piotrak.kalah.exception;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+/**
+ * A request refers to something that does not exist or is malformed.
+ */
+@Getter
+public class InvalidRequestException extends IllegalArgumentException {
+
+  private final MoveRejection reason;
+  @Getter(AccessLevel.NONE)
+  private final boolean writableStackTrace;
+
+  public InvalidRequestException(MoveRejection reason, String message) {
+    this(reason, message, true);
+  }
+
+  /**
+   * IllegalArgumentException has no constructor disabling the stack trace, the Throwable constructor fills it in
+   * before the flag is set, so it is skipped there and filled in here if wanted.
+   */
+  private InvalidRequestException(MoveRejection reason, String message, boolean writableStackTrace) {
+    super(message);
+    this.reason = reason;
+    this.writableStackTrace = writableStackTrace;
+    if (writableStackTrace) {
+      fillInStackTrace();
+    }
+  }
+
+  /**
+   * Creates an exception without a stack trace, which is cheap to throw for every rejected request.
+   * @param reason what is wrong with the request
+   * @param message error message
+   * @return the exception
+   */
+  public static InvalidRequestException stackless(MoveRejection reason, String message) {
+    return new InvalidRequestException(reason, message, false);
+  }
+
+  @Override
+  public synchronized Throwable fillInStackTrace() {
+    return writableStackTrace ? super.fillInStackTrace() : this;
+  }
+}
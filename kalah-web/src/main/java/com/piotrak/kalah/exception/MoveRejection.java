@@ -0,0 +1,35 @@
+package com.piotrak.kalah.exception;
+
+/**
+ * Reason why a request on a game was rejected.
+ */
+public enum MoveRejection {
+  UNKNOWN_GAME,
+  UNKNOWN_PIT,
+  KALAH_PIT,
+  EMPTY_PIT,
+  OTHER_PLAYERS_TURN,
+  GAME_FINISHED,
+  INVALID_BATCH,
+  INVALID_VARIANT,
+  UNDO_NOT_ALLOWED,
+  NOTHING_TO_UNDO,
+  UNKNOWN_PLY,
+  INVALID_RATING,
+  STALE_VERSION,
+  OTHER;
+
+  /**
+   * @param exception exception rejecting a request
+   * @return the reason carried by the exception, {@link #OTHER} if it carries none
+   */
+  public static MoveRejection of(Throwable exception) {
+    if (exception instanceof ForbiddenOperationException forbidden) {
+      return forbidden.getReason();
+    }
+    if (exception instanceof InvalidRequestException invalid) {
+      return invalid.getReason();
+    }
+    return OTHER;
+  }
+}
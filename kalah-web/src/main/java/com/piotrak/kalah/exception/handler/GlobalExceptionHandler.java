@@ -2,7 +2,10 @@ package com.piotrak.kalah.exception.handler;
 
 import com.piotrak.kalah.controller.response.ErrorResponse;
 import com.piotrak.kalah.exception.ForbiddenOperationException;
+import com.piotrak.kalah.exception.MoveRejection;
+import com.piotrak.kalah.metrics.GameMetrics;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -17,12 +20,25 @@ import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExcep
 @Slf4j
 public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
 
+  private final GameMetrics metrics;
+
+  public GlobalExceptionHandler() {
+    this(GameMetrics.noop());
+  }
+
+  @Autowired
+  public GlobalExceptionHandler(GameMetrics metrics) {
+    this.metrics = metrics;
+  }
+
   @ExceptionHandler(value = {ForbiddenOperationException.class, IllegalArgumentException.class})
   protected ResponseEntity<Object> handleException(RuntimeException ex, WebRequest request) {
+    metrics.recordRejection(MoveRejection.of(ex));
     ErrorResponse errorResponse = new ErrorResponse(ex.getMessage());
+    HttpStatus status = MoveRejection.of(ex) == MoveRejection.STALE_VERSION ? HttpStatus.CONFLICT
+      : HttpStatus.BAD_REQUEST;
 
-    return handleExceptionInternal(ex, errorResponse, new HttpHeaders(), HttpStatus.BAD_REQUEST,
-      request);
+    return handleExceptionInternal(ex, errorResponse, new HttpHeaders(), status, request);
   }
 
 }
@@ -0,0 +1,21 @@
+package com.piotrak.kalah.journal;
+
+/**
+ * When the journal forces its records to the storage device.
+ */
+public enum Durability {
+  /**
+   * Never forced by the journal, the operating system writes the pages back when it sees fit.
+   * The records still survive a crash of the process, but not one of the machine.
+   */
+  NONE,
+  /**
+   * Forced periodically by a background thread, a crash of the machine loses at most one flush interval.
+   */
+  ASYNC,
+  /**
+   * A change is answered once its records have been forced, the wait comes after the game's lock was released.
+   * Concurrent writers share one force (group commit).
+   */
+  SYNC
+}
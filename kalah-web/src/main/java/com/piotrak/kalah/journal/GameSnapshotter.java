@@ -0,0 +1,76 @@
+package com.piotrak.kalah.journal;
+
+import com.piotrak.kalah.model.Game;
+import com.piotrak.kalah.service.GameService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Takes periodic snapshots of the games and deletes the journal segments they made obsolete.
+ * <p>
+ * The journal position is read before the games are copied and every game is copied under its own lock, so
+ * the snapshot contains at least every change recorded before that position. The changes recorded after it
+ * are replayed on recovery, those already contained in the snapshot are skipped by their version.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class GameSnapshotter {
+
+  private final GameService gameService;
+  private final Journal journal;
+  private final SnapshotStore snapshotStore;
+  private final Duration interval;
+  private ScheduledExecutorService scheduler;
+
+  @PostConstruct
+  public void start() {
+    if (interval.isZero() || interval.isNegative()) {
+      return;
+    }
+    scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "game-snapshotter");
+      thread.setDaemon(true);
+      return thread;
+    });
+    long millis = interval.toMillis();
+    scheduler.scheduleWithFixedDelay(this::snapshotQuietly, millis, millis, TimeUnit.MILLISECONDS);
+  }
+
+  @PreDestroy
+  public void stop() {
+    if (scheduler != null) {
+      scheduler.shutdownNow();
+    }
+    snapshotQuietly();
+  }
+
+  /**
+   * Writes a snapshot of all the games.
+   * @throws IOException if the snapshot cannot be written or the old journal segments cannot be deleted
+   */
+  public void snapshot() throws IOException {
+    long start = System.nanoTime();
+    long position = journal.getPosition();
+    List<Game> games = gameService.snapshotGames();
+    long oldestPosition = snapshotStore.write(games, position);
+    int deletedSegments = journal.deleteBefore(oldestPosition);
+    log.info("Wrote a snapshot of {} games at journal position {} in {} ms, deleted {} journal segments",
+      games.size(), position, (System.nanoTime() - start) / 1_000_000, deletedSegments);
+  }
+
+  private void snapshotQuietly() {
+    try {
+      snapshot();
+    } catch (IOException | RuntimeException e) {
+      log.error("Unable to write a snapshot of the games", e);
+    }
+  }
+}
@@ -0,0 +1,522 @@
+package com.piotrak.kalah.journal;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.piotrak.kalah.engine.KalahEngine;
+import com.piotrak.kalah.model.GameMode;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Append-only journal of game events stored in memory-mapped segment files.
+ * <p>
+ * Every record takes 16 bytes: type, pit, payload length, game id, sequence and a CRC32C checksum of the rest.
+ * Appending a move is a few stores into the page cache, so a crash of the process loses nothing that was
+ * appended, while a crash of the machine loses what was not forced yet (see {@link Durability}). Base URLs are
+ * written once per segment as a dictionary record followed by their UTF-8 bytes padded to whole records, game
+ * creations refer to them by number. A game creation stores the pits per player of its variant in the pit field
+ * and the initial rocks per pit in the third byte of the sequence, zero in both meaning Kalah(6, 6), and the
+ * ordinal of its mode in the fourth byte.
+ * <p>
+ * A segment ends at the first record which is all zeros or fails its checksum. On open a torn write at the
+ * tail is dropped and the rest of the last segment is zeroed, so stale records are never read after new ones.
+ */
+@Slf4j
+public class Journal implements AutoCloseable {
+
+  static final int RECORD_SIZE = 16;
+  static final int MIN_SEGMENT_SIZE = 1 << 17;
+  static final byte CREATE = 1;
+  static final byte MOVE = 2;
+  static final byte REMOVE = 3;
+  static final byte BASE_URL = 4;
+  static final byte UNDO = 5;
+
+  private static final int CHECKSUM_OFFSET = 12;
+  private static final int MAX_PAYLOAD = 0xFFFF;
+  private static final String SEGMENT_PREFIX = "journal-";
+  private static final String SEGMENT_SUFFIX = ".log";
+
+  private final Path directory;
+  private final long segmentSize;
+  private final Durability durability;
+  private final long flushIntervalMillis;
+
+  private final Lock appendLock = new ReentrantLock();
+  private final ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+  private final CRC32C checksum = new CRC32C();
+  private final Map<String, Integer> baseUrlIds = new HashMap<>();
+  private volatile Segment segment;
+  private volatile long writtenPosition;
+
+  /**
+   * Position after the last record appended by each thread in {@link Durability#SYNC} mode, 0 once it was awaited.
+   */
+  private final ThreadLocal<long[]> appendedPositions = ThreadLocal.withInitial(() -> new long[1]);
+  private final Object flushMonitor = new Object();
+  private long flushedPosition;
+  private final Thread flusher;
+  private volatile boolean closed;
+
+  /**
+   * Opens the journal in a directory, creating the directory and the first segment if needed.
+   * @param directory directory of the segment files
+   * @param segmentSize size of a new segment file in bytes
+   * @param durability when the records are forced to the storage device
+   * @param flushInterval time between two forces of the flusher thread
+   * @throws IOException if the segments cannot be mapped
+   */
+  public Journal(Path directory, long segmentSize, Durability durability, Duration flushInterval)
+    throws IOException {
+    if (segmentSize < MIN_SEGMENT_SIZE || segmentSize > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException(String.format(
+        "The journal segment size has to be between %s and %s bytes", MIN_SEGMENT_SIZE, Integer.MAX_VALUE));
+    }
+    this.directory = directory;
+    this.segmentSize = segmentSize;
+    this.durability = durability;
+    this.flushIntervalMillis = Math.max(1, flushInterval.toMillis());
+    Files.createDirectories(directory);
+
+    List<Path> files = segmentFiles();
+    if (files.isEmpty()) {
+      segment = createSegment(0);
+    } else {
+      segment = mapSegment(files.get(files.size() - 1), FileChannel.MapMode.READ_WRITE);
+      List<String> baseUrls = new ArrayList<>();
+      segment.offset = read(segment.buffer, segment.buffer.capacity(), baseUrls, Long.MAX_VALUE, null);
+      for (int i = 0; i < baseUrls.size(); i++) {
+        baseUrlIds.put(baseUrls.get(i), i);
+      }
+      clear(segment.buffer, segment.offset);
+    }
+    writtenPosition = segment.start + segment.offset;
+    flushedPosition = writtenPosition;
+
+    if (durability == Durability.NONE) {
+      flusher = null;
+    } else {
+      flusher = new Thread(this::flush, "journal-flusher");
+      flusher.setDaemon(true);
+      flusher.start();
+    }
+  }
+
+  /**
+   * Records the creation of a game, without waiting for it to be durable.
+   * @param gameId game id
+   * @param baseUrl server's url the game was created with
+   * @param pitsPerPlayer number of pits of each player of the game's variant
+   * @param initialRocks number of rocks in every pit at the start of the game's variant
+   * @param mode how the game is played
+   */
+  public void appendCreate(int gameId, String baseUrl, int pitsPerPlayer, int initialRocks, GameMode mode) {
+    long position;
+    appendLock.lock();
+    try {
+      if (segment.remaining() < RECORD_SIZE) {
+        roll();
+      }
+      Integer baseUrlId = baseUrlIds.get(baseUrl);
+      if (baseUrlId == null) {
+        byte[] bytes = baseUrl.getBytes(UTF_8);
+        if (bytes.length > MAX_PAYLOAD) {
+          throw new IllegalArgumentException(String.format("The base url is longer than %s bytes", MAX_PAYLOAD));
+        }
+        // a creation has 16 bits left for the number of its base url
+        if (segment.remaining() < 2 * RECORD_SIZE + align(bytes.length) || baseUrlIds.size() > 0xFFFF) {
+          roll();
+        }
+        baseUrlId = baseUrlIds.size();
+        write(BASE_URL, 0, baseUrlId, 0, bytes);
+        baseUrlIds.put(baseUrl, baseUrlId);
+      }
+      position = write(CREATE, pitsPerPlayer, gameId, baseUrlId | initialRocks << 16 | mode.ordinal() << 24, null);
+    } finally {
+      appendLock.unlock();
+    }
+    appended(position);
+  }
+
+  /**
+   * Records a move, without waiting for it to be durable.
+   * @param gameId game id
+   * @param pitId pit moved from
+   * @param version version of the game after the move
+   */
+  public void appendMove(int gameId, int pitId, int version) {
+    appended(append(MOVE, pitId, gameId, version));
+  }
+
+  /**
+   * Records that the last move of a game was taken back, without waiting for it to be durable.
+   * @param gameId game id
+   * @param version version of the game after the undo
+   */
+  public void appendUndo(int gameId, int version) {
+    appended(append(UNDO, 0, gameId, version));
+  }
+
+  /**
+   * Waits in {@link Durability#SYNC} mode until the records appended by the calling thread are forced. The appends
+   * are made while the game's lock is held, the wait comes after it was released, before the client is answered.
+   */
+  public void awaitAppended() {
+    if (durability != Durability.SYNC) {
+      return;
+    }
+    long[] appended = appendedPositions.get();
+    long position = appended[0];
+    if (position != 0) {
+      appended[0] = 0;
+      awaitDurable(position);
+    }
+  }
+
+  /**
+   * Records the removal of a game without waiting for it to be durable, even in {@link Durability#SYNC}: removals
+   * are made by the repository while it holds its maintenance lock. A removal lost in a crash only brings an
+   * expired game back until it expires again, the flusher forces it within one flush interval.
+   * @param gameId game id
+   */
+  public void appendRemove(int gameId) {
+    append(REMOVE, 0, gameId, 0);
+  }
+
+  /**
+   * Reads the records appended so far, oldest first.
+   * @param from position of the first record to read, 0 to read the whole journal
+   * @param handler receiver of the records
+   * @throws IOException if a segment cannot be read
+   */
+  public void replay(long from, JournalHandler handler) throws IOException {
+    Segment current;
+    int end;
+    appendLock.lock();
+    try {
+      current = segment;
+      end = current.offset;
+    } finally {
+      appendLock.unlock();
+    }
+    List<Path> files = segmentFiles();
+    for (int i = 0; i < files.size(); i++) {
+      Path file = files.get(i);
+      if (i + 1 < files.size() && startOf(files.get(i + 1)) <= from) {
+        continue;
+      }
+      // a segment is always read from its start to collect its base urls
+      if (file.equals(current.file)) {
+        read(current.buffer, end, new ArrayList<>(), from - current.start, handler);
+      } else {
+        Segment sealed = mapSegment(file, FileChannel.MapMode.READ_ONLY);
+        read(sealed.buffer, sealed.buffer.capacity(), new ArrayList<>(), from - sealed.start, handler);
+      }
+    }
+  }
+
+  /**
+   * Deletes the segments which only contain records before a position.
+   * @param position journal position no longer needed for recovery
+   * @return number of deleted segments
+   * @throws IOException if a segment cannot be deleted
+   */
+  public int deleteBefore(long position) throws IOException {
+    long currentStart = segment.start;
+    List<Path> files = segmentFiles();
+    int deleted = 0;
+    for (int i = 0; i + 1 < files.size(); i++) {
+      long nextStart = startOf(files.get(i + 1));
+      if (nextStart > position || nextStart > currentStart) {
+        break;
+      }
+      Files.delete(files.get(i));
+      deleted++;
+    }
+    return deleted;
+  }
+
+  /**
+   * @return position up to which the records were forced
+   */
+  long getDurablePosition() {
+    synchronized (flushMonitor) {
+      return flushedPosition;
+    }
+  }
+
+  /**
+   * @return position after the last appended record, counted in bytes from the start of the journal
+   */
+  public long getPosition() {
+    return writtenPosition;
+  }
+
+  @Override
+  public void close() {
+    closed = true;
+    if (flusher != null) {
+      synchronized (flushMonitor) {
+        flushMonitor.notifyAll();
+      }
+      try {
+        flusher.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      segment.buffer.force();
+    }
+  }
+
+  private long append(byte type, int pitId, int gameId, int sequence) {
+    appendLock.lock();
+    try {
+      if (segment.remaining() < RECORD_SIZE) {
+        roll();
+      }
+      return write(type, pitId, gameId, sequence, null);
+    } finally {
+      appendLock.unlock();
+    }
+  }
+
+  /**
+   * Writes a record at the end of the current segment, the caller holds the append lock and made sure it fits.
+   */
+  private long write(byte type, int pitId, int gameId, int sequence, byte[] payload) {
+    int length = payload == null ? 0 : payload.length;
+    record.put(0, type)
+      .put(1, (byte) pitId)
+      .putShort(2, (short) length)
+      .putInt(4, gameId)
+      .putInt(8, sequence);
+    checksum.reset();
+    checksum.update(record.array(), 0, CHECKSUM_OFFSET);
+    if (payload != null) {
+      checksum.update(payload);
+    }
+    record.putInt(CHECKSUM_OFFSET, (int) checksum.getValue());
+
+    Segment current = segment;
+    int offset = current.offset;
+    if (payload != null) {
+      current.buffer.put(offset + RECORD_SIZE, payload);
+    }
+    current.buffer.put(offset, record.array());
+    current.offset = offset + RECORD_SIZE + align(length);
+    long position = current.start + current.offset;
+    writtenPosition = position;
+    return position;
+  }
+
+  /**
+   * Seals the current segment and starts a new one, the caller holds the append lock.
+   */
+  private void roll() {
+    Segment sealed = segment;
+    if (durability != Durability.NONE) {
+      sealed.buffer.force();
+    }
+    try {
+      segment = createSegment(sealed.start + sealed.offset);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Unable to create a new journal segment", e);
+    }
+    baseUrlIds.clear();
+  }
+
+  private void appended(long position) {
+    if (durability == Durability.SYNC) {
+      appendedPositions.get()[0] = position;
+    }
+  }
+
+  private void awaitDurable(long position) {
+    if (durability != Durability.SYNC) {
+      return;
+    }
+    synchronized (flushMonitor) {
+      if (flushedPosition < position) {
+        flushMonitor.notifyAll();
+      }
+      while (flushedPosition < position && !closed) {
+        try {
+          flushMonitor.wait();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+      }
+    }
+  }
+
+  /**
+   * Body of the flusher thread. Every force covers all the records appended before it started, so the
+   * writers waiting in {@link Durability#SYNC} mode share it.
+   */
+  private void flush() {
+    while (!closed) {
+      try {
+        synchronized (flushMonitor) {
+          if (writtenPosition == flushedPosition) {
+            flushMonitor.wait(flushIntervalMillis);
+          }
+        }
+        long position = writtenPosition;
+        if (position == flushedPosition) {
+          continue;
+        }
+        segment.buffer.force();
+        synchronized (flushMonitor) {
+          flushedPosition = position;
+          flushMonitor.notifyAll();
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      } catch (RuntimeException e) {
+        log.error("Unable to force the journal", e);
+        sleepQuietly();
+      }
+    }
+  }
+
+  private void sleepQuietly() {
+    try {
+      TimeUnit.MILLISECONDS.sleep(flushIntervalMillis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private List<Path> segmentFiles() throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files
+        .filter(file -> {
+          String name = file.getFileName().toString();
+          return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+        })
+        .sorted()
+        .toList();
+    }
+  }
+
+  private Segment createSegment(long start) throws IOException {
+    Path file = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, start, SEGMENT_SUFFIX));
+    try (FileChannel channel = FileChannel.open(file,
+      StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      return new Segment(start, file, channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize));
+    }
+  }
+
+  private static long startOf(Path file) {
+    String name = file.getFileName().toString();
+    return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+  }
+
+  private static Segment mapSegment(Path file, FileChannel.MapMode mode) throws IOException {
+    long start = startOf(file);
+    StandardOpenOption[] options = mode == FileChannel.MapMode.READ_ONLY
+      ? new StandardOpenOption[] {StandardOpenOption.READ}
+      : new StandardOpenOption[] {StandardOpenOption.READ, StandardOpenOption.WRITE};
+    try (FileChannel channel = FileChannel.open(file, options)) {
+      return new Segment(start, file, channel.map(mode, 0, channel.size()));
+    }
+  }
+
+  /**
+   * Reads the valid records of a segment.
+   * @param buffer the segment
+   * @param limit number of bytes which may be read
+   * @param baseUrls dictionary of the segment, filled while reading
+   * @param from offset of the first record passed to the handler
+   * @param handler receiver of the records
+   * @return offset after the last valid record
+   */
+  private static int read(ByteBuffer buffer, int limit, List<String> baseUrls, long from, JournalHandler handler) {
+    CRC32C checksum = new CRC32C();
+    int offset = 0;
+    while (offset + RECORD_SIZE <= limit) {
+      byte type = buffer.get(offset);
+      int length = Short.toUnsignedInt(buffer.getShort(offset + 2));
+      if (type < CREATE || type > UNDO || offset + RECORD_SIZE + align(length) > limit) {
+        break;
+      }
+      checksum.reset();
+      checksum.update(buffer.slice(offset, CHECKSUM_OFFSET));
+      checksum.update(buffer.slice(offset + RECORD_SIZE, length));
+      if ((int) checksum.getValue() != buffer.getInt(offset + CHECKSUM_OFFSET)) {
+        break;
+      }
+      int pitId = Byte.toUnsignedInt(buffer.get(offset + 1));
+      int gameId = buffer.getInt(offset + 4);
+      int sequence = buffer.getInt(offset + 8);
+      if (type == BASE_URL) {
+        byte[] bytes = new byte[length];
+        buffer.get(offset + RECORD_SIZE, bytes);
+        baseUrls.add(new String(bytes, UTF_8));
+      } else if (offset >= from) {
+        switch (type) {
+          case CREATE -> handler.gameCreated(gameId, baseUrls.get(sequence & 0xFFFF),
+            pitId == 0 ? KalahEngine.PLAYER_PIT_NUMBER : pitId,
+            (sequence >>> 16 & 0xFF) == 0 ? KalahEngine.INITIAL_ROCKS_NUMBER : sequence >>> 16 & 0xFF,
+            GameMode.values()[sequence >>> 24]);
+          case MOVE -> handler.moveMade(gameId, pitId, sequence);
+          case UNDO -> handler.moveUndone(gameId, sequence);
+          default -> handler.gameRemoved(gameId);
+        }
+      }
+      offset += RECORD_SIZE + align(length);
+    }
+    return offset;
+  }
+
+  private static void clear(ByteBuffer buffer, int from) {
+    int i = from;
+    for (; i + Long.BYTES <= buffer.capacity(); i += Long.BYTES) {
+      buffer.putLong(i, 0L);
+    }
+    for (; i < buffer.capacity(); i++) {
+      buffer.put(i, (byte) 0);
+    }
+  }
+
+  private static int align(int length) {
+    return (length + RECORD_SIZE - 1) & -RECORD_SIZE;
+  }
+
+  private static final class Segment {
+
+    private final long start;
+    private final Path file;
+    private final MappedByteBuffer buffer;
+    private int offset;
+
+    private Segment(long start, Path file, MappedByteBuffer buffer) {
+      this.start = start;
+      this.file = file;
+      this.buffer = buffer;
+    }
+
+    private int remaining() {
+      return buffer.capacity() - offset;
+    }
+  }
+}
@@ -0,0 +1,46 @@
+package com.piotrak.kalah.journal;
+
+import com.piotrak.kalah.service.GameService;
+import java.io.IOException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Slf4j
+@Configuration
+@ConditionalOnProperty(prefix = "kalah.journal", name = "enabled", havingValue = "true")
+public class JournalConfiguration {
+
+  @Bean(destroyMethod = "close")
+  public Journal journal(JournalProperties properties) throws IOException {
+    Journal journal = new Journal(properties.directory(), properties.segmentSize().toBytes(),
+      properties.durability(), properties.flushInterval());
+    log.info("Opened the game journal in {} at position {}", properties.directory(), journal.getPosition());
+    return journal;
+  }
+
+  @Bean
+  public JournalGameListener journalGameListener(Journal journal) {
+    return new JournalGameListener(journal);
+  }
+
+  @Bean
+  public SnapshotStore snapshotStore(JournalProperties properties) {
+    return new SnapshotStore(properties.directory(), properties.snapshotsRetained());
+  }
+
+  @Bean
+  public JournalRecovery journalRecovery(Journal journal, SnapshotStore snapshotStore, GameService gameService) {
+    return new JournalRecovery(journal, snapshotStore, gameService);
+  }
+
+  /**
+   * Depends on the recovery so that no snapshot is taken before the games were recovered.
+   */
+  @Bean
+  public GameSnapshotter gameSnapshotter(GameService gameService, Journal journal, SnapshotStore snapshotStore,
+    JournalProperties properties, JournalRecovery journalRecovery) {
+    return new GameSnapshotter(gameService, journal, snapshotStore, properties.snapshotInterval());
+  }
+}
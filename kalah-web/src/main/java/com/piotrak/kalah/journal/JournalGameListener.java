@@ -0,0 +1,50 @@
+package com.piotrak.kalah.journal;
+
+import com.piotrak.kalah.model.Game;
+import com.piotrak.kalah.service.GameListener;
+import lombok.AllArgsConstructor;
+
+/**
+ * Appends the changes of the games to the journal.
+ */
+@AllArgsConstructor
+public class JournalGameListener implements GameListener {
+
+  private final Journal journal;
+
+  @Override
+  public void gameCreated(Game game) {
+    journal.appendCreate(game.getId(), baseUrlOf(game), game.getPitsPerPlayer(), game.getInitialRocks(),
+      game.getMode());
+  }
+
+  @Override
+  public void moveMade(Game game, int pitId) {
+    journal.appendMove(game.getId(), pitId, game.getVersion());
+  }
+
+  @Override
+  public void moveUndone(Game game) {
+    journal.appendUndo(game.getId(), game.getVersion());
+  }
+
+  @Override
+  public void gameRemoved(int gameId) {
+    journal.appendRemove(gameId);
+  }
+
+  @Override
+  public void lockReleased() {
+    journal.awaitAppended();
+  }
+
+  /**
+   * @param game Kalah game
+   * @return the server's url the game was created with
+   */
+  static String baseUrlOf(Game game) {
+    String url = game.getUrl();
+    String suffix = "/" + game.getId();
+    return url.endsWith(suffix) ? url.substring(0, url.length() - suffix.length()) : url;
+  }
+}
@@ -0,0 +1,36 @@
+package com.piotrak.kalah.journal;
+
+import com.piotrak.kalah.model.GameMode;
+
+/**
+ * Receives the records of a journal while it is replayed.
+ */
+public interface JournalHandler {
+
+  /**
+   * @param gameId game id
+   * @param baseUrl server's url the game was created with
+   * @param pitsPerPlayer number of pits of each player of the game's variant
+   * @param initialRocks number of rocks in every pit at the start of the game's variant
+   * @param mode how the game is played
+   */
+  void gameCreated(int gameId, String baseUrl, int pitsPerPlayer, int initialRocks, GameMode mode);
+
+  /**
+   * @param gameId game id
+   * @param pitId pit moved from
+   * @param version version of the game after the move
+   */
+  void moveMade(int gameId, int pitId, int version);
+
+  /**
+   * @param gameId game id
+   * @param version version of the game after the undo
+   */
+  void moveUndone(int gameId, int version);
+
+  /**
+   * @param gameId game id
+   */
+  void gameRemoved(int gameId);
+}
@@ -0,0 +1,28 @@
+package com.piotrak.kalah.journal;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Settings of the game journal.
+ * @param enabled true to record the games and recover them on startup
+ * @param directory directory of the journal segments
+ * @param segmentSize size of a journal segment file
+ * @param durability when the records are forced to the storage device
+ * @param flushInterval time between two forces of the flusher thread
+ * @param snapshotInterval time between two snapshots of the games, 0 to only take one on shutdown
+ * @param snapshotsRetained number of snapshots kept on disk
+ */
+@ConfigurationProperties(prefix = "kalah.journal")
+public record JournalProperties(
+  @DefaultValue("false") boolean enabled,
+  @DefaultValue("journal") Path directory,
+  @DefaultValue("64MB") DataSize segmentSize,
+  @DefaultValue("ASYNC") Durability durability,
+  @DefaultValue("10ms") Duration flushInterval,
+  @DefaultValue("5m") Duration snapshotInterval,
+  @DefaultValue("2") int snapshotsRetained) {
+}
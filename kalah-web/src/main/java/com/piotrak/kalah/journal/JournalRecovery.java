@@ -0,0 +1,60 @@
+package com.piotrak.kalah.journal;
+
+import com.piotrak.kalah.engine.KalahVariant;
+import com.piotrak.kalah.model.GameMode;
+import com.piotrak.kalah.service.GameService;
+import jakarta.annotation.PostConstruct;
+import java.io.IOException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Rebuilds the games on startup, before the server accepts requests: the latest snapshot is loaded and the
+ * journal appended after it is replayed.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class JournalRecovery implements JournalHandler {
+
+  private final Journal journal;
+  private final SnapshotStore snapshotStore;
+  private final GameService gameService;
+  private int games;
+  private int moves;
+
+  @PostConstruct
+  public void recover() throws IOException {
+    long start = System.nanoTime();
+    long position = snapshotStore.load(game -> {
+      gameService.restoreGame(game);
+      games++;
+    });
+    journal.replay(position, this);
+    log.info("Recovered {} games and replayed {} moves from journal position {} in {} ms",
+      games, moves, position, (System.nanoTime() - start) / 1_000_000);
+  }
+
+  @Override
+  public void gameCreated(int gameId, String baseUrl, int pitsPerPlayer, int initialRocks, GameMode mode) {
+    gameService.restoreGame(gameId, baseUrl + "/" + gameId, KalahVariant.of(pitsPerPlayer, initialRocks), mode);
+    games++;
+  }
+
+  @Override
+  public void moveMade(int gameId, int pitId, int version) {
+    gameService.restoreMove(gameId, pitId, version);
+    moves++;
+  }
+
+  @Override
+  public void moveUndone(int gameId, int version) {
+    gameService.restoreUndo(gameId, version);
+    moves++;
+  }
+
+  @Override
+  public void gameRemoved(int gameId) {
+    gameService.restoreRemoval(gameId);
+    games--;
+  }
+}
@@ -0,0 +1,230 @@
+package com.piotrak.kalah.journal;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.piotrak.kalah.engine.KalahVariant;
+import com.piotrak.kalah.engine.MoveHistory;
+import com.piotrak.kalah.engine.PackedBoard;
+import com.piotrak.kalah.model.Game;
+import com.piotrak.kalah.model.GameMode;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Binary snapshots of the games, stored next to the journal so that recovery only has to replay the records
+ * appended after the latest snapshot.
+ * <p>
+ * A snapshot starts with a header (magic, format version, journal position, number of strings, number of
+ * games), followed by a table of the distinct base urls and messages, the games (id, version, flags, variant,
+ * mode, pits, the numbers of their base url and message and their moves, one byte each) and a CRC32C checksum
+ * of everything before it. Only snapshots of the current format version are read. Snapshots are written to a
+ * temporary file and renamed when complete, a damaged snapshot is skipped for the previous one.
+ */
+@Slf4j
+public class SnapshotStore {
+
+  static final int MAGIC = 0x4B534E50;
+  static final int FORMAT_VERSION = 3;
+
+  private static final int HEADER_SIZE = 24;
+  private static final int GAME_HEADER_SIZE = 24;
+  private static final byte PLAYER_ONE_MOVE = 1;
+  private static final byte FINISHED = 2;
+  private static final String SNAPSHOT_PREFIX = "snapshot-";
+  private static final String SNAPSHOT_SUFFIX = ".bin";
+
+  private final Path directory;
+  private final int retained;
+
+  /**
+   * @param directory directory of the snapshot files
+   * @param retained number of snapshots kept, older ones are deleted after a new snapshot was written
+   */
+  public SnapshotStore(Path directory, int retained) {
+    this.directory = directory;
+    this.retained = Math.max(1, retained);
+  }
+
+  /**
+   * Writes a snapshot and deletes the ones which are no longer retained.
+   * @param games consistent copies of the games
+   * @param position journal position before which every change is contained in the copies
+   * @return journal position of the oldest retained snapshot, the journal before it is not needed anymore
+   * @throws IOException if the snapshot cannot be written
+   */
+  public long write(List<Game> games, long position) throws IOException {
+    Map<String, Integer> strings = new LinkedHashMap<>();
+    for (Game game : games) {
+      strings.putIfAbsent(JournalGameListener.baseUrlOf(game), strings.size());
+      strings.putIfAbsent(game.getMessage(), strings.size());
+    }
+    List<byte[]> encodedStrings = new ArrayList<>(strings.size());
+    int size = HEADER_SIZE + Integer.BYTES;
+    for (Game game : games) {
+      size += GAME_HEADER_SIZE + game.getVariant().getBoardSize() * Short.BYTES + game.getHistory().size();
+    }
+    for (String string : strings.keySet()) {
+      byte[] bytes = string.getBytes(UTF_8);
+      encodedStrings.add(bytes);
+      size += Integer.BYTES + bytes.length;
+    }
+
+    ByteBuffer buffer = ByteBuffer.allocate(size);
+    buffer.putInt(MAGIC)
+      .putInt(FORMAT_VERSION)
+      .putLong(position)
+      .putInt(strings.size())
+      .putInt(games.size());
+    for (byte[] bytes : encodedStrings) {
+      buffer.putInt(bytes.length).put(bytes);
+    }
+    for (Game game : games) {
+      buffer.putInt(game.getId())
+        .putInt(game.getVersion())
+        .put((byte) ((game.isPlayerOneMove() ? PLAYER_ONE_MOVE : 0) | (game.isFinished() ? FINISHED : 0)))
+        .put((byte) game.getPitsPerPlayer())
+        .put((byte) game.getInitialRocks())
+        .put((byte) game.getMode().ordinal());
+      PackedBoard board = game.getPosition();
+      for (int pit = 1; pit <= game.getVariant().getBoardSize(); pit++) {
+        buffer.putShort((short) board.get(pit));
+      }
+      byte[] moves = game.getHistory().toBytes();
+      buffer.putInt(strings.get(JournalGameListener.baseUrlOf(game)))
+        .putInt(strings.get(game.getMessage()))
+        .putInt(moves.length)
+        .put(moves);
+    }
+    CRC32C checksum = new CRC32C();
+    checksum.update(buffer.array(), 0, buffer.position());
+    buffer.putInt((int) checksum.getValue());
+    buffer.flip();
+
+    Path file = directory.resolve(String.format("%s%020d%s", SNAPSHOT_PREFIX, position, SNAPSHOT_SUFFIX));
+    Path temporary = directory.resolve(file.getFileName() + ".tmp");
+    try (FileChannel channel = FileChannel.open(temporary,
+      StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+      channel.force(true);
+    }
+    Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+    List<Path> files = snapshotFiles();
+    for (int i = 0; i < files.size() - retained; i++) {
+      Files.delete(files.get(i));
+    }
+    return positionOf(files.get(Math.max(0, files.size() - retained)));
+  }
+
+  /**
+   * Loads the latest readable snapshot.
+   * @param consumer receives the games of the snapshot
+   * @return journal position from which the journal has to be replayed, 0 if there is no snapshot
+   * @throws IOException if the snapshots cannot be listed
+   */
+  public long load(Consumer<Game> consumer) throws IOException {
+    List<Path> files = snapshotFiles();
+    for (int i = files.size() - 1; i >= 0; i--) {
+      Path file = files.get(i);
+      List<Game> games;
+      try {
+        games = read(file);
+      } catch (IOException | RuntimeException e) {
+        log.warn("Skipping the damaged snapshot {}", file, e);
+        continue;
+      }
+      games.forEach(consumer);
+      return positionOf(file);
+    }
+    return 0;
+  }
+
+  private static List<Game> read(Path file) throws IOException {
+    ByteBuffer buffer;
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+    CRC32C checksum = new CRC32C();
+    checksum.update(buffer.slice(0, buffer.limit() - Integer.BYTES));
+    if (buffer.getInt() != MAGIC) {
+      throw new IOException(String.format("%s is not a snapshot", file));
+    }
+    int formatVersion = buffer.getInt();
+    if (formatVersion != FORMAT_VERSION) {
+      throw new IOException(String.format("%s has the unsupported format version %d", file, formatVersion));
+    }
+    if ((int) checksum.getValue() != buffer.getInt(buffer.limit() - Integer.BYTES)) {
+      throw new IOException(String.format("%s is not a complete snapshot", file));
+    }
+    buffer.getLong();
+    String[] strings = new String[buffer.getInt()];
+    int gameCount = buffer.getInt();
+    for (int i = 0; i < strings.length; i++) {
+      byte[] bytes = new byte[buffer.getInt()];
+      buffer.get(bytes);
+      strings[i] = new String(bytes, UTF_8);
+    }
+    List<Game> games = new ArrayList<>(gameCount);
+    for (int i = 0; i < gameCount; i++) {
+      int id = buffer.getInt();
+      int version = buffer.getInt();
+      byte flags = buffer.get();
+      KalahVariant variant = KalahVariant.of(Byte.toUnsignedInt(buffer.get()), Byte.toUnsignedInt(buffer.get()));
+      GameMode mode = GameMode.values()[buffer.get()];
+      int[] pits = new int[variant.getBoardSize() + 1];
+      for (int pit = 1; pit < pits.length; pit++) {
+        pits[pit] = Short.toUnsignedInt(buffer.getShort());
+      }
+      String url = strings[buffer.getInt()] + "/" + id;
+      String message = strings[buffer.getInt()];
+      byte[] moves = new byte[buffer.getInt()];
+      buffer.get(moves);
+      MoveHistory history = MoveHistory.of(variant, moves);
+      games.add(Game.builder()
+        .id(id)
+        .url(url)
+        .variant(variant)
+        .mode(mode)
+        .history(history)
+        .position(PackedBoard.pack(variant, pits))
+        .message(message)
+        .playerOneMove((flags & PLAYER_ONE_MOVE) != 0)
+        .version(version)
+        .finished((flags & FINISHED) != 0)
+        .build());
+    }
+    return games;
+  }
+
+  private List<Path> snapshotFiles() throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files
+        .filter(file -> {
+          String name = file.getFileName().toString();
+          return name.startsWith(SNAPSHOT_PREFIX) && name.endsWith(SNAPSHOT_SUFFIX);
+        })
+        .sorted()
+        .toList();
+    }
+  }
+
+  private static long positionOf(Path file) {
+    String name = file.getFileName().toString();
+    return Long.parseLong(name.substring(SNAPSHOT_PREFIX.length(), name.length() - SNAPSHOT_SUFFIX.length()));
+  }
+}
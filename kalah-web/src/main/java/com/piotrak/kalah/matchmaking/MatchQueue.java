@@ -0,0 +1,114 @@
+package com.piotrak.kalah.matchmaking;
+
+import com.piotrak.kalah.engine.KalahVariant;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+
+/**
+ * Lock-free pairing of players waiting for an opponent.
+ * <p>
+ * Players are pooled by variant and rating band. Two players waiting in the same pool are always paired, so a pool
+ * holds at most one waiting player, in its slot, and pairing is a compare-and-set on that slot whatever the number
+ * of players waiting in other pools. A rated player in the lower half of its band is also paired with the player
+ * waiting in the band below, in the upper half with the band above, which is best effort: two such players
+ * arriving at once may both wait in their own band.
+ * @param <T> what the caller waits on, completed by the caller once paired
+ */
+public class MatchQueue<T> {
+
+  private final int bandWidth;
+  private final Predicate<T> present;
+  private final ConcurrentHashMap<Pool, AtomicReference<Ticket<T>>> slots = new ConcurrentHashMap<>();
+  private final AtomicInteger waiting = new AtomicInteger();
+
+  /**
+   * @param bandWidth rating points per band
+   * @param present tells if a waiting player is still there, a player who went away is dropped instead of paired
+   */
+  public MatchQueue(int bandWidth, Predicate<T> present) {
+    if (bandWidth < 1) {
+      throw new IllegalArgumentException("bandWidth has to be positive");
+    }
+    this.bandWidth = bandWidth;
+    this.present = present;
+  }
+
+  /**
+   * Pairs a player with a waiting opponent or makes it wait.
+   * @param ticket the player, enqueued once
+   * @return the opponent, who waited and is no longer waiting, or null if the player waits now
+   */
+  public Ticket<T> enqueue(Ticket<T> ticket) {
+    int band = bandOf(ticket.getRating());
+    AtomicReference<Ticket<T>> own = slots.computeIfAbsent(new Pool(ticket.getVariant(), band),
+      pool -> new AtomicReference<>());
+    int neighbour = -1;
+    if (ticket.getRating() != Ticket.UNRATED) {
+      neighbour = ticket.getRating() % bandWidth < bandWidth / 2 ? band - 1 : band + 1;
+    }
+    while (true) {
+      Ticket<T> opponent = take(own);
+      if (opponent == null && neighbour >= 0) {
+        AtomicReference<Ticket<T>> other = slots.get(new Pool(ticket.getVariant(), neighbour));
+        opponent = other == null ? null : take(other);
+      }
+      if (opponent != null) {
+        ticket.claim();
+        return opponent;
+      }
+      waiting.incrementAndGet();
+      if (own.compareAndSet(null, ticket)) {
+        return null;
+      }
+      // another player took the slot in the meantime, it may be an opponent
+      waiting.decrementAndGet();
+    }
+  }
+
+  /**
+   * Stops a player from waiting, when it times out or goes away.
+   * @param ticket the player
+   * @return true if it was waiting, false if it was paired first
+   */
+  public boolean cancel(Ticket<T> ticket) {
+    if (!ticket.cancel()) {
+      return false;
+    }
+    AtomicReference<Ticket<T>> slot = slots.get(new Pool(ticket.getVariant(), bandOf(ticket.getRating())));
+    if (slot != null) {
+      slot.compareAndSet(ticket, null);
+    }
+    waiting.decrementAndGet();
+    return true;
+  }
+
+  /**
+   * @return number of players waiting for an opponent
+   */
+  public int getWaitingCount() {
+    return waiting.get();
+  }
+
+  private Ticket<T> take(AtomicReference<Ticket<T>> slot) {
+    Ticket<T> waiter;
+    while ((waiter = slot.get()) != null) {
+      // a cancelled waiter is dropped from the slot here, or by its cancellation
+      if (slot.compareAndSet(waiter, null) && waiter.claim()) {
+        waiting.decrementAndGet();
+        if (present.test(waiter.getPlayer())) {
+          return waiter;
+        }
+      }
+    }
+    return null;
+  }
+
+  private int bandOf(int rating) {
+    return rating == Ticket.UNRATED ? -1 : rating / bandWidth;
+  }
+
+  private record Pool(KalahVariant variant, int band) {
+  }
+}
@@ -0,0 +1,113 @@
+package com.piotrak.kalah.matchmaking;
+
+import com.piotrak.kalah.engine.KalahVariant;
+import com.piotrak.kalah.exception.InvalidRequestException;
+import com.piotrak.kalah.exception.MoveRejection;
+import com.piotrak.kalah.model.Game;
+import com.piotrak.kalah.model.GameMode;
+import com.piotrak.kalah.model.Match;
+import com.piotrak.kalah.service.GameService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.async.DeferredResult;
+
+/**
+ * Pairs players looking for an opponent and creates their game.
+ * <p>
+ * A waiting player is a parked request holding no thread. The second player of a pair creates the game on its own
+ * request thread and completes the request of the first one, who plays player one. A player who finds no opponent
+ * within {@link MatchmakingProperties#timeout()} is answered with 204 No Content and may enqueue again.
+ */
+@Service
+public class Matchmaker {
+
+  private final GameService gameService;
+  private final MatchmakingProperties properties;
+  private final MatchQueue<DeferredResult<ResponseEntity<Match>>> queue;
+  private final AtomicLong matchCount = new AtomicLong();
+  private final AtomicLong timeoutCount = new AtomicLong();
+
+  public Matchmaker(GameService gameService, MatchmakingProperties properties) {
+    this.gameService = gameService;
+    this.properties = properties;
+    this.queue = new MatchQueue<>(properties.bandWidth(), result -> !result.isSetOrExpired());
+  }
+
+  /**
+   * Look for an opponent
+   * @param baseUrl Url of the games
+   * @param pitsPerPlayer number of pits of each player
+   * @param initialRocks number of rocks in every pit at the start
+   * @param rating rating of the player, null to be paired with unrated players
+   * @return the request completed with the game once an opponent is found
+   */
+  public DeferredResult<ResponseEntity<Match>> enqueue(String baseUrl, int pitsPerPlayer, int initialRocks,
+    Integer rating) {
+    KalahVariant variant = GameService.variantOf(pitsPerPlayer, initialRocks);
+    if (rating != null && (rating < 0 || rating > properties.maxRating())) {
+      throw new InvalidRequestException(MoveRejection.INVALID_RATING,
+        String.format("Rating %s is not supported, use 0 to %s", rating, properties.maxRating()));
+    }
+    DeferredResult<ResponseEntity<Match>> result = new DeferredResult<>(properties.timeout().toMillis());
+    Ticket<DeferredResult<ResponseEntity<Match>>> ticket =
+      new Ticket<>(result, variant, rating == null ? Ticket.UNRATED : rating);
+    result.onTimeout(() -> {
+      if (queue.cancel(ticket)) {
+        timeoutCount.incrementAndGet();
+        result.setResult(ResponseEntity.noContent().build());
+      }
+    });
+    result.onError(error -> queue.cancel(ticket));
+    result.onCompletion(() -> queue.cancel(ticket));
+
+    Ticket<DeferredResult<ResponseEntity<Match>>> opponent = queue.enqueue(ticket);
+    if (opponent != null) {
+      pair(baseUrl, opponent, ticket);
+    }
+    return result;
+  }
+
+  private void pair(String baseUrl, Ticket<DeferredResult<ResponseEntity<Match>>> first,
+    Ticket<DeferredResult<ResponseEntity<Match>>> second) {
+    Game game;
+    try {
+      KalahVariant variant = first.getVariant();
+      game = gameService.createGame(baseUrl, variant.getPitsPerPlayer(), variant.getInitialRocks(),
+        GameMode.TWO_PLAYER);
+    } catch (RuntimeException e) {
+      first.getPlayer().setErrorResult(e);
+      second.getPlayer().setErrorResult(e);
+      return;
+    }
+    matchCount.incrementAndGet();
+    long now = System.nanoTime();
+    first.getPlayer().setResult(new ResponseEntity<>(
+      new Match(game, true, TimeUnit.NANOSECONDS.toMillis(now - first.getEnqueuedNanos())), HttpStatus.OK));
+    second.getPlayer().setResult(new ResponseEntity<>(
+      new Match(game, false, TimeUnit.NANOSECONDS.toMillis(now - second.getEnqueuedNanos())), HttpStatus.OK));
+  }
+
+  /**
+   * @return number of players waiting for an opponent
+   */
+  public int getWaitingCount() {
+    return queue.getWaitingCount();
+  }
+
+  /**
+   * @return number of games created for paired players
+   */
+  public long getMatchCount() {
+    return matchCount.get();
+  }
+
+  /**
+   * @return number of players who found no opponent in time
+   */
+  public long getTimeoutCount() {
+    return timeoutCount.get();
+  }
+}
@@ -0,0 +1,18 @@
+package com.piotrak.kalah.matchmaking;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings of the matchmaking.
+ * @param timeout time a player waits for an opponent before being answered with no game
+ * @param bandWidth rating points per band, players are paired within a band or with the closest neighbouring band
+ * @param maxRating highest rating accepted
+ */
+@ConfigurationProperties(prefix = "kalah.matchmaking")
+public record MatchmakingProperties(
+  @DefaultValue("30s") Duration timeout,
+  @DefaultValue("100") int bandWidth,
+  @DefaultValue("5000") int maxRating) {
+}
@@ -0,0 +1,58 @@
+package com.piotrak.kalah.matchmaking;
+
+import com.piotrak.kalah.engine.KalahVariant;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A player looking for an opponent in a {@link MatchQueue}. It is either paired or cancelled, never both.
+ * @param <T> what the player waits on
+ */
+public final class Ticket<T> {
+
+  public static final int UNRATED = -1;
+
+  private static final int WAITING = 0;
+  private static final int PAIRED = 1;
+  private static final int CANCELLED = 2;
+
+  private final T player;
+  private final KalahVariant variant;
+  private final int rating;
+  private final long enqueuedNanos = System.nanoTime();
+  private final AtomicInteger state = new AtomicInteger(WAITING);
+
+  /**
+   * @param player what the player waits on
+   * @param variant rules of the game to play
+   * @param rating rating of the player, not negative, or {@link #UNRATED} to be paired with unrated players only
+   */
+  public Ticket(T player, KalahVariant variant, int rating) {
+    this.player = player;
+    this.variant = variant;
+    this.rating = rating;
+  }
+
+  public T getPlayer() {
+    return player;
+  }
+
+  public KalahVariant getVariant() {
+    return variant;
+  }
+
+  public int getRating() {
+    return rating;
+  }
+
+  public long getEnqueuedNanos() {
+    return enqueuedNanos;
+  }
+
+  boolean claim() {
+    return state.compareAndSet(WAITING, PAIRED);
+  }
+
+  boolean cancel() {
+    return state.compareAndSet(WAITING, CANCELLED);
+  }
+}
@@ -0,0 +1,70 @@
+package com.piotrak.kalah.metrics;
+
+import com.piotrak.kalah.exception.MoveRejection;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.springframework.stereotype.Component;
+
+/**
+ * Meters of the game operations.
+ * <p>
+ * Every meter is registered up front, so recording is a lookup in a field or an {@link EnumMap} and never builds
+ * tags or meter ids on the request path.
+ */
+@Component
+public class GameMetrics {
+
+  private final Timer createTimer;
+  private final Timer moveAppliedTimer;
+  private final Timer moveRejectedTimer;
+  private final Map<MoveRejection, Counter> rejections = new EnumMap<>(MoveRejection.class);
+
+  public GameMetrics(MeterRegistry registry) {
+    this.createTimer = timer("kalah.games.create", "Time to create a game")
+      .register(registry);
+    this.moveAppliedTimer = timer("kalah.games.move", "Time to make a move")
+      .tag("outcome", "applied")
+      .register(registry);
+    this.moveRejectedTimer = timer("kalah.games.move", "Time to make a move")
+      .tag("outcome", "rejected")
+      .register(registry);
+    for (MoveRejection reason : MoveRejection.values()) {
+      rejections.put(reason, Counter.builder("kalah.requests.rejected")
+        .description("Requests rejected by the game rules or validation")
+        .tag("reason", reason.name().toLowerCase(Locale.ROOT))
+        .register(registry));
+    }
+  }
+
+  /**
+   * @return metrics which are recorded nowhere
+   */
+  public static GameMetrics noop() {
+    return new GameMetrics(new CompositeMeterRegistry());
+  }
+
+  public void recordCreate(long nanos) {
+    createTimer.record(nanos, TimeUnit.NANOSECONDS);
+  }
+
+  public void recordMove(long nanos, boolean applied) {
+    (applied ? moveAppliedTimer : moveRejectedTimer).record(nanos, TimeUnit.NANOSECONDS);
+  }
+
+  public void recordRejection(MoveRejection reason) {
+    rejections.get(reason).increment();
+  }
+
+  private static Timer.Builder timer(String name, String description) {
+    return Timer.builder(name)
+      .description(description)
+      .publishPercentiles(0.5, 0.95, 0.99)
+      .publishPercentileHistogram();
+  }
+}
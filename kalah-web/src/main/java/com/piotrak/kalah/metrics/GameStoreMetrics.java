@@ -0,0 +1,44 @@
+package com.piotrak.kalah.metrics;
+
+import com.piotrak.kalah.repository.InMemoryGameRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Gauges and counters of the game store, read from the store when they are scraped.
+ */
+@Component
+@AllArgsConstructor
+public class GameStoreMetrics implements MeterBinder {
+
+  private final InMemoryGameRepository gameRepository;
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    Gauge.builder("kalah.games.live", gameRepository, InMemoryGameRepository::size)
+      .description("Games in the store")
+      .register(registry);
+    Gauge.builder("kalah.games.finished", gameRepository, InMemoryGameRepository::getFinishedCount)
+      .description("Finished games in the store")
+      .register(registry);
+    Gauge.builder("kalah.games.capacity", gameRepository, InMemoryGameRepository::getMaxGames)
+      .description("Maximum number of games in the store")
+      .register(registry);
+    FunctionCounter.builder("kalah.games.removed", gameRepository, InMemoryGameRepository::getExpiredCount)
+      .description("Games removed from the store")
+      .tag("cause", "expired")
+      .register(registry);
+    FunctionCounter.builder("kalah.games.removed", gameRepository, InMemoryGameRepository::getFinishedExpiredCount)
+      .description("Games removed from the store")
+      .tag("cause", "finished_expired")
+      .register(registry);
+    FunctionCounter.builder("kalah.games.removed", gameRepository, InMemoryGameRepository::getEvictedCount)
+      .description("Games removed from the store")
+      .tag("cause", "evicted")
+      .register(registry);
+  }
+}
@@ -0,0 +1,32 @@
+package com.piotrak.kalah.metrics;
+
+import com.piotrak.kalah.matchmaking.Matchmaker;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Gauge and counters of the matchmaking, read when they are scraped.
+ */
+@Component
+@AllArgsConstructor
+public class MatchmakingMetrics implements MeterBinder {
+
+  private final Matchmaker matchmaker;
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    Gauge.builder("kalah.matchmaking.waiting", matchmaker, Matchmaker::getWaitingCount)
+      .description("Players waiting for an opponent")
+      .register(registry);
+    FunctionCounter.builder("kalah.matchmaking.matches", matchmaker, Matchmaker::getMatchCount)
+      .description("Games created for paired players")
+      .register(registry);
+    FunctionCounter.builder("kalah.matchmaking.timeouts", matchmaker, Matchmaker::getTimeoutCount)
+      .description("Players who found no opponent in time")
+      .register(registry);
+  }
+}
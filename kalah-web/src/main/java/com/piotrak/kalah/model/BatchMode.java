@@ -0,0 +1,15 @@
+package com.piotrak.kalah.model;
+
+/**
+ * What a batch of moves does when one of the moves is rejected.
+ */
+public enum BatchMode {
+  /**
+   * Keep the moves applied so far and skip the rest.
+   */
+  STOP,
+  /**
+   * Apply either all of the moves or none of them.
+   */
+  ALL_OR_NOTHING
+}
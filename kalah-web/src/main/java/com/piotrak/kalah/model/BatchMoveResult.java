@@ -0,0 +1,11 @@
+package com.piotrak.kalah.model;
+
+import java.util.List;
+
+/**
+ * Result of a batch of moves.
+ * @param game the game after the batch
+ * @param moves outcome of every requested move, in order
+ */
+public record BatchMoveResult(Game game, List<MoveOutcome> moves) {
+}
@@ -0,0 +1,55 @@
+package com.piotrak.kalah.model;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable representation of the Kalah game board.
+ */
+public record Board(Map<Integer, Integer> status) {
+
+    public Board {
+        status = Map.copyOf(status);
+    }
+
+    /**
+     * Builds a board view from the engine's pit array.
+     * @param pits the pits indexed by pit number
+     * @return the board
+     */
+    public static Board of(int[] pits) {
+        Map<Integer, Integer> status = new HashMap<>(pits.length);
+        for (int i = 1; i < pits.length; i++) {
+            status.put(i, pits[i]);
+        }
+        return new Board(status);
+    }
+
+    /**
+     * Copies the board into the engine's pit array.
+     * @param pits the pits indexed by pit number
+     */
+    public void copyTo(int[] pits) {
+        for (int i = 1; i < pits.length; i++) {
+            pits[i] = getRocks(i);
+        }
+    }
+
+    /**
+     * Gets the number of rocks in a pit.
+     * @param pit the pit number
+     * @return the number of rocks
+     */
+    public int getRocks(int pit) {
+        return status.get(pit);
+    }
+
+    /**
+     * Checks if a pit is empty.
+     * @param pit the pit number
+     * @return true if empty
+     */
+    public boolean isEmpty(int pit) {
+        return getRocks(pit) == 0;
+    }
+}
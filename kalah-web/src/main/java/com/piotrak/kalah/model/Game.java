@@ -0,0 +1,138 @@
+package com.piotrak.kalah.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.piotrak.kalah.engine.KalahVariant;
+import com.piotrak.kalah.engine.MoveHistory;
+import com.piotrak.kalah.engine.PackedBoard;
+import java.util.List;
+import java.util.Map;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+@Builder(toBuilder = true)
+@Getter
+public class Game {
+
+  public static final String MESSAGE_PLAYER_ONE_MOVE = "It's player One's move";
+  public static final String MESSAGE_PLAYER_TWO_MOVE = "It's player Two's move";
+  public static final String MESSAGE_MOVE_AGAIN = "One more time: ";
+  public static final String MESSAGE_GAME_CREATED = "A new Kalah game was created. " + MESSAGE_PLAYER_ONE_MOVE;
+  public static final String MESSAGE_PLAYER_ONE_WON = "Player One is the Victor: %s to %s";
+  public static final String MESSAGE_PLAYER_TWO_WON = "Player Two won: %s to %s";
+  public static final String MESSAGE_DRAW = "Draw";
+  /**
+   * Positions reached in at most this many moves are shared between the games, most games go through the same openings.
+   */
+  public static final int INTERNED_MOVES = 8;
+
+  private final Integer id;
+  private final String url;
+  @JsonIgnore
+  @Builder.Default
+  private final KalahVariant variant = KalahVariant.STANDARD;
+  @Builder.Default
+  private final GameMode mode = GameMode.TWO_PLAYER;
+  /**
+   * The board, replaced after every move.
+   */
+  @JsonIgnore
+  private PackedBoard position;
+  @Setter
+  private String message;
+  @JsonIgnore
+  @Setter
+  private boolean playerOneMove;
+  /**
+   * Moves played, shared with the copies of the game.
+   */
+  @JsonIgnore
+  @Setter
+  @Builder.Default
+  private MoveHistory history = MoveHistory.EMPTY;
+  /**
+   * Number of changes of the game, moves made and undone.
+   */
+  private int version;
+  @JsonIgnore
+  @Setter
+  private boolean finished;
+  /**
+   * Time of the last change of the game in epoch milliseconds, of its creation or restoration before the first one.
+   */
+  @JsonIgnore
+  @Setter
+  private long updatedMillis;
+
+  /**
+   * Builds the board view, only used for serialization.
+   * @return the board
+   */
+  public Board getBoard() {
+    return Board.of(getPits());
+  }
+
+  public void setBoard(Board board) {
+    int[] pits = new int[variant.getBoardSize() + 1];
+    board.copyTo(pits);
+    setPits(pits);
+  }
+
+  /**
+   * Unpacks the board.
+   * @return a new array of the pits indexed by pit number
+   */
+  @JsonIgnore
+  public int[] getPits() {
+    return position.unpack();
+  }
+
+  /**
+   * Packs the board after a move has been added to the history, sharing the position with other games in the
+   * opening.
+   * @param pits the pits indexed by pit number
+   */
+  public void setPits(int[] pits) {
+    PackedBoard packed = PackedBoard.pack(variant, pits);
+    position = history.size() <= INTERNED_MOVES ? packed.intern() : packed;
+  }
+
+  /**
+   * Creates a detached copy of the game, the caller has to hold the game's lock. The board is immutable and shared.
+   * @return the copy
+   */
+  public Game copy() {
+    return toBuilder().build();
+  }
+
+  /**
+   * @return the pits the player to move may move from as a bit set, bit n for pit n, none once the game is over
+   */
+  @JsonIgnore
+  public int getLegalMoveMask() {
+    return finished ? 0 : position.legalMoves(playerOneMove);
+  }
+
+  /**
+   * @return the pits the player to move may move from, in increasing order
+   */
+  public List<Integer> getLegalMoves() {
+    return LegalMoves.pitsOf(getLegalMoveMask());
+  }
+
+  public void incrementVersion() {
+    version++;
+  }
+
+  public int getPitsPerPlayer() {
+    return variant.getPitsPerPlayer();
+  }
+
+  public int getInitialRocks() {
+    return variant.getInitialRocks();
+  }
+
+  public Map<Integer, Integer> getStatus() {
+    return getBoard().status();
+  }
+}
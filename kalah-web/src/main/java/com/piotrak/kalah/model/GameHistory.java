@@ -0,0 +1,20 @@
+package com.piotrak.kalah.model;
+
+import java.util.List;
+
+/**
+ * Moves played in a game.
+ * @param id game id
+ * @param version version of the game
+ * @param moves the moves in the order they were played
+ */
+public record GameHistory(Integer id, int version, List<Move> moves) {
+
+  /**
+   * @param ply number of moves before this one
+   * @param pit pit moved from
+   * @param playerOne true if player one made the move
+   */
+  public record Move(int ply, int pit, boolean playerOne) {
+  }
+}
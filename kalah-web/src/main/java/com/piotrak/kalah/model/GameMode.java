@@ -0,0 +1,19 @@
+package com.piotrak.kalah.model;
+
+/**
+ * How a game is played.
+ */
+public enum GameMode {
+  /**
+   * Two players, a move is final.
+   */
+  TWO_PLAYER,
+  /**
+   * A player practicing, alone or against the computer player, moves can be taken back.
+   */
+  PRACTICE;
+
+  public boolean isUndoAllowed() {
+    return this == PRACTICE;
+  }
+}
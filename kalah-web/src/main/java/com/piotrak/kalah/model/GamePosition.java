@@ -0,0 +1,15 @@
+package com.piotrak.kalah.model;
+
+import java.util.Map;
+
+/**
+ * Board of a game after a number of moves.
+ * @param id game id
+ * @param ply number of moves played before the position
+ * @param status rocks by pit number
+ * @param playerOneMove true if player one moves next
+ * @param finished true if the game was over
+ */
+public record GamePosition(Integer id, int ply, Map<Integer, Integer> status, boolean playerOneMove,
+                           boolean finished) {
+}
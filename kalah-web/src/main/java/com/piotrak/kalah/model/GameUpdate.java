@@ -0,0 +1,14 @@
+package com.piotrak.kalah.model;
+
+import java.util.Map;
+
+/**
+ * Change of a game pushed to its subscribers.
+ * @param id game id
+ * @param version version of the game after the change
+ * @param pits rocks by pit number, only the pits which changed for a delta, all of them for a full state
+ * @param message the game's message
+ * @param finished true if the game is over
+ */
+public record GameUpdate(Integer id, int version, Map<Integer, Integer> pits, String message, boolean finished) {
+}
@@ -0,0 +1,32 @@
+package com.piotrak.kalah.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pits the player to move may move from.
+ * @param id game id
+ * @param version version of the game the moves are legal in
+ * @param playerOneMove true if player one moves next
+ * @param mask the pits as a bit set, bit n for pit n
+ * @param pits the pits in increasing order, empty once the game is finished
+ */
+public record LegalMoves(Integer id, int version, boolean playerOneMove, int mask, List<Integer> pits) {
+
+  public static LegalMoves of(Game game) {
+    int mask = game.getLegalMoveMask();
+    return new LegalMoves(game.getId(), game.getVersion(), game.isPlayerOneMove(), mask, pitsOf(mask));
+  }
+
+  /**
+   * @param mask pits as a bit set, bit n for pit n
+   * @return the pits in increasing order
+   */
+  public static List<Integer> pitsOf(int mask) {
+    List<Integer> pits = new ArrayList<>(Integer.bitCount(mask));
+    for (int bits = mask; bits != 0; bits &= bits - 1) {
+      pits.add(Integer.numberOfTrailingZeros(bits));
+    }
+    return pits;
+  }
+}
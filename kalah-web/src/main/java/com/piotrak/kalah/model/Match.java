@@ -0,0 +1,10 @@
+package com.piotrak.kalah.model;
+
+/**
+ * Game created for two players paired by the matchmaking, as seen by one of them.
+ * @param game the new game
+ * @param playerOne true if the player plays player one's pits, the player who waited longer moves first
+ * @param waitedMillis time the player waited for an opponent
+ */
+public record Match(Game game, boolean playerOne, long waitedMillis) {
+}
@@ -0,0 +1,10 @@
+package com.piotrak.kalah.model;
+
+/**
+ * Outcome of a single move of a batch.
+ * @param pit pit moved from
+ * @param applied true if the move was made
+ * @param message the game's message after the move, or the reason why the move was not made
+ */
+public record MoveOutcome(Integer pit, boolean applied, String message) {
+}
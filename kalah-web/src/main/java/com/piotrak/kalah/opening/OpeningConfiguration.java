@@ -0,0 +1,22 @@
+package com.piotrak.kalah.opening;
+
+import java.io.IOException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Slf4j
+@Configuration
+public class OpeningConfiguration {
+
+  @Bean
+  public OpeningBook openingBook(OpeningProperties properties) throws IOException {
+    if (properties.file() == null) {
+      return OpeningBook.EMPTY;
+    }
+    OpeningBook book = OpeningBook.open(properties.file());
+    log.info("Mapped opening book {} with {} positions up to {} moves deep", properties.file(), book.size(),
+      book.getPlies());
+    return book;
+  }
+}
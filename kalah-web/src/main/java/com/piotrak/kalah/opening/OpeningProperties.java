@@ -0,0 +1,12 @@
+package com.piotrak.kalah.opening;
+
+import java.nio.file.Path;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Location of the opening book.
+ * @param file book file written by {@link OpeningBookBuilder}, no book is used when not set
+ */
+@ConfigurationProperties(prefix = "kalah.opening")
+public record OpeningProperties(Path file) {
+}
@@ -0,0 +1,88 @@
+package com.piotrak.kalah.repository;
+
+import com.piotrak.kalah.model.Game;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+
+/**
+ * Store of the live Kalah games, games are mutated in place while the lock of their id is held.
+ */
+public interface GameRepository {
+
+  /**
+   * Sets the callback invoked with the id of every game which expired or was evicted.
+   * @param removalListener the callback
+   */
+  void onRemoval(IntConsumer removalListener);
+
+  /**
+   * Allocates a new, unique game id.
+   * @return game id
+   */
+  int nextId();
+
+  /**
+   * Makes sure that ids are allocated after a game id restored from persistent storage.
+   * @param gameId restored game id
+   */
+  void restoreId(int gameId);
+
+  /**
+   * Removes a game without notifying the removal listener.
+   * @param gameId game id
+   */
+  void delete(Integer gameId);
+
+  /**
+   * Stores a game.
+   * @param game Kalah game
+   */
+  void save(Game game);
+
+  /**
+   * Finds a game and marks it as recently used.
+   * @param gameId game id
+   * @return the game or null if there is no such game
+   */
+  Game find(Integer gameId);
+
+  /**
+   * Shortens the time to live of a game that has just been finished.
+   * @param game Kalah game
+   */
+  void finished(Game game);
+
+  /**
+   * Restores the idle time to live of a finished game which has been taken back to play.
+   * @param game Kalah game
+   */
+  void resumed(Game game);
+
+  /**
+   * Visits the stored games without marking them as used.
+   * @param action called with every game
+   */
+  void forEach(Consumer<Game> action);
+
+  /**
+   * @return number of stored games
+   */
+  int size();
+
+  /**
+   * Gets the lock which has to be held while a game is being modified.
+   * @param gameId game id
+   * @return the lock guarding the game
+   */
+  Lock lockFor(int gameId);
+
+  /**
+   * Makes the repository guard its games with the locks of the repository it stores them for, so that it removes a
+   * game while holding the lock its changes are made under.
+   * @param lockSource lock of a game by its id
+   */
+  default void useLocks(IntFunction<Lock> lockSource) {
+  }
+}
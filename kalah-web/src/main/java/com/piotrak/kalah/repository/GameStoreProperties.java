@@ -0,0 +1,26 @@
+package com.piotrak.kalah.repository;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Limits of the in-memory game store.
+ * @param maxGames maximum number of games held in memory, the least recently used ones are evicted above it
+ * @param idleTtl time after which a game without any activity expires
+ * @param finishedTtl time after which a finished game expires
+ * @param tick resolution of the expiry timer wheel
+ * @param wheelSize number of buckets of the expiry timer wheel, rounded up to a power of two
+ */
+@ConfigurationProperties(prefix = "kalah.store")
+public record GameStoreProperties(
+  @DefaultValue("100000") int maxGames,
+  @DefaultValue("30m") Duration idleTtl,
+  @DefaultValue("1m") Duration finishedTtl,
+  @DefaultValue("1s") Duration tick,
+  @DefaultValue("512") int wheelSize) {
+
+  public static GameStoreProperties defaults() {
+    return new GameStoreProperties(100_000, Duration.ofMinutes(30), Duration.ofMinutes(1), Duration.ofSeconds(1), 512);
+  }
+}
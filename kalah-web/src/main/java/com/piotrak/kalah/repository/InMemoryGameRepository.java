@@ -0,0 +1,466 @@
+package com.piotrak.kalah.repository;
+
+import com.piotrak.kalah.model.Game;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Clock;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Thread-safe, bounded in-memory store of Kalah games.
+ * <p>
+ * Moves on a game are serialized by a lock stripe chosen by the game id. Ids are handed out sequentially,
+ * so two games only share a stripe when their ids differ by a multiple of the stripe count.
+ * <p>
+ * Idle and finished games expire through a hashed timer wheel: every game sits in exactly one bucket and is
+ * only looked at when the wheel reaches it, so expiry costs nothing on the request path. When the store is
+ * full the CLOCK (second chance) approximation of LRU picks the game to evict, finished games first. A game is
+ * removed, and the removal listener called, while its lock is held, a game whose lock is busy is left for later.
+ */
+@Slf4j
+@Repository
+public class InMemoryGameRepository implements GameRepository {
+
+  private static final int LOCK_STRIPES = 1024;
+
+  private final Map<Integer, Entry> games = new ConcurrentHashMap<>();
+  private final AtomicInteger idSequence = new AtomicInteger();
+  private final Lock[] locks = new Lock[LOCK_STRIPES];
+
+  private final Clock clock;
+  private final long idleTtl;
+  private final long finishedTtl;
+  private final long tick;
+
+  private volatile IntFunction<Lock> lockSource = gameId -> locks[gameId & (LOCK_STRIPES - 1)];
+
+  /**
+   * Guards the timer wheel and the eviction clock, never taken while moving. Taken after the lock of a game, so a
+   * game's lock is only tried while it is held.
+   */
+  private final Lock maintenanceLock = new ReentrantLock();
+  private final Bucket[] wheel;
+  private final int wheelMask;
+  private long currentTick;
+  private final Entry[] clockSlots;
+  private final int[] freeSlots;
+  private int freeSlotCount;
+  private int usedSlots;
+  private int hand;
+
+  private final LongAdder expiredCount = new LongAdder();
+  private final LongAdder finishedExpiredCount = new LongAdder();
+  private final LongAdder evictedCount = new LongAdder();
+  private final AtomicInteger finishedCount = new AtomicInteger();
+
+  private ScheduledExecutorService janitor;
+  private volatile IntConsumer removalListener = gameId -> { };
+
+  public InMemoryGameRepository() {
+    this(GameStoreProperties.defaults());
+  }
+
+  @Autowired
+  public InMemoryGameRepository(GameStoreProperties properties) {
+    this(properties, Clock.systemUTC());
+  }
+
+  InMemoryGameRepository(GameStoreProperties properties, Clock clock) {
+    for (int i = 0; i < LOCK_STRIPES; i++) {
+      locks[i] = new ReentrantLock();
+    }
+    this.clock = clock;
+    this.idleTtl = properties.idleTtl().toMillis();
+    this.finishedTtl = properties.finishedTtl().toMillis();
+    this.tick = Math.max(1, properties.tick().toMillis());
+    int wheelSize = Integer.highestOneBit(Math.max(1, properties.wheelSize() - 1)) << 1;
+    this.wheel = new Bucket[wheelSize];
+    for (int i = 0; i < wheelSize; i++) {
+      wheel[i] = new Bucket();
+    }
+    this.wheelMask = wheelSize - 1;
+    this.currentTick = clock.millis() / tick;
+    this.clockSlots = new Entry[properties.maxGames()];
+    this.freeSlots = new int[properties.maxGames()];
+  }
+
+  @PostConstruct
+  public void start() {
+    janitor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "game-store-janitor");
+      thread.setDaemon(true);
+      return thread;
+    });
+    janitor.scheduleWithFixedDelay(this::expire, tick, tick, TimeUnit.MILLISECONDS);
+  }
+
+  @PreDestroy
+  public void stop() {
+    if (janitor != null) {
+      janitor.shutdownNow();
+    }
+  }
+
+  /**
+   * Sets the callback invoked with the id of every game which expired or was evicted.
+   * @param removalListener the callback
+   */
+  @Override
+  public void onRemoval(IntConsumer removalListener) {
+    this.removalListener = removalListener;
+  }
+
+  /**
+   * Allocates a new, unique game id.
+   * @return game id
+   */
+  @Override
+  public int nextId() {
+    return idSequence.incrementAndGet();
+  }
+
+  /**
+   * Makes sure that ids are allocated after a game id restored from persistent storage.
+   * @param gameId restored game id
+   */
+  @Override
+  public void restoreId(int gameId) {
+    idSequence.accumulateAndGet(gameId, Math::max);
+  }
+
+  /**
+   * Removes a game without notifying the removal listener.
+   * @param gameId game id
+   */
+  @Override
+  public void delete(Integer gameId) {
+    maintenanceLock.lock();
+    try {
+      Entry entry = games.get(gameId);
+      if (entry != null) {
+        removeEntry(entry);
+      }
+    } finally {
+      maintenanceLock.unlock();
+    }
+  }
+
+  /**
+   * Stores a game, evicting the least recently used one if the store is full.
+   * @param game Kalah game
+   */
+  @Override
+  public void save(Game game) {
+    long now = clock.millis();
+    Entry entry = new Entry(game, now);
+    maintenanceLock.lock();
+    try {
+      Entry previous = games.put(game.getId(), entry);
+      if (previous != null) {
+        removeEntry(previous);
+      }
+      entry.slot = allocateSlot();
+      clockSlots[entry.slot] = entry;
+      schedule(entry, now + idleTtl);
+    } finally {
+      maintenanceLock.unlock();
+    }
+  }
+
+  /**
+   * Finds a game and marks it as recently used.
+   * @param gameId game id
+   * @return the game or null if there is no such game
+   */
+  @Override
+  public Game find(Integer gameId) {
+    Entry entry = games.get(gameId);
+    if (entry == null) {
+      return null;
+    }
+    long now = clock.millis();
+    if (now - entry.lastAccess >= tick) {
+      entry.lastAccess = now;
+    }
+    if (!entry.referenced) {
+      entry.referenced = true;
+    }
+    return entry.game;
+  }
+
+  /**
+   * Shortens the time to live of a game that has just been finished.
+   * @param game Kalah game
+   */
+  @Override
+  public void finished(Game game) {
+    maintenanceLock.lock();
+    try {
+      Entry entry = games.get(game.getId());
+      if (entry != null && entry.game == game) {
+        if (!entry.finished) {
+          entry.finished = true;
+          finishedCount.incrementAndGet();
+        }
+        unschedule(entry);
+        schedule(entry, entry.lastAccess + finishedTtl);
+      }
+    } finally {
+      maintenanceLock.unlock();
+    }
+  }
+
+  /**
+   * Restores the idle time to live of a finished game which has been taken back to play.
+   * @param game Kalah game
+   */
+  @Override
+  public void resumed(Game game) {
+    maintenanceLock.lock();
+    try {
+      Entry entry = games.get(game.getId());
+      if (entry != null && entry.game == game && entry.finished) {
+        entry.finished = false;
+        finishedCount.decrementAndGet();
+        unschedule(entry);
+        schedule(entry, entry.lastAccess + idleTtl);
+      }
+    } finally {
+      maintenanceLock.unlock();
+    }
+  }
+
+  /**
+   * Visits the stored games without marking them as used. Games saved or removed meanwhile may or may not be
+   * visited, games stored before the call and not removed are.
+   * @param action called with every game
+   */
+  @Override
+  public void forEach(Consumer<Game> action) {
+    for (Entry entry : games.values()) {
+      action.accept(entry.game);
+    }
+  }
+
+  @Override
+  public int size() {
+    return games.size();
+  }
+
+  /**
+   * @return number of stored games which are finished
+   */
+  public int getFinishedCount() {
+    return finishedCount.get();
+  }
+
+  /**
+   * @return maximum number of stored games
+   */
+  public int getMaxGames() {
+    return clockSlots.length;
+  }
+
+  public long getExpiredCount() {
+    return expiredCount.sum();
+  }
+
+  public long getFinishedExpiredCount() {
+    return finishedExpiredCount.sum();
+  }
+
+  public long getEvictedCount() {
+    return evictedCount.sum();
+  }
+
+  /**
+   * Gets the lock which has to be held while a game is being modified.
+   * @param gameId game id
+   * @return the lock guarding the game
+   */
+  @Override
+  public Lock lockFor(int gameId) {
+    return lockSource.apply(gameId);
+  }
+
+  @Override
+  public void useLocks(IntFunction<Lock> lockSource) {
+    this.lockSource = lockSource;
+  }
+
+  /**
+   * Advances the timer wheel up to the current time and removes the expired games.
+   */
+  public void expire() {
+    long now = clock.millis();
+    long targetTick = now / tick;
+    maintenanceLock.lock();
+    try {
+      while (currentTick < targetTick) {
+        currentTick++;
+        expireBucket(wheel[(int) (currentTick & wheelMask)], now);
+      }
+    } catch (RuntimeException e) {
+      log.error("Unable to expire games", e);
+    } finally {
+      maintenanceLock.unlock();
+    }
+  }
+
+  private void expireBucket(Bucket bucket, long now) {
+    Entry entry = bucket.head;
+    while (entry != null) {
+      Entry next = entry.next;
+      if (entry.scheduledTick <= currentTick) {
+        unschedule(entry);
+        Lock lock = lockFor(entry.game.getId());
+        if (lock.tryLock()) {
+          try {
+            expireEntry(entry, now);
+          } finally {
+            lock.unlock();
+          }
+        } else {
+          // the game is being changed, it is looked at again on the next tick
+          schedule(entry, now);
+        }
+      }
+      entry = next;
+    }
+  }
+
+  private void expireEntry(Entry entry, long now) {
+    boolean finished = entry.game.isFinished();
+    long deadline = entry.lastAccess + (finished ? finishedTtl : idleTtl);
+    if (deadline <= now) {
+      removeEntry(entry);
+      removalListener.accept(entry.game.getId());
+      (finished ? finishedExpiredCount : expiredCount).increment();
+    } else {
+      schedule(entry, deadline);
+    }
+  }
+
+  private void schedule(Entry entry, long deadline) {
+    entry.scheduledTick = Math.max(deadline / tick, currentTick + 1);
+    wheel[(int) (entry.scheduledTick & wheelMask)].link(entry);
+  }
+
+  private void unschedule(Entry entry) {
+    if (entry.bucket != null) {
+      entry.bucket.unlink(entry);
+    }
+  }
+
+  private int allocateSlot() {
+    if (freeSlotCount > 0) {
+      return freeSlots[--freeSlotCount];
+    }
+    if (usedSlots < clockSlots.length) {
+      return usedSlots++;
+    }
+    while (true) {
+      Entry victim = clockSlots[hand];
+      hand = (hand + 1) % clockSlots.length;
+      if (victim.referenced && !victim.finished) {
+        victim.referenced = false;
+        continue;
+      }
+      // the lock of the game being saved may be the victim's, it is then held by this thread already
+      Lock lock = lockFor(victim.game.getId());
+      if (!lock.tryLock()) {
+        continue;
+      }
+      try {
+        removeEntry(victim);
+        removalListener.accept(victim.game.getId());
+      } finally {
+        lock.unlock();
+      }
+      evictedCount.increment();
+      return freeSlots[--freeSlotCount];
+    }
+  }
+
+  private void removeEntry(Entry entry) {
+    games.remove(entry.game.getId(), entry);
+    if (entry.finished) {
+      finishedCount.decrementAndGet();
+    }
+    unschedule(entry);
+    clockSlots[entry.slot] = null;
+    freeSlots[freeSlotCount++] = entry.slot;
+  }
+
+  private static final class Entry {
+
+    private final Game game;
+    private volatile long lastAccess;
+    private volatile boolean referenced;
+    /**
+     * True once the entry is counted as finished.
+     */
+    private boolean finished;
+    private int slot;
+    private long scheduledTick;
+    private Bucket bucket;
+    private Entry previous;
+    private Entry next;
+
+    private Entry(Game game, long lastAccess) {
+      this.game = game;
+      this.lastAccess = lastAccess;
+    }
+  }
+
+  /**
+   * Intrusive doubly linked list of the entries scheduled in one wheel slot.
+   */
+  private static final class Bucket {
+
+    private Entry head;
+    private Entry tail;
+
+    private void link(Entry entry) {
+      entry.bucket = this;
+      entry.previous = tail;
+      entry.next = null;
+      if (tail == null) {
+        head = entry;
+      } else {
+        tail.next = entry;
+      }
+      tail = entry;
+    }
+
+    private void unlink(Entry entry) {
+      if (entry.previous == null) {
+        head = entry.next;
+      } else {
+        entry.previous.next = entry.next;
+      }
+      if (entry.next == null) {
+        tail = entry.previous;
+      } else {
+        entry.next.previous = entry.previous;
+      }
+      entry.bucket = null;
+      entry.previous = null;
+      entry.next = null;
+    }
+  }
+}
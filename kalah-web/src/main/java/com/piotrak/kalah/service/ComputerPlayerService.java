@@ -0,0 +1,92 @@
+package com.piotrak.kalah.service;
+
+import com.piotrak.kalah.ai.AiProperties;
+import com.piotrak.kalah.ai.AlphaBetaSearch;
+import com.piotrak.kalah.ai.ComputerMove;
+import com.piotrak.kalah.ai.SearchResult;
+import com.piotrak.kalah.endgame.EndgameDatabase;
+import com.piotrak.kalah.exception.ForbiddenOperationException;
+import com.piotrak.kalah.exception.MoveRejection;
+import com.piotrak.kalah.model.Game;
+import com.piotrak.kalah.opening.OpeningBook;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Service;
+
+@Service
+public class ComputerPlayerService {
+
+  /**
+   * Searches made for one request, a game changed by other requests during every one of them is rejected.
+   */
+  private static final int MAX_ATTEMPTS = 3;
+
+  private final GameService gameService;
+  private final AiProperties properties;
+  private final AlphaBetaSearch search;
+  private final OpeningBook openingBook;
+
+  public ComputerPlayerService(GameService gameService, AiProperties properties, EndgameDatabase endgameDatabase,
+    OpeningBook openingBook) {
+    this.gameService = gameService;
+    this.properties = properties;
+    this.openingBook = openingBook;
+    this.search = new AlphaBetaSearch(properties.parallelism(), properties.transpositionTableBits(),
+      endgameDatabase);
+  }
+
+  @PreDestroy
+  public void close() {
+    search.close();
+  }
+
+  /**
+   * Make a move for the player whose turn it is
+   * @param gameId Kalah game id
+   * @return the move made together with the search statistics
+   */
+  public ComputerMove makeMove(Integer gameId) {
+    for (int attempt = 1; ; attempt++) {
+      Game game = gameService.snapshot(gameId);
+      SearchResult result = bestMove(game);
+      try {
+        // the search ran without the lock, the move is only made if the game is still in the searched position
+        Game updatedGame = gameService.makeMove(gameId, result.pit(), game.getVersion());
+        return new ComputerMove(updatedGame, result);
+      } catch (ForbiddenOperationException e) {
+        if (e.getReason() != MoveRejection.STALE_VERSION || attempt == MAX_ATTEMPTS) {
+          throw e;
+        }
+      }
+    }
+  }
+
+  /**
+   * Find the best move for the player whose turn it is without making it
+   * @param gameId Kalah game id
+   * @return the unchanged game together with the suggested move
+   */
+  public ComputerMove hint(Integer gameId) {
+    Game game = gameService.snapshot(gameId);
+    return new ComputerMove(game, bestMove(game));
+  }
+
+  /**
+   * Looks the position up in the opening book and only searches it when the book does not have it.
+   */
+  private SearchResult bestMove(Game game) {
+    if (game.isFinished()) {
+      throw new ForbiddenOperationException(MoveRejection.GAME_FINISHED, "The game is already finished!");
+    }
+    long start = System.nanoTime();
+    int[] pits = game.getPits();
+    boolean playerOneMove = game.isPlayerOneMove();
+    int entry = openingBook.probe(game.getVariant(), pits, playerOneMove);
+    if (entry != OpeningBook.MISS) {
+      int kalahDifference =
+        pits[game.getVariant().kalahOf(playerOneMove)] - pits[game.getVariant().kalahOf(!playerOneMove)];
+      return new SearchResult(OpeningBook.bestPit(entry), kalahDifference + OpeningBook.value(entry),
+        openingBook.getSearchDepth(), 0, System.nanoTime() - start);
+    }
+    return search.search(game.getVariant(), pits, playerOneMove, properties.timeBudget(), properties.maxDepth());
+  }
+}
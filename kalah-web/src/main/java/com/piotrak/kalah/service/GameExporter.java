@@ -0,0 +1,129 @@
+package com.piotrak.kalah.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.piotrak.kalah.engine.PackedBoard;
+import com.piotrak.kalah.model.Game;
+import com.piotrak.kalah.repository.GameRepository;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.concurrent.locks.Lock;
+import java.util.zip.GZIPOutputStream;
+import org.springframework.stereotype.Service;
+
+/**
+ * Writes the stored games as NDJSON, one JSON object per line, while they are being played.
+ * <p>
+ * The store is walked with the weakly consistent iteration of {@link GameRepository#forEach}: games created or
+ * removed during the export may or may not be written, every other game is written once. A game's lock is only
+ * held to copy a few fields, the board being immutable, and the line is written after it is released, so moves
+ * are not held up by a slow reader. Lines go through the generator's buffer straight to the output stream, the
+ * memory used does not depend on the number of games.
+ */
+@Service
+public class GameExporter {
+
+  private static final int GZIP_BUFFER_SIZE = 8192;
+
+  private final GameRepository gameRepository;
+  private final JsonFactory jsonFactory;
+
+  public GameExporter(GameRepository gameRepository, ObjectMapper objectMapper) {
+    this.gameRepository = gameRepository;
+    this.jsonFactory = objectMapper.getFactory();
+  }
+
+  /**
+   * Write the games matching a filter
+   * @param out the stream, left open
+   * @param filter games to write
+   * @param gzip true to compress the lines
+   * @return number of games written
+   * @throws IOException if the stream cannot be written, e.g. because the client went away
+   */
+  public long export(OutputStream out, Filter filter, boolean gzip) throws IOException {
+    GZIPOutputStream compressed = gzip ? new GZIPOutputStream(out, GZIP_BUFFER_SIZE) : null;
+    long[] written = new long[1];
+    try (JsonGenerator generator = jsonFactory.createGenerator(gzip ? compressed : out, JsonEncoding.UTF8)) {
+      generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+      generator.setRootValueSeparator(null);
+      try {
+        gameRepository.forEach(game -> {
+          ExportedGame exported = read(game);
+          if (filter.matches(exported)) {
+            try {
+              write(generator, exported);
+            } catch (IOException e) {
+              throw new UncheckedIOException(e);
+            }
+            written[0]++;
+          }
+        });
+      } catch (UncheckedIOException e) {
+        throw e.getCause();
+      }
+    }
+    if (gzip) {
+      compressed.finish();
+    }
+    return written[0];
+  }
+
+  private ExportedGame read(Game game) {
+    Lock lock = gameRepository.lockFor(game.getId());
+    lock.lock();
+    try {
+      return new ExportedGame(game.getId(), game.getPosition(), game.isPlayerOneMove(), game.getMessage(),
+        game.isFinished(), game.getVersion(), game.getHistory().size(), game.getUpdatedMillis());
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private static void write(JsonGenerator generator, ExportedGame game) throws IOException {
+    PackedBoard board = game.board();
+    generator.writeStartObject();
+    generator.writeNumberField("id", game.id());
+    generator.writeNumberField("pitsPerPlayer", board.getVariant().getPitsPerPlayer());
+    generator.writeNumberField("initialRocks", board.getVariant().getInitialRocks());
+    generator.writeArrayFieldStart("board");
+    for (int pit = 1; pit <= board.getVariant().getBoardSize(); pit++) {
+      generator.writeNumber(board.get(pit));
+    }
+    generator.writeEndArray();
+    generator.writeBooleanField("playerOneMove", game.playerOneMove());
+    generator.writeStringField("message", game.message());
+    generator.writeBooleanField("finished", game.finished());
+    generator.writeNumberField("version", game.version());
+    generator.writeNumberField("moves", game.moves());
+    generator.writeStringField("updated", Instant.ofEpochMilli(game.updatedMillis()).toString());
+    generator.writeEndObject();
+    generator.writeRaw('\n');
+  }
+
+  /**
+   * Games to export.
+   * @param finishedOnly true to only export finished games
+   * @param updatedSince only export games changed at or after this time, null for all
+   */
+  public record Filter(boolean finishedOnly, Instant updatedSince) {
+
+    public static final Filter ALL = new Filter(false, null);
+
+    boolean matches(ExportedGame game) {
+      return (!finishedOnly || game.finished())
+        && (updatedSince == null || game.updatedMillis() >= updatedSince.toEpochMilli());
+    }
+  }
+
+  /**
+   * Fields of a game read under its lock.
+   */
+  private record ExportedGame(int id, PackedBoard board, boolean playerOneMove, String message, boolean finished,
+                              int version, int moves, long updatedMillis) {
+  }
+}
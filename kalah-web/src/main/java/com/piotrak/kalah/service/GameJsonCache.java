@@ -0,0 +1,135 @@
+package com.piotrak.kalah.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.piotrak.kalah.model.Game;
+import com.piotrak.kalah.repository.GameRepository;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntFunction;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+/**
+ * JSON of the current version of every game, so that reading an unchanged game writes a cached byte array
+ * instead of serializing the game again.
+ * <p>
+ * A move only records the new version of its game, the game is serialized by the first read of that version.
+ * The strong ETag is the version prefixed by an epoch drawn when the server starts: ids and versions start again
+ * after a restart without a journal, a tag of a previous run must not match a game of this one.
+ */
+@Component
+public class GameJsonCache implements GameListener {
+
+  private final Map<Integer, CachedGame> games = new ConcurrentHashMap<>();
+  private final String epoch = Long.toHexString(ThreadLocalRandom.current().nextLong());
+  private final ObjectMapper objectMapper;
+  private final GameRepository gameRepository;
+
+  public GameJsonCache(ObjectMapper objectMapper, GameRepository gameRepository) {
+    this.objectMapper = objectMapper;
+    this.gameRepository = gameRepository;
+  }
+
+  /**
+   * Gets the JSON of the current version of a game.
+   * @param gameId Kalah game id
+   * @param snapshot takes a consistent copy of the game when its current version was not serialized yet
+   * @return the game's JSON
+   */
+  public CachedGame get(int gameId, IntFunction<Game> snapshot) {
+    CachedGame cached = games.get(gameId);
+    // the entry of a game removed while it was being serialized may outlive the removal
+    if (cached != null && cached.json() != null && gameRepository.find(gameId) != null) {
+      return cached;
+    }
+    CachedGame serialized = store(snapshot.apply(gameId));
+    if (gameRepository.find(gameId) == null) {
+      games.remove(gameId, serialized);
+    }
+    return serialized;
+  }
+
+  /**
+   * Serializes a game and keeps the result unless a newer version is known.
+   * @param game consistent copy of the game, or the game itself while its lock is held
+   * @return the game's JSON
+   */
+  public CachedGame store(Game game) {
+    CachedGame serialized = new CachedGame(game.getVersion(), serialize(game),
+      "\"" + epoch + "-" + game.getVersion() + "\"");
+    games.compute(game.getId(), (id, cached) ->
+      cached == null || cached.version() <= serialized.version() ? serialized : cached);
+    return serialized;
+  }
+
+  @Override
+  public void gameCreated(Game game) {
+    games.put(game.getId(), new CachedGame(game.getVersion(), null, null));
+  }
+
+  @Override
+  public void moveMade(Game game, int pitId) {
+    int version = game.getVersion();
+    games.compute(game.getId(), (id, cached) ->
+      cached != null && cached.version() == version ? cached : new CachedGame(version, null, null));
+  }
+
+  @Override
+  public void moveUndone(Game game) {
+    moveMade(game, 0);
+  }
+
+  @Override
+  public void gameRemoved(int gameId) {
+    games.remove(gameId);
+  }
+
+  private byte[] serialize(Game game) {
+    try {
+      return objectMapper.writeValueAsBytes(game);
+    } catch (JsonProcessingException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Serialized version of a game.
+   * @param version version of the game
+   * @param json the game as JSON, null until the version is read
+   * @param eTag the strong entity tag of this version, null until the version is read
+   */
+  public record CachedGame(int version, byte[] json, String eTag) {
+
+    /**
+     * @param ifNoneMatch entity tags of the If-None-Match header
+     * @return true if the client already has this version
+     */
+    public boolean matches(Iterable<String> ifNoneMatch) {
+      for (String tag : ifNoneMatch) {
+        if (tag.equals("*") || tag.equals(eTag) || tag.equals("W/" + eTag)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    public ResponseEntity<byte[]> toResponse() {
+      HttpHeaders headers = new HttpHeaders();
+      headers.setETag(eTag());
+      headers.setContentType(MediaType.APPLICATION_JSON);
+      return new ResponseEntity<>(json, headers, HttpStatus.OK);
+    }
+
+    public ResponseEntity<byte[]> toNotModifiedResponse() {
+      HttpHeaders headers = new HttpHeaders();
+      headers.setETag(eTag());
+      return new ResponseEntity<>(headers, HttpStatus.NOT_MODIFIED);
+    }
+  }
+}
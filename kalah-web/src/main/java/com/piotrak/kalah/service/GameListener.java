@@ -0,0 +1,46 @@
+package com.piotrak.kalah.service;
+
+import com.piotrak.kalah.model.Game;
+
+/**
+ * Gets notified about the changes of the games made by {@link GameService}.
+ * The move notifications are sent while the game's lock is held, in the order of the moves.
+ */
+public interface GameListener {
+
+  /**
+   * A game was created, called while the game's lock is held, before any move can be made.
+   * @param game the new game
+   */
+  default void gameCreated(Game game) {
+  }
+
+  /**
+   * A move was made.
+   * @param game the game after the move
+   * @param pitId pit moved from
+   */
+  default void moveMade(Game game, int pitId) {
+  }
+
+  /**
+   * The last move of a game was taken back.
+   * @param game the game after the undo
+   */
+  default void moveUndone(Game game) {
+  }
+
+  /**
+   * The calling thread released the lock of a game it changed, called before the changed game is returned. Work
+   * the answer has to wait for but other requests of the game do not, like forcing a journal, is done here.
+   */
+  default void lockReleased() {
+  }
+
+  /**
+   * A game expired or was evicted from the store.
+   * @param gameId game id
+   */
+  default void gameRemoved(int gameId) {
+  }
+}
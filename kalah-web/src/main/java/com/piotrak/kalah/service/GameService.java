@@ -0,0 +1,694 @@
+package com.piotrak.kalah.service;
+
+import static com.piotrak.kalah.model.Game.MESSAGE_DRAW;
+import static com.piotrak.kalah.model.Game.MESSAGE_MOVE_AGAIN;
+import static com.piotrak.kalah.model.Game.MESSAGE_PLAYER_ONE_MOVE;
+import static com.piotrak.kalah.model.Game.MESSAGE_PLAYER_ONE_WON;
+import static com.piotrak.kalah.model.Game.MESSAGE_PLAYER_TWO_MOVE;
+import static com.piotrak.kalah.model.Game.MESSAGE_PLAYER_TWO_WON;
+import static java.util.Objects.isNull;
+
+import com.piotrak.kalah.engine.KalahVariant;
+import com.piotrak.kalah.engine.MoveHistory;
+import com.piotrak.kalah.engine.PackedBoard;
+import com.piotrak.kalah.exception.ForbiddenOperationException;
+import com.piotrak.kalah.exception.InvalidRequestException;
+import com.piotrak.kalah.exception.MoveRejection;
+import com.piotrak.kalah.metrics.GameMetrics;
+import com.piotrak.kalah.model.BatchMode;
+import com.piotrak.kalah.model.BatchMoveResult;
+import com.piotrak.kalah.model.Board;
+import com.piotrak.kalah.model.Game;
+import com.piotrak.kalah.model.GameHistory;
+import com.piotrak.kalah.model.GameMode;
+import com.piotrak.kalah.model.GamePosition;
+import com.piotrak.kalah.model.LegalMoves;
+import com.piotrak.kalah.model.MoveOutcome;
+import com.piotrak.kalah.repository.GameRepository;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Function;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+@Service
+public class GameService {
+
+  private static final String MESSAGE_PLAYER_ONE_MOVE_AGAIN = MESSAGE_MOVE_AGAIN + MESSAGE_PLAYER_ONE_MOVE;
+  private static final String MESSAGE_PLAYER_TWO_MOVE_AGAIN = MESSAGE_MOVE_AGAIN + MESSAGE_PLAYER_TWO_MOVE;
+  private static final String MESSAGE_MOVE_SKIPPED = "Not applied, a previous move was rejected";
+  private static final int MAX_BATCH_SIZE = 256;
+  private static final int ANY_VERSION = -1;
+  /**
+   * Boards the moves of a thread are played on, indexed by the pits per player of the variant, so that a move unpacks into an array
+   * allocated once per thread and board size. The board is packed again before the game's lock is released.
+   */
+  private static final ThreadLocal<int[][]> MOVE_BOARDS =
+    ThreadLocal.withInitial(() -> new int[KalahVariant.MAX_PITS_PER_PLAYER + 1][]);
+  /**
+   * Rejections of moves which do not depend on the request, thrown again and again without a stack trace.
+   */
+  private static final Map<MoveRejection, ForbiddenOperationException> MOVE_REJECTIONS =
+    new EnumMap<>(MoveRejection.class);
+
+  static {
+    MOVE_REJECTIONS.put(MoveRejection.EMPTY_PIT,
+      ForbiddenOperationException.stackless(MoveRejection.EMPTY_PIT, "Unable to move rocks from an empty pit!"));
+    MOVE_REJECTIONS.put(MoveRejection.KALAH_PIT,
+      ForbiddenOperationException.stackless(MoveRejection.KALAH_PIT, "Unable to move rocks from Kalah!"));
+    MOVE_REJECTIONS.put(MoveRejection.OTHER_PLAYERS_TURN,
+      ForbiddenOperationException.stackless(MoveRejection.OTHER_PLAYERS_TURN, "It is the other players turn!"));
+    MOVE_REJECTIONS.put(MoveRejection.GAME_FINISHED,
+      ForbiddenOperationException.stackless(MoveRejection.GAME_FINISHED, "The game is already finished!"));
+  }
+
+  private final GameRepository gameRepository;
+  private final List<GameListener> listeners;
+  private final GameMetrics metrics;
+
+  public GameService(GameRepository gameRepository, List<GameListener> listeners) {
+    this(gameRepository, listeners, GameMetrics.noop());
+  }
+
+  @Autowired
+  public GameService(GameRepository gameRepository, List<GameListener> listeners, GameMetrics metrics) {
+    this.gameRepository = gameRepository;
+    this.listeners = List.copyOf(listeners);
+    this.metrics = metrics;
+    gameRepository.onRemoval(gameId -> this.listeners.forEach(listener -> listener.gameRemoved(gameId)));
+  }
+
+  /**
+   * Create a new Kalah(6, 6) game
+   * @param baseUrl Server's Url
+   * @return Kalah game
+   */
+  public Game createGame(String baseUrl) {
+    return createGame(baseUrl, KalahVariant.STANDARD, GameMode.TWO_PLAYER);
+  }
+
+  /**
+   * Create a new Kalah game of a variant
+   * @param baseUrl Server's Url
+   * @param pitsPerPlayer number of pits of each player
+   * @param initialRocks number of rocks in every pit at the start
+   * @return Kalah game
+   */
+  public Game createGame(String baseUrl, int pitsPerPlayer, int initialRocks) {
+    return createGame(baseUrl, pitsPerPlayer, initialRocks, GameMode.TWO_PLAYER);
+  }
+
+  /**
+   * Create a new Kalah game of a variant in a mode
+   * @param baseUrl Server's Url
+   * @param pitsPerPlayer number of pits of each player
+   * @param initialRocks number of rocks in every pit at the start
+   * @param mode how the game is played
+   * @return Kalah game
+   */
+  public Game createGame(String baseUrl, int pitsPerPlayer, int initialRocks, GameMode mode) {
+    return createGame(baseUrl, variantOf(pitsPerPlayer, initialRocks), mode);
+  }
+
+  /**
+   * Get a supported Kalah variant
+   * @param pitsPerPlayer number of pits of each player
+   * @param initialRocks number of rocks in every pit at the start
+   * @return the variant
+   * @throws InvalidRequestException if the variant is not supported
+   */
+  public static KalahVariant variantOf(int pitsPerPlayer, int initialRocks) {
+    if (!KalahVariant.isSupported(pitsPerPlayer, initialRocks)) {
+      throw new InvalidRequestException(MoveRejection.INVALID_VARIANT, String.format(
+        "Kalah(%s, %s) is not supported, use 1 to %s pits per player and 1 to %s rocks per pit", pitsPerPlayer,
+        initialRocks, KalahVariant.MAX_PITS_PER_PLAYER, KalahVariant.MAX_INITIAL_ROCKS));
+    }
+    return KalahVariant.of(pitsPerPlayer, initialRocks);
+  }
+
+  private Game createGame(String baseUrl, KalahVariant variant, GameMode mode) {
+    long start = System.nanoTime();
+    Integer gameId = gameRepository.nextId();
+    Game game = newGame(gameId, baseUrl + "/" + gameId, variant, mode);
+    Game created;
+    Lock lock = gameRepository.lockFor(gameId);
+    lock.lock();
+    try {
+      gameRepository.save(game);
+      for (GameListener listener : listeners) {
+        listener.gameCreated(game);
+      }
+      created = game.copy();
+    } finally {
+      lock.unlock();
+    }
+    notifyLockReleased();
+    metrics.recordCreate(System.nanoTime() - start);
+    return created;
+  }
+
+  /**
+   * Make a move in the Kalah game
+   * @param gameId Kalah game id
+   * @param pitId pit from which to move
+   * @return copy of the Kalah game after the move
+   */
+  public Game makeMove(Integer gameId, Integer pitId) {
+    return makeMove(gameId, pitId, ANY_VERSION);
+  }
+
+  /**
+   * Make a move in the Kalah game unless it was changed since the version the move was chosen in
+   * @param gameId Kalah game id
+   * @param pitId pit from which to move
+   * @param expectedVersion version of the game the move was chosen in
+   * @return copy of the Kalah game after the move
+   * @throws ForbiddenOperationException with {@link MoveRejection#STALE_VERSION} if the game is at another version
+   */
+  public Game makeMove(Integer gameId, Integer pitId, int expectedVersion) {
+    long start = System.nanoTime();
+    boolean applied = false;
+    try {
+      Game game = findGame(gameId);
+      Game moved;
+      Lock lock = gameRepository.lockFor(gameId);
+      lock.lock();
+      try {
+        checkNotRemoved(gameId, game);
+        if (expectedVersion != ANY_VERSION && game.getVersion() != expectedVersion) {
+          throw ForbiddenOperationException.stackless(MoveRejection.STALE_VERSION, String.format(
+            "The game was changed since version %s, it is at version %s", expectedVersion, game.getVersion()));
+        }
+        applyMove(game, pitId);
+        notifyMoveMade(game, pitId);
+        moved = game.copy();
+      } finally {
+        lock.unlock();
+      }
+      notifyLockReleased();
+      if (moved.isFinished()) {
+        gameRepository.finished(game);
+      }
+      applied = true;
+      return moved;
+    } finally {
+      metrics.recordMove(System.nanoTime() - start, applied);
+    }
+  }
+
+  /**
+   * Make a sequence of moves in the Kalah game while holding the game's lock once
+   * @param gameId Kalah game id
+   * @param pitIds pits from which to move, in order
+   * @param mode what to do when one of the moves is rejected
+   * @return copy of the Kalah game after the moves and the outcome of every move
+   */
+  public BatchMoveResult makeMoves(Integer gameId, List<Integer> pitIds, BatchMode mode) {
+    if (isNull(pitIds) || pitIds.isEmpty() || pitIds.size() > MAX_BATCH_SIZE) {
+      throw new InvalidRequestException(MoveRejection.INVALID_BATCH,
+        String.format("A batch has to contain between 1 and %s moves", MAX_BATCH_SIZE));
+    }
+    Game game = findGame(gameId);
+    Game moved;
+    List<MoveOutcome> outcomes = new ArrayList<>(pitIds.size());
+    Lock lock = gameRepository.lockFor(gameId);
+    lock.lock();
+    try {
+      checkNotRemoved(gameId, game);
+      if (mode == BatchMode.ALL_OR_NOTHING) {
+        long start = System.nanoTime();
+        try {
+          tryMoves(game, pitIds);
+        } catch (ForbiddenOperationException e) {
+          metrics.recordMove(System.nanoTime() - start, false);
+          throw e;
+        }
+      }
+      for (int i = 0; i < pitIds.size(); i++) {
+        long start = System.nanoTime();
+        Integer pitId = pitIds.get(i);
+        MoveRejection rejection = checkMove(game, pitId);
+        if (rejection != null) {
+          metrics.recordMove(System.nanoTime() - start, false);
+          metrics.recordRejection(rejection);
+          outcomes.add(new MoveOutcome(pitId, false, rejectionOf(rejection, pitId).getMessage()));
+          pitIds.subList(i + 1, pitIds.size())
+            .forEach(skipped -> outcomes.add(new MoveOutcome(skipped, false, MESSAGE_MOVE_SKIPPED)));
+          break;
+        }
+        applyMove(game, pitId);
+        notifyMoveMade(game, pitId);
+        outcomes.add(new MoveOutcome(pitId, true, game.getMessage()));
+        metrics.recordMove(System.nanoTime() - start, true);
+      }
+      moved = game.copy();
+    } finally {
+      lock.unlock();
+    }
+    notifyLockReleased();
+    if (moved.isFinished()) {
+      gameRepository.finished(game);
+    }
+    return new BatchMoveResult(moved, outcomes);
+  }
+
+  /**
+   * Checks that all the moves can be made by playing them on a scratch board, the game, its history and the
+   * interned positions are left untouched.
+   */
+  private static void tryMoves(Game game, List<Integer> pitIds) {
+    KalahVariant variant = game.getVariant();
+    int[] pits = game.getPosition().unpack();
+    boolean playerOneMove = game.isPlayerOneMove();
+    boolean finished = game.isFinished();
+    for (int i = 0; i < pitIds.size(); i++) {
+      Integer pitId = pitIds.get(i);
+      MoveRejection rejection = checkMove(variant, pits, playerOneMove, finished, pitId);
+      if (rejection != null) {
+        throw ForbiddenOperationException.stackless(rejection, String.format(
+          "Move %s from pit %s was rejected, no move was made: %s", i + 1, pitId,
+          rejectionOf(rejection, pitId).getMessage()));
+      }
+      int lastPit = variant.move(pits, pitId, playerOneMove);
+      finished = variant.finishIfOver(pits);
+      playerOneMove = variant.nextPlayerOne(lastPit, playerOneMove);
+    }
+  }
+
+  /**
+   * Take back the last move of a Kalah game played in a mode allowing it
+   * @param gameId Kalah game id
+   * @return copy of the Kalah game after the move was taken back
+   */
+  public Game undoMove(Integer gameId) {
+    Game game = findGame(gameId);
+    Game undone;
+    boolean wasFinished;
+    Lock lock = gameRepository.lockFor(gameId);
+    lock.lock();
+    try {
+      checkNotRemoved(gameId, game);
+      if (!game.getMode().isUndoAllowed()) {
+        throw new ForbiddenOperationException(MoveRejection.UNDO_NOT_ALLOWED,
+          String.format("Moves cannot be taken back in a %s game", game.getMode()));
+      }
+      if (game.getHistory().size() == 0) {
+        throw new ForbiddenOperationException(MoveRejection.NOTHING_TO_UNDO, "No move was made yet!");
+      }
+      wasFinished = game.isFinished();
+      applyUndo(game);
+      for (GameListener listener : listeners) {
+        listener.moveUndone(game);
+      }
+      undone = game.copy();
+    } finally {
+      lock.unlock();
+    }
+    notifyLockReleased();
+    if (wasFinished) {
+      gameRepository.resumed(game);
+    }
+    return undone;
+  }
+
+  /**
+   * Get the moves played in a Kalah game
+   * @param gameId Kalah game id
+   * @return the moves in playing order
+   */
+  public GameHistory history(Integer gameId) {
+    Game game = snapshot(gameId);
+    MoveHistory history = game.getHistory();
+    List<GameHistory.Move> moves = new ArrayList<>(history.size());
+    for (int ply = 0; ply < history.size(); ply++) {
+      moves.add(new GameHistory.Move(ply, history.pitAt(ply), history.isPlayerOneMove(ply)));
+    }
+    return new GameHistory(game.getId(), game.getVersion(), moves);
+  }
+
+  /**
+   * Replay a Kalah game up to a ply, from the closest checkpoint of its history
+   * @param gameId Kalah game id
+   * @param ply number of moves played before the position
+   * @return the board after that many moves
+   */
+  public GamePosition positionAt(Integer gameId, int ply) {
+    Game game = snapshot(gameId);
+    MoveHistory history = game.getHistory();
+    if (ply < 0 || ply > history.size()) {
+      throw new InvalidRequestException(MoveRejection.UNKNOWN_PLY,
+        String.format("Ply %s is not between 0 and %s", ply, history.size()));
+    }
+    if (ply == history.size()) {
+      return new GamePosition(game.getId(), ply, game.getStatus(), game.isPlayerOneMove(), game.isFinished());
+    }
+    Board board = Board.of(history.positionAt(game.getVariant(), ply));
+    return new GamePosition(game.getId(), ply, board.status(), history.isPlayerOneMove(ply), false);
+  }
+
+  /**
+   * Restore a new Kalah game from persistent storage unless it was already restored, no listener is notified
+   * @param gameId Kalah game id
+   * @param url Kalah game url
+   * @param variant rules of the game
+   * @param mode how the game is played
+   */
+  public void restoreGame(Integer gameId, String url, KalahVariant variant, GameMode mode) {
+    if (isNull(gameRepository.find(gameId))) {
+      restoreGame(newGame(gameId, url, variant, mode));
+    }
+  }
+
+  /**
+   * Restore a Kalah game from persistent storage, no listener is notified
+   * @param game Kalah game
+   */
+  public void restoreGame(Game game) {
+    game.setUpdatedMillis(System.currentTimeMillis());
+    gameRepository.restoreId(game.getId());
+    gameRepository.save(game);
+    if (game.isFinished()) {
+      gameRepository.finished(game);
+    }
+  }
+
+  /**
+   * Restore a move from persistent storage, no listener is notified
+   * @param gameId Kalah game id
+   * @param pitId pit from which to move
+   * @param version version of the game after the move, the move is skipped if the game is not one move behind
+   */
+  public void restoreMove(Integer gameId, Integer pitId, int version) {
+    Game game = gameRepository.find(gameId);
+    if (isNull(game)) {
+      return;
+    }
+    Lock lock = gameRepository.lockFor(gameId);
+    lock.lock();
+    try {
+      if (game.getVersion() + 1 == version) {
+        applyMove(game, pitId);
+      }
+    } finally {
+      lock.unlock();
+    }
+    if (game.isFinished()) {
+      gameRepository.finished(game);
+    }
+  }
+
+  /**
+   * Restore the undoing of a move from persistent storage, no listener is notified
+   * @param gameId Kalah game id
+   * @param version version of the game after the undo, it is skipped if the game is not one change behind
+   */
+  public void restoreUndo(Integer gameId, int version) {
+    Game game = gameRepository.find(gameId);
+    if (isNull(game)) {
+      return;
+    }
+    boolean wasFinished = false;
+    Lock lock = gameRepository.lockFor(gameId);
+    lock.lock();
+    try {
+      if (game.getVersion() + 1 == version && game.getHistory().size() > 0) {
+        wasFinished = game.isFinished();
+        applyUndo(game);
+      }
+    } finally {
+      lock.unlock();
+    }
+    if (wasFinished) {
+      gameRepository.resumed(game);
+    }
+  }
+
+  /**
+   * Restore the removal of a Kalah game from persistent storage, no listener is notified
+   * @param gameId Kalah game id
+   */
+  public void restoreRemoval(Integer gameId) {
+    gameRepository.delete(gameId);
+  }
+
+  /**
+   * Get a consistent copy of a Kalah game
+   * @param gameId Kalah game id
+   * @return copy of the Kalah game
+   */
+  public Game snapshot(Integer gameId) {
+    Game game = findGame(gameId);
+    Lock lock = gameRepository.lockFor(gameId);
+    lock.lock();
+    try {
+      return game.copy();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Hand a consistent copy of a Kalah game over to an action run while the game's lock is held, so that no move is
+   * made between taking the copy and the end of the action
+   * @param gameId Kalah game id
+   * @param action action to run on the copy, must not block
+   * @return result of the action
+   */
+  public <T> T snapshot(Integer gameId, Function<Game, T> action) {
+    Game game = findGame(gameId);
+    Lock lock = gameRepository.lockFor(gameId);
+    lock.lock();
+    try {
+      return action.apply(game.copy());
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Get the pits the player to move may move from
+   * @param gameId Kalah game id
+   * @return legal moves in the current state of the game
+   */
+  public LegalMoves legalMoves(Integer gameId) {
+    Game game = findGame(gameId);
+    Lock lock = gameRepository.lockFor(gameId);
+    lock.lock();
+    try {
+      return LegalMoves.of(game);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Get a consistent copy of every Kalah game, each game is locked only while it is copied
+   * @return copies of the Kalah games
+   */
+  public List<Game> snapshotGames() {
+    List<Game> copies = new ArrayList<>(gameRepository.size());
+    gameRepository.forEach(game -> {
+      Lock lock = gameRepository.lockFor(game.getId());
+      lock.lock();
+      try {
+        copies.add(game.copy());
+      } finally {
+        lock.unlock();
+      }
+    });
+    return copies;
+  }
+
+  private Game newGame(Integer gameId, String url, KalahVariant variant, GameMode mode) {
+    return Game.builder()
+      .id(gameId)
+      .url(url)
+      .variant(variant)
+      .mode(mode)
+      .position(variant.getInitialPosition())
+      .message(Game.MESSAGE_GAME_CREATED)
+      .playerOneMove(true)
+      .updatedMillis(System.currentTimeMillis())
+      .build();
+  }
+
+  private void notifyMoveMade(Game game, int pitId) {
+    for (GameListener listener : listeners) {
+      listener.moveMade(game, pitId);
+    }
+  }
+
+  private void notifyLockReleased() {
+    for (GameListener listener : listeners) {
+      listener.lockReleased();
+    }
+  }
+
+  private Game findGame(Integer gameId) {
+    Game game = gameRepository.find(gameId);
+    if (isNull(game)) {
+      throw InvalidRequestException.stackless(MoveRejection.UNKNOWN_GAME,
+        String.format("Unable to find a game with id: %s", gameId));
+    }
+    return game;
+  }
+
+  /**
+   * Checks, with the game's lock held, that the game found before taking the lock was not removed in between, a
+   * change of a removed game would be journaled after its removal.
+   */
+  private void checkNotRemoved(Integer gameId, Game game) {
+    if (gameRepository.find(gameId) != game) {
+      throw InvalidRequestException.stackless(MoveRejection.UNKNOWN_GAME,
+        String.format("Unable to find a game with id: %s", gameId));
+    }
+  }
+
+  private void applyMove(Game game, Integer pitId) {
+    KalahVariant variant = game.getVariant();
+    PackedBoard before = game.getPosition();
+    MoveRejection rejection = checkMove(game, pitId);
+    if (rejection != null) {
+      throw rejectionOf(rejection, pitId);
+    }
+    int[] pits = moveBoard(variant);
+    before.unpackTo(pits);
+
+    int lastPit = variant.move(pits, pitId, game.isPlayerOneMove());
+    boolean finished = variant.finishIfOver(pits);
+    game.setHistory(game.getHistory().append(before, pitId, game.isPlayerOneMove()));
+    game.setPits(pits);
+    if (finished) {
+      calculateFinishedGameOutcome(game);
+    } else {
+      calculateNextMove(game, lastPit);
+    }
+    game.incrementVersion();
+    game.setUpdatedMillis(System.currentTimeMillis());
+  }
+
+  private static int[] moveBoard(KalahVariant variant) {
+    int[][] boards = MOVE_BOARDS.get();
+    int[] board = boards[variant.getPitsPerPlayer()];
+    if (board == null) {
+      board = new int[variant.getBoardSize() + 1];
+      boards[variant.getPitsPerPlayer()] = board;
+    }
+    return board;
+  }
+
+  /**
+   * Rebuilds the board before the last move, the version still grows so that clients see the change.
+   */
+  /**
+   * @return the message the game had before the move at a ply was made
+   */
+  private static String messageAt(MoveHistory history, int ply) {
+    if (ply == 0) {
+      return Game.MESSAGE_GAME_CREATED;
+    }
+    boolean playerOneMove = history.isPlayerOneMove(ply);
+    if (history.isPlayerOneMove(ply - 1) == playerOneMove) {
+      return playerOneMove ? MESSAGE_PLAYER_ONE_MOVE_AGAIN : MESSAGE_PLAYER_TWO_MOVE_AGAIN;
+    }
+    return playerOneMove ? MESSAGE_PLAYER_ONE_MOVE : MESSAGE_PLAYER_TWO_MOVE;
+  }
+
+  private void applyUndo(Game game) {
+    MoveHistory history = game.getHistory();
+    int ply = history.size() - 1;
+    int[] pits = history.positionAt(game.getVariant(), ply);
+    boolean playerOneMove = history.isPlayerOneMove(ply);
+    game.setHistory(history.undo());
+    game.setPits(pits);
+    game.setPlayerOneMove(playerOneMove);
+    game.setFinished(false);
+    game.setMessage(messageAt(history, ply));
+    game.incrementVersion();
+    game.setUpdatedMillis(System.currentTimeMillis());
+  }
+
+  private void calculateNextMove(Game game, int lastPit) {
+    boolean playerOneMove = game.isPlayerOneMove();
+    boolean nextPlayerOne = game.getVariant().nextPlayerOne(lastPit, playerOneMove);
+    game.setPlayerOneMove(nextPlayerOne);
+    if (nextPlayerOne == playerOneMove) {
+      game.setMessage(nextPlayerOne ? MESSAGE_PLAYER_ONE_MOVE_AGAIN : MESSAGE_PLAYER_TWO_MOVE_AGAIN);
+    } else {
+      game.setMessage(nextPlayerOne ? MESSAGE_PLAYER_ONE_MOVE : MESSAGE_PLAYER_TWO_MOVE);
+    }
+  }
+
+  private void calculateFinishedGameOutcome(Game game) {
+    PackedBoard position = game.getPosition();
+    int playerOneScore = position.get(game.getVariant().kalahOf(true));
+    int playerTwoScore = position.get(game.getVariant().kalahOf(false));
+    if (playerOneScore > playerTwoScore) {
+      game.setMessage(String.format(MESSAGE_PLAYER_ONE_WON, playerOneScore, playerTwoScore));
+    } else if (playerOneScore < playerTwoScore) {
+      game.setMessage(String.format(MESSAGE_PLAYER_TWO_WON, playerTwoScore, playerOneScore));
+    } else {
+      game.setMessage(MESSAGE_DRAW);
+    }
+    game.setPlayerOneMove(true); // Game over, but set to player one for consistency
+    game.setFinished(true);
+  }
+
+  /**
+   * Checks a move against the legal moves of the game, legal moves cost a lookup in the bit set.
+   * @param game Kalah game
+   * @param pitId the pit to move from
+   * @return null if the move is legal, otherwise why it is not
+   */
+  private static MoveRejection checkMove(Game game, Integer pitId) {
+    KalahVariant variant = game.getVariant();
+    if (isNull(pitId) || !variant.isValidPit(pitId)) {
+      return MoveRejection.UNKNOWN_PIT;
+    }
+    if ((game.getLegalMoveMask() & 1 << pitId) != 0) {
+      return null;
+    }
+    if (game.getPosition().get(pitId) == 0) {
+      return MoveRejection.EMPTY_PIT;
+    }
+    if (variant.isKalah(pitId)) {
+      return MoveRejection.KALAH_PIT;
+    }
+    if (variant.isPlayerOnePit(pitId) != game.isPlayerOneMove()) {
+      return MoveRejection.OTHER_PLAYERS_TURN;
+    }
+    return MoveRejection.GAME_FINISHED;
+  }
+
+  /**
+   * Checks a move on a scratch board, with the same outcome as {@link #checkMove(Game, Integer)} on a game in that
+   * state.
+   */
+  private static MoveRejection checkMove(KalahVariant variant, int[] pits, boolean playerOneMove, boolean finished,
+    Integer pitId) {
+    if (isNull(pitId) || !variant.isValidPit(pitId)) {
+      return MoveRejection.UNKNOWN_PIT;
+    }
+    if (pits[pitId] == 0) {
+      return MoveRejection.EMPTY_PIT;
+    }
+    if (variant.isKalah(pitId)) {
+      return MoveRejection.KALAH_PIT;
+    }
+    if (variant.isPlayerOnePit(pitId) != playerOneMove) {
+      return MoveRejection.OTHER_PLAYERS_TURN;
+    }
+    return finished ? MoveRejection.GAME_FINISHED : null;
+  }
+
+  private static RuntimeException rejectionOf(MoveRejection rejection, Integer pitId) {
+    if (rejection == MoveRejection.UNKNOWN_PIT) {
+      return InvalidRequestException.stackless(MoveRejection.UNKNOWN_PIT,
+        String.format("Unable to find a pit with id: %s", pitId));
+    }
+    return MOVE_REJECTIONS.get(rejection);
+  }
+}
@@ -0,0 +1,13 @@
+package com.piotrak.kalah.service;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings of the requests waiting for a game to change.
+ * @param timeout time after which a waiting request is answered with the unchanged game
+ */
+@ConfigurationProperties(prefix = "kalah.watch")
+public record GameWatchProperties(@DefaultValue("30s") Duration timeout) {
+}
@@ -0,0 +1,86 @@
+package com.piotrak.kalah.service;
+
+import com.piotrak.kalah.exception.InvalidRequestException;
+import com.piotrak.kalah.exception.MoveRejection;
+import com.piotrak.kalah.model.Game;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.DeferredResult;
+
+/**
+ * Parks requests waiting for a game to change and completes them when a move is made in that game.
+ * <p>
+ * A parked request holds no thread. It is completed by the thread making the move, which only serializes the
+ * game once for all its waiters, through the {@link GameJsonCache}, and hands the JSON over to the servlet container.
+ */
+@Component
+public class GameWatcher implements GameListener {
+
+  /**
+   * Waiters by game id, a set is only modified inside the map's atomic operations on its key.
+   */
+  private final Map<Integer, Set<DeferredResult<ResponseEntity<byte[]>>>> waiters = new ConcurrentHashMap<>();
+  private final GameJsonCache gameJsonCache;
+
+  public GameWatcher(GameJsonCache gameJsonCache) {
+    this.gameJsonCache = gameJsonCache;
+  }
+
+  /**
+   * Registers a request to be completed with the game after its next move. The caller has to check the version
+   * of the game after registering, a move made before the registration does not complete the request.
+   * @param gameId Kalah game id
+   * @param result the parked request
+   */
+  public void watch(int gameId, DeferredResult<ResponseEntity<byte[]>> result) {
+    waiters.compute(gameId, (id, results) -> {
+      Set<DeferredResult<ResponseEntity<byte[]>>> set = results == null ? new HashSet<>() : results;
+      set.add(result);
+      return set;
+    });
+    result.onCompletion(() -> waiters.computeIfPresent(gameId, (id, results) -> {
+      results.remove(result);
+      return results.isEmpty() ? null : results;
+    }));
+  }
+
+  /**
+   * @return number of parked requests
+   */
+  public int getWaiterCount() {
+    return waiters.values().stream().mapToInt(Set::size).sum();
+  }
+
+  @Override
+  public void moveMade(Game game, int pitId) {
+    Set<DeferredResult<ResponseEntity<byte[]>>> results = waiters.remove(game.getId());
+    if (results == null) {
+      return;
+    }
+    ResponseEntity<byte[]> response = gameJsonCache.store(game).toResponse();
+    for (DeferredResult<ResponseEntity<byte[]>> result : results) {
+      result.setResult(response);
+    }
+  }
+
+  @Override
+  public void moveUndone(Game game) {
+    moveMade(game, 0);
+  }
+
+  @Override
+  public void gameRemoved(int gameId) {
+    Set<DeferredResult<ResponseEntity<byte[]>>> results = waiters.remove(gameId);
+    if (results == null) {
+      return;
+    }
+    for (DeferredResult<ResponseEntity<byte[]>> result : results) {
+      result.setErrorResult(new InvalidRequestException(MoveRejection.UNKNOWN_GAME,
+        String.format("Unable to find a game with id: %s", gameId)));
+    }
+  }
+}
@@ -0,0 +1,20 @@
+package com.piotrak.kalah.stream;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings of the game update streams.
+ * @param bufferSize number of recent updates kept per game, a subscriber further behind gets the latest state only
+ * @param threads number of threads sending the updates
+ * @param timeout time after which a stream is closed, clients reconnect
+ * @param sendTimeout time a client has to take an update, a client which does not read it in time is dropped
+ */
+@ConfigurationProperties(prefix = "kalah.stream")
+public record GameStreamProperties(
+  @DefaultValue("64") int bufferSize,
+  @DefaultValue("4") int threads,
+  @DefaultValue("30m") Duration timeout,
+  @DefaultValue("5s") Duration sendTimeout) {
+}
@@ -0,0 +1,337 @@
+package com.piotrak.kalah.stream;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.piotrak.kalah.model.Game;
+import com.piotrak.kalah.model.GameUpdate;
+import com.piotrak.kalah.service.GameListener;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Pushes the changes of games to their subscribers as server-sent events.
+ * <p>
+ * A subscriber first gets the full state of the game ({@value #EVENT_STATE} event), then one
+ * {@value #EVENT_DELTA} event per move with the pits which changed and the message.
+ * <p>
+ * The move path only compares the pits with the previously published ones and stores the update in a bounded
+ * ring buffer of the game, everything else runs on the sender threads. Every update is serialized at most once
+ * as a delta and once as a full state, whatever the number of subscribers. A subscriber that falls behind by more
+ * than the ring buffer holds skips to the latest full state.
+ * <p>
+ * The sender threads hand every write to a writer thread and wait for it at most kalah.stream.send-timeout. A client
+ * that stops reading is dropped instead of holding a sender thread, which would delay the streams of all the games.
+ */
+@Slf4j
+@Component
+public class GameUpdatePublisher implements GameListener {
+
+  static final String EVENT_STATE = "state";
+  static final String EVENT_DELTA = "delta";
+
+  private final Map<Integer, Channel> channels = new ConcurrentHashMap<>();
+  private final ObjectMapper objectMapper;
+  private final int bufferMask;
+  private final long timeoutMillis;
+  private final long sendTimeoutMillis;
+  private final ExecutorService senders;
+  /**
+   * Threads blocked in the writes of a stalled client stay here until the container gives up on the connection.
+   */
+  private final ExecutorService writers;
+
+  public GameUpdatePublisher(ObjectMapper objectMapper, GameStreamProperties properties) {
+    this.objectMapper = objectMapper;
+    this.bufferMask = Integer.highestOneBit(Math.max(1, properties.bufferSize() - 1)) * 2 - 1;
+    this.timeoutMillis = properties.timeout().toMillis();
+    this.sendTimeoutMillis = properties.sendTimeout().toMillis();
+    this.senders = Executors.newFixedThreadPool(Math.max(1, properties.threads()), daemonThreads("game-stream-"));
+    this.writers = Executors.newCachedThreadPool(daemonThreads("game-stream-write-"));
+  }
+
+  private static ThreadFactory daemonThreads(String namePrefix) {
+    AtomicInteger threadNumber = new AtomicInteger();
+    return runnable -> {
+      Thread thread = new Thread(runnable, namePrefix + threadNumber.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+
+  @PreDestroy
+  public void stop() {
+    senders.shutdownNow();
+    channels.values().forEach(channel -> channel.subscribers.forEach(Subscriber::close));
+    channels.clear();
+    writers.shutdown();
+  }
+
+  /**
+   * Opens a stream of the updates of a game, called while the game's lock is held so that the subscriber is
+   * registered before the next move is published. Only registers the subscriber, the events are sent by the sender
+   * threads.
+   * @param game consistent copy of the game, sent as the first event unless the game already has subscribers
+   * @return the stream
+   */
+  public SseEmitter subscribe(Game game) {
+    SseEmitter emitter = newEmitter(timeoutMillis);
+    Update initial = new Update(game.getId(), -1, game.getVersion(), game.getPits(), 0,
+      game.getMessage(), game.isFinished());
+    Subscriber subscriber = new Subscriber(game.getId(), emitter, -1);
+    if (game.isFinished()) {
+      // nothing will be published any more, the subscriber gets the final state and is closed
+      subscriber.schedule(new Channel(initial));
+      return emitter;
+    }
+    Channel channel = channels.compute(game.getId(), (id, existing) -> {
+      Channel result = existing == null ? new Channel(initial) : existing;
+      result.subscribers.add(subscriber);
+      return result;
+    });
+    emitter.onCompletion(() -> unsubscribe(game.getId(), subscriber));
+    // the latest update of the channel is the current state of the game, sent in full as the first event
+    subscriber.schedule(channel);
+    return emitter;
+  }
+
+  /**
+   * @return number of open streams
+   */
+  public int getSubscriberCount() {
+    return channels.values().stream().mapToInt(channel -> channel.subscribers.size()).sum();
+  }
+
+  @Override
+  public void moveMade(Game game, int pitId) {
+    Channel channel = channels.get(game.getId());
+    if (channel != null) {
+      channel.publish(game);
+    }
+  }
+
+  @Override
+  public void moveUndone(Game game) {
+    moveMade(game, 0);
+  }
+
+  @Override
+  public void gameRemoved(int gameId) {
+    Channel channel = channels.remove(gameId);
+    if (channel != null) {
+      channel.subscribers.forEach(Subscriber::close);
+    }
+  }
+
+  private void unsubscribe(int gameId, Subscriber subscriber) {
+    subscriber.closed = true;
+    channels.computeIfPresent(gameId, (id, channel) -> {
+      channel.subscribers.remove(subscriber);
+      return channel.subscribers.isEmpty() ? null : channel;
+    });
+  }
+
+  SseEmitter newEmitter(long timeoutMillis) {
+    return new SseEmitter(timeoutMillis);
+  }
+
+  /**
+   * Serializes an update once, the result is shared by all the subscribers.
+   */
+  private String json(Update update, boolean delta) {
+    String json = delta ? update.deltaJson : update.stateJson;
+    if (json != null) {
+      return json;
+    }
+    Map<Integer, Integer> pits = new LinkedHashMap<>();
+    for (int pit = 1; pit < update.pits.length; pit++) {
+      if (!delta || (update.changedPits & (1 << pit)) != 0) {
+        pits.put(pit, update.pits[pit]);
+      }
+    }
+    try {
+      json = objectMapper.writeValueAsString(
+        new GameUpdate(update.gameId, update.version, pits, update.message, update.finished));
+    } catch (JsonProcessingException e) {
+      throw new UncheckedIOException(e);
+    }
+    if (delta) {
+      update.deltaJson = json;
+    } else {
+      update.stateJson = json;
+    }
+    return json;
+  }
+
+  /**
+   * A move of a game, immutable apart from its lazily serialized forms.
+   */
+  private static final class Update {
+
+    private final int gameId;
+    private final int baseVersion;
+    private final int version;
+    private final int[] pits;
+    private final int changedPits;
+    private final String message;
+    private final boolean finished;
+    private volatile String deltaJson;
+    private volatile String stateJson;
+
+    private Update(int gameId, int baseVersion, int version, int[] pits, int changedPits, String message,
+      boolean finished) {
+      this.gameId = gameId;
+      this.baseVersion = baseVersion;
+      this.version = version;
+      this.pits = pits;
+      this.changedPits = changedPits;
+      this.message = message;
+      this.finished = finished;
+    }
+  }
+
+  /**
+   * The subscribers of one game and its recent updates.
+   */
+  private final class Channel {
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicReferenceArray<Update> recent = new AtomicReferenceArray<>(bufferMask + 1);
+    private final AtomicBoolean fanOutScheduled = new AtomicBoolean();
+    private volatile Update latest;
+
+    private Channel(Update initial) {
+      this.latest = initial;
+    }
+
+    /**
+     * Records a move, called while the game's lock is held.
+     */
+    private void publish(Game game) {
+      Update previous = latest;
+      int[] pits = game.getPits();
+      int changedPits = 0;
+      for (int pit = 1; pit < pits.length; pit++) {
+        if (pits[pit] != previous.pits[pit]) {
+          changedPits |= 1 << pit;
+        }
+      }
+      Update update = new Update(game.getId(), previous.version, game.getVersion(), pits, changedPits,
+        game.getMessage(), game.isFinished());
+      recent.set(update.version & bufferMask, update);
+      latest = update;
+      if (fanOutScheduled.compareAndSet(false, true)) {
+        senders.execute(this::fanOut);
+      }
+    }
+
+    private void fanOut() {
+      fanOutScheduled.set(false);
+      for (Subscriber subscriber : subscribers) {
+        subscriber.schedule(this);
+      }
+    }
+  }
+
+  private final class Subscriber {
+
+    private final int gameId;
+    private final SseEmitter emitter;
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+    /**
+     * Version of the last update sent, only accessed by the thread draining.
+     */
+    private int version;
+    private volatile boolean closed;
+
+    private Subscriber(int gameId, SseEmitter emitter, int version) {
+      this.gameId = gameId;
+      this.emitter = emitter;
+      this.version = version;
+    }
+
+    private void schedule(Channel channel) {
+      if (!closed && drainScheduled.compareAndSet(false, true)) {
+        senders.execute(() -> drain(channel));
+      }
+    }
+
+    private void drain(Channel channel) {
+      try {
+        while (!closed) {
+          Update latest = channel.latest;
+          if (latest.version <= version) {
+            drainScheduled.set(false);
+            if (channel.latest.version <= version || !drainScheduled.compareAndSet(false, true)) {
+              return;
+            }
+            continue;
+          }
+          Update next = channel.recent.get((version + 1) & bufferMask);
+          Update sent;
+          if (next != null && next.version == version + 1 && next.baseVersion == version) {
+            send(EVENT_DELTA, next, json(next, true));
+            sent = next;
+          } else {
+            send(EVENT_STATE, latest, json(latest, false));
+            sent = latest;
+          }
+          version = sent.version;
+          if (sent.finished) {
+            close();
+          }
+        }
+      } catch (IOException | RuntimeException e) {
+        log.debug("Closing a game update stream", e);
+        unsubscribe(gameId, this);
+        // the emitter is locked by a write that may still be blocked
+        writers.execute(() -> emitter.completeWithError(e));
+      }
+    }
+
+    private void send(String name, Update update, String json) throws IOException {
+      Future<?> write = writers.submit(() -> {
+        emitter.send(SseEmitter.event().name(name).id(String.valueOf(update.version))
+          .data(json, MediaType.APPLICATION_JSON));
+        return null;
+      });
+      try {
+        write.get(sendTimeoutMillis, TimeUnit.MILLISECONDS);
+      } catch (TimeoutException e) {
+        write.cancel(true);
+        throw new IOException("The client did not read an update for " + sendTimeoutMillis + " ms");
+      } catch (ExecutionException e) {
+        throw e.getCause() instanceof IOException cause ? cause : new IOException(e.getCause());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IOException(e);
+      }
+    }
+
+    /**
+     * Completes the stream without waiting, it may be called while the game's lock is held.
+     */
+    private void close() {
+      closed = true;
+      writers.execute(emitter::complete);
+    }
+  }
+}
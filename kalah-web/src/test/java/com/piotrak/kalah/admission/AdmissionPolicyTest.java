@@ -0,0 +1,164 @@
+package com.piotrak.kalah.admission;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.piotrak.kalah.admission.AdmissionPolicy.Rejection;
+import com.piotrak.kalah.admission.AdmissionPolicy.RequestKind;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+public class AdmissionPolicyTest {
+
+  private long now = TimeUnit.SECONDS.toNanos(1_000);
+
+  @Test
+  public void test_admit_clientRate() {
+    AdmissionPolicy policy = policy(new AdmissionProperties(true, null, 100, 2, 3, 1_000, 1_000, 50, 100, 64, 8,
+      512, Duration.ofMillis(50), 0.9, 0.75));
+
+    for (int i = 0; i < 3; i++) {
+      admitAndComplete(policy, RequestKind.CREATE, "10.0.0.1");
+    }
+    Rejection rejection = policy.admit(RequestKind.CREATE, "10.0.0.1");
+    assertEquals(AdmissionRejection.CLIENT_RATE, rejection.reason());
+    assertEquals(1, rejection.retryAfter());
+    admitAndComplete(policy, RequestKind.CREATE, "10.0.0.2");
+    admitAndComplete(policy, RequestKind.MOVE, "10.0.0.1");
+
+    now += TimeUnit.MILLISECONDS.toNanos(500);
+    admitAndComplete(policy, RequestKind.CREATE, "10.0.0.1");
+    assertEquals(AdmissionRejection.CLIENT_RATE, policy.admit(RequestKind.CREATE, "10.0.0.1").reason());
+  }
+
+  @Test
+  public void test_admit_globalCreateRate() {
+    AdmissionPolicy policy = policy(new AdmissionProperties(true, null, 100, 100, 100, 0.5, 2, 50, 100, 64, 8,
+      512, Duration.ofMillis(50), 0.9, 0.75));
+
+    admitAndComplete(policy, RequestKind.CREATE, "10.0.0.1");
+    admitAndComplete(policy, RequestKind.CREATE, "10.0.0.2");
+    Rejection rejection = policy.admit(RequestKind.CREATE, "10.0.0.3");
+
+    assertEquals(AdmissionRejection.GLOBAL_RATE, rejection.reason());
+    assertEquals(2, rejection.retryAfter());
+    admitAndComplete(policy, RequestKind.MOVE, "10.0.0.3");
+  }
+
+  @Test
+  public void test_admit_movesBeforeNewGames() {
+    AdmissionPolicy policy = policy(new AdmissionProperties(true, null, 100, 1_000, 1_000, 1_000, 1_000, 1_000,
+      1_000, 8, 8, 64, Duration.ofMillis(50), 0.9, 0.5));
+
+    for (int i = 0; i < 4; i++) {
+      assertNull(policy.admit(RequestKind.CREATE, "10.0.0." + i));
+    }
+    assertEquals(AdmissionRejection.CONCURRENCY, policy.admit(RequestKind.CREATE, "10.0.0.9").reason());
+    for (int i = 0; i < 4; i++) {
+      assertNull(policy.admit(RequestKind.MOVE, "10.0.0." + i));
+    }
+    Rejection rejection = policy.admit(RequestKind.MOVE, "10.0.0.9");
+    assertEquals(AdmissionRejection.CONCURRENCY, rejection.reason());
+    assertEquals(1, rejection.retryAfter());
+    assertEquals(8, policy.getInFlight());
+  }
+
+  @Test
+  public void test_admit_shedRequestsDoNotChargeTheClient() {
+    AdmissionPolicy policy = policy(new AdmissionProperties(true, null, 100, 2, 2, 1_000, 1_000, 1, 2, 1, 1, 1,
+      Duration.ofMillis(50), 0.9, 1));
+
+    long start = policy.now();
+    assertNull(policy.admit(RequestKind.MOVE, "10.0.0.1"));
+    for (int i = 0; i < 5; i++) {
+      assertEquals(AdmissionRejection.CONCURRENCY, policy.admit(RequestKind.MOVE, "10.0.0.2").reason());
+      assertEquals(AdmissionRejection.CONCURRENCY, policy.admit(RequestKind.CREATE, "10.0.0.2").reason());
+    }
+    policy.complete(RequestKind.MOVE, start);
+
+    admitAndComplete(policy, RequestKind.MOVE, "10.0.0.2");
+    admitAndComplete(policy, RequestKind.MOVE, "10.0.0.2");
+    admitAndComplete(policy, RequestKind.CREATE, "10.0.0.2");
+    admitAndComplete(policy, RequestKind.CREATE, "10.0.0.2");
+    assertEquals(AdmissionRejection.CLIENT_RATE, policy.admit(RequestKind.MOVE, "10.0.0.2").reason());
+  }
+
+  @Test
+  public void test_complete_adaptsLimitToLatency() {
+    AdmissionPolicy policy = policy(new AdmissionProperties(true, null, 100, 1_000, 1_000, 1_000, 1_000,
+      1_000_000, 1_000_000, 16, 4, 64, Duration.ofMillis(50), 0.5, 0.75));
+
+    // fast moves raise the limit by one per limit's worth of moves completing while half of it is in use
+    for (int round = 0; round < 20; round++) {
+      int limit = policy.getConcurrencyLimit();
+      long start = now;
+      for (int i = 0; i < limit; i++) {
+        assertNull(policy.admit(RequestKind.MOVE, "10.0.0.1"));
+      }
+      now += TimeUnit.MILLISECONDS.toNanos(5);
+      for (int i = 0; i < limit; i++) {
+        policy.complete(RequestKind.MOVE, start);
+      }
+    }
+    assertTrue(policy.getConcurrencyLimit() >= 24, "limit " + policy.getConcurrencyLimit());
+    int raised = policy.getConcurrencyLimit();
+
+    // a burst of slow moves halves it once, the next ones once per latency target
+    long start = now;
+    for (int i = 0; i < 10; i++) {
+      assertNull(policy.admit(RequestKind.MOVE, "10.0.0.1"));
+    }
+    now += TimeUnit.MILLISECONDS.toNanos(200);
+    for (int i = 0; i < 10; i++) {
+      policy.complete(RequestKind.MOVE, start);
+    }
+    assertEquals(raised / 2, policy.getConcurrencyLimit(), 1);
+    for (int i = 0; i < 10; i++) {
+      assertNull(policy.admit(RequestKind.MOVE, "10.0.0.1"));
+      start = now;
+      now += TimeUnit.MILLISECONDS.toNanos(100);
+      policy.complete(RequestKind.MOVE, start);
+    }
+    assertEquals(4, policy.getConcurrencyLimit());
+    assertEquals(0, policy.getInFlight());
+  }
+
+  @Test
+  public void test_admit_forgetsIdleClients() {
+    AdmissionPolicy policy = policy(new AdmissionProperties(true, null, 2, 1, 1, 1_000, 1_000, 50, 100, 64, 8, 512,
+      Duration.ofMillis(50), 0.9, 0.75));
+
+    admitAndComplete(policy, RequestKind.CREATE, "10.0.0.1");
+    admitAndComplete(policy, RequestKind.CREATE, "10.0.0.2");
+    assertEquals(AdmissionRejection.CLIENTS, policy.admit(RequestKind.CREATE, "10.0.0.3").reason());
+
+    now += TimeUnit.SECONDS.toNanos(1);
+    admitAndComplete(policy, RequestKind.CREATE, "10.0.0.3");
+  }
+
+  @Test
+  public void test_kindOf() {
+    assertEquals(RequestKind.CREATE, AdmissionFilter.kindOf("POST", "/games"));
+    assertEquals(RequestKind.CREATE, AdmissionFilter.kindOf("POST", "/games/"));
+    assertEquals(RequestKind.MOVE, AdmissionFilter.kindOf("PUT", "/games/7/pits/3"));
+    assertEquals(RequestKind.MOVE, AdmissionFilter.kindOf("PUT", "/games/7/pits"));
+    assertEquals(RequestKind.MOVE, AdmissionFilter.kindOf("POST", "/games/7/undo"));
+    assertEquals(RequestKind.COMPUTE, AdmissionFilter.kindOf("POST", "/games/7/ai-move"));
+    assertEquals(RequestKind.CREATE, AdmissionFilter.kindOf("POST", "/matchmaking"));
+    assertNull(AdmissionFilter.kindOf("GET", "/games/7"));
+    assertNull(AdmissionFilter.kindOf("GET", "/games/7/history"));
+    assertNull(AdmissionFilter.kindOf("POST", "/gamesx"));
+    assertNull(AdmissionFilter.kindOf("GET", "/cluster"));
+  }
+
+  private AdmissionPolicy policy(AdmissionProperties properties) {
+    return new AdmissionPolicy(properties, () -> now);
+  }
+
+  private void admitAndComplete(AdmissionPolicy policy, RequestKind kind, String client) {
+    assertNull(policy.admit(kind, client));
+    policy.complete(kind, now);
+  }
+}
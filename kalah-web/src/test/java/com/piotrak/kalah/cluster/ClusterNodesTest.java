@@ -0,0 +1,87 @@
+package com.piotrak.kalah.cluster;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.piotrak.kalah.Application;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Three application contexts standing in for the nodes of a cluster.
+ */
+public class ClusterNodesTest {
+
+  private static final List<String> NODES = List.of("node-a", "node-b", "node-c");
+  private static final Map<String, ConfigurableApplicationContext> CONTEXTS = new LinkedHashMap<>();
+
+  private final HttpClient client = HttpClient.newHttpClient();
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  @BeforeAll
+  public static void startNodes() {
+    for (String node : NODES) {
+      CONTEXTS.put(node, new SpringApplicationBuilder(Application.class).run(
+        "--server.port=0",
+        "--spring.main.banner-mode=off",
+        "--kalah.cluster.nodes=" + String.join(",", NODES),
+        "--kalah.cluster.node=" + node));
+    }
+  }
+
+  @AfterAll
+  public static void stopNodes() {
+    CONTEXTS.values().forEach(ConfigurableApplicationContext::close);
+  }
+
+  @Test
+  public void test_createGame_onShardOfTheNode() throws Exception {
+    JsonNode cluster = get("node-a", "/cluster");
+    List<String> owners = objectMapper.convertValue(cluster.get("owners"),
+      objectMapper.getTypeFactory().constructCollectionType(List.class, String.class));
+    int shardShift = cluster.get("shardShift").asInt();
+
+    for (String node : NODES) {
+      for (int i = 0; i < 10; i++) {
+        JsonNode game = send(node, HttpRequest.newBuilder(uri(node, "/games"))
+          .POST(HttpRequest.BodyPublishers.noBody()), 201);
+        int gameId = game.get("id").asInt();
+        assertEquals(node, owners.get(gameId >>> shardShift));
+        assertEquals(uri(node, "/games/" + gameId).toString(), game.get("url").asText());
+
+        for (String other : NODES) {
+          send(other, HttpRequest.newBuilder(uri(other, "/games/" + gameId)), other.equals(node) ? 200 : 400);
+        }
+      }
+    }
+  }
+
+  private JsonNode get(String node, String path) throws IOException, InterruptedException {
+    return send(node, HttpRequest.newBuilder(uri(node, path)), 200);
+  }
+
+  private JsonNode send(String node, HttpRequest.Builder request, int expectedStatus)
+    throws IOException, InterruptedException {
+    HttpResponse<String> response = client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    assertEquals(expectedStatus, response.statusCode(), node + ": " + response.body());
+    return objectMapper.readTree(response.body());
+  }
+
+  private static URI uri(String node, String path) {
+    int port = ((WebServerApplicationContext) CONTEXTS.get(node)).getWebServer().getPort();
+    return URI.create("http://localhost:" + port + path);
+  }
+}
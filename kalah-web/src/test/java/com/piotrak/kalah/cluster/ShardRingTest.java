@@ -0,0 +1,51 @@
+package com.piotrak.kalah.cluster;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class ShardRingTest {
+
+  @Test
+  public void test_ownerOf_deterministicAndBalanced() {
+    ShardRing ring = new ShardRing(List.of("node-a", "node-b", "node-c", "node-d"), 64);
+
+    assertEquals(ring.getOwners(), new ShardRing(List.of("node-a", "node-b", "node-c", "node-d"), 64).getOwners());
+    int total = 0;
+    for (String node : ring.getNodes()) {
+      int shards = ring.shardsOf(node).length;
+      assertTrue(shards > ShardRing.SHARDS / 4 / 2 && shards < ShardRing.SHARDS / 4 * 2, node + " owns " + shards);
+      total += shards;
+    }
+    assertEquals(ShardRing.SHARDS, total);
+  }
+
+  @Test
+  public void test_withNode_movesShardsOnlyToTheNewNode() {
+    ShardRing ring = new ShardRing(List.of("node-a", "node-b", "node-c"), 64);
+
+    ShardRing grown = ring.withNode("node-d");
+
+    int moved = 0;
+    for (int shard = 0; shard < ShardRing.SHARDS; shard++) {
+      if (!ring.ownerOf(shard).equals(grown.ownerOf(shard))) {
+        assertEquals("node-d", grown.ownerOf(shard));
+        moved++;
+      }
+    }
+    assertEquals(moved, grown.shardsOf("node-d").length);
+    assertTrue(moved > ShardRing.SHARDS / 4 / 2 && moved < ShardRing.SHARDS / 4 * 2, moved + " shards moved");
+  }
+
+  @Test
+  public void test_gameId_carriesShard() {
+    int gameId = ShardRing.gameId(255, ShardRing.MAX_SEQUENCE);
+
+    assertTrue(gameId > 0);
+    assertEquals(255, ShardRing.shardOf(gameId));
+    assertEquals(ShardRing.MAX_SEQUENCE, ShardRing.sequenceOf(gameId));
+    assertEquals(7, ShardRing.gameId(0, 7));
+  }
+}
@@ -0,0 +1,76 @@
+package com.piotrak.kalah.cluster;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.piotrak.kalah.model.Game;
+import com.piotrak.kalah.repository.GameRepository;
+import com.piotrak.kalah.repository.InMemoryGameRepository;
+import com.piotrak.kalah.service.GameService;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+public class ShardedGameRepositoryTest {
+
+  private static final String BASE_URL = "http://localhost:8080/games";
+
+  @Test
+  public void test_nextId_onlyLocalShards() {
+    ShardRing ring = new ShardRing(List.of("node-a", "node-b"), 64);
+    ShardedGameRepository repository =
+      new ShardedGameRepository(ring, Map.of("node-a", new InMemoryGameRepository()));
+    GameService service = new GameService(repository, List.of());
+
+    for (int i = 0; i < 1_000; i++) {
+      Game game = service.createGame(BASE_URL);
+      assertEquals("node-a", ring.ownerOfGame(game.getId()));
+      assertTrue(game.getUrl().endsWith("/" + game.getId()));
+    }
+    assertEquals(1_000, repository.size());
+
+    int foreignId = ShardRing.gameId(ring.shardsOf("node-b")[0], 1);
+    assertNull(repository.find(foreignId));
+    Game foreign = Game.builder().id(foreignId).build();
+    assertThrows(IllegalStateException.class, () -> repository.save(foreign));
+  }
+
+  @Test
+  public void test_addNode_movesGamesOfItsShards() {
+    ShardRing ring = new ShardRing(List.of("node-a", "node-b", "node-c"), 64);
+    Map<String, GameRepository> backends = new LinkedHashMap<>();
+    for (String node : ring.getNodes()) {
+      backends.put(node, new InMemoryGameRepository());
+    }
+    ShardedGameRepository repository = new ShardedGameRepository(ring, backends);
+    GameService service = new GameService(repository, List.of());
+    List<Game> games = new ArrayList<>();
+    for (int i = 0; i < 3_000; i++) {
+      Game game = service.createGame(BASE_URL);
+      service.makeMove(game.getId(), 1);
+      games.add(repository.find(game.getId()));
+    }
+
+    InMemoryGameRepository added = new InMemoryGameRepository();
+    int moved = repository.addNode("node-d", added);
+
+    assertEquals(added.size(), moved);
+    assertTrue(moved > games.size() / 8 && moved < games.size() / 2, moved + " games moved");
+    assertEquals(games.size(), repository.size());
+    for (Game game : games) {
+      String owner = repository.getRing().ownerOfGame(game.getId());
+      assertEquals(owner.equals("node-d"), added.find(game.getId()) != null);
+      assertSame(game, repository.find(game.getId()));
+      assertEquals(1, service.snapshot(game.getId()).getVersion());
+      service.makeMove(game.getId(), 2);
+      assertEquals(2, service.snapshot(game.getId()).getVersion());
+    }
+    assertNotNull(service.createGame(BASE_URL));
+  }
+}
@@ -0,0 +1,126 @@
+package com.piotrak.kalah.engine;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.piotrak.kalah.model.Board;
+import com.piotrak.kalah.model.Game;
+import com.piotrak.kalah.repository.InMemoryGameRepository;
+import com.piotrak.kalah.service.GameService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jol.info.GraphLayout;
+
+public class PackedBoardTest {
+
+  private static final int GAMES = 1_000;
+
+  @Test
+  public void test_pack_roundTrip() {
+    SplittableRandom random = new SplittableRandom(11);
+    int[][] variants = {{6, 6}, {4, 3}, {1, 1}, {6, 20}, {12, 99}};
+    for (int[] rules : variants) {
+      KalahVariant variant = KalahVariant.of(rules[0], rules[1]);
+      for (int i = 0; i < 1_000; i++) {
+        int[] pits = randomBoard(variant, random);
+
+        PackedBoard packed = PackedBoard.pack(variant, pits);
+
+        assertArrayEquals(pits, packed.unpack(), variant.toString());
+        for (int pit = 1; pit <= variant.getBoardSize(); pit++) {
+          assertEquals(pits[pit], packed.get(pit));
+        }
+        assertEquals(packed, PackedBoard.pack(variant, packed.unpack()));
+        assertEquals(packed.hashCode(), PackedBoard.pack(variant, packed.unpack()).hashCode());
+      }
+    }
+  }
+
+  @Test
+  public void test_equals_differentVariants() {
+    PackedBoard standard = PackedBoard.pack(KalahVariant.STANDARD, new int[15]);
+    PackedBoard other = PackedBoard.pack(KalahVariant.of(6, 5), new int[15]);
+
+    assertNotEquals(standard, other);
+  }
+
+  @Test
+  public void test_intern_sharesEqualPositions() {
+    int[] pits = KalahVariant.STANDARD.newBoard();
+    KalahVariant.STANDARD.move(pits, 3, true);
+    PackedBoard first = PackedBoard.pack(KalahVariant.STANDARD, pits);
+    PackedBoard second = PackedBoard.pack(KalahVariant.STANDARD, pits);
+
+    assertNotSame(first, second);
+    assertSame(first.intern(), second.intern());
+  }
+
+  @Test
+  public void test_game_sharesOpeningPositions() {
+    GameService service = new GameService(new InMemoryGameRepository(), List.of());
+    Game first = service.createGame("http://localhost:8080/games");
+    Game second = service.createGame("http://localhost:8080/games");
+    assertSame(first.getPosition(), second.getPosition());
+
+    service.makeMove(first.getId(), 1);
+    service.makeMove(second.getId(), 1);
+
+    assertSame(service.snapshot(first.getId()).getPosition(), service.snapshot(second.getId()).getPosition());
+  }
+
+  @Test
+  public void test_footprint_perStoredGame() {
+    InMemoryGameRepository repository = new InMemoryGameRepository();
+    GameService service = new GameService(repository, List.of());
+    SplittableRandom random = new SplittableRandom(3);
+    for (int i = 0; i < GAMES; i++) {
+      int gameId = service.createGame("http://localhost:8080/games").getId();
+      int moves = random.nextInt(40);
+      for (int move = 0; move < moves && !service.snapshot(gameId).isFinished(); move++) {
+        service.makeMove(gameId, randomLegalPit(service.snapshot(gameId), random));
+      }
+    }
+
+    // the boards the stored games retain, against the immutable map of rocks by pit every game held before,
+    // without the board record wrapping it as JOL cannot lay out records
+    List<Object> positions = new ArrayList<>();
+    List<Object> mapBoards = new ArrayList<>();
+    repository.forEach(game -> {
+      positions.add(game.getPosition());
+      mapBoards.add(Board.of(game.getPits()).status());
+    });
+    assertEquals(GAMES, positions.size());
+    long packedSize = GraphLayout.parseInstance(positions.toArray()).totalSize();
+    long mapSize = GraphLayout.parseInstance(mapBoards.toArray()).totalSize();
+    String sizes = packedSize / GAMES + " bytes per game against " + mapSize / GAMES;
+    assertTrue(packedSize <= 40 * GAMES, sizes);
+    assertTrue(mapSize >= 7 * packedSize, sizes);
+  }
+
+  private static int randomLegalPit(Game game, SplittableRandom random) {
+    KalahVariant variant = game.getVariant();
+    int firstPit = variant.firstPitOf(game.isPlayerOneMove());
+    int pit = firstPit + random.nextInt(variant.getPitsPerPlayer());
+    while (game.getPosition().get(pit) == 0) {
+      pit = pit == firstPit + variant.getPitsPerPlayer() - 1 ? firstPit : pit + 1;
+    }
+    return pit;
+  }
+
+  private static int[] randomBoard(KalahVariant variant, SplittableRandom random) {
+    int[] pits = new int[variant.getBoardSize() + 1];
+    int rocks = variant.getTotalRocks();
+    for (int pit = 1; pit < variant.getBoardSize() && rocks > 0; pit++) {
+      pits[pit] = random.nextInt(rocks + 1);
+      rocks -= pits[pit];
+    }
+    pits[variant.getBoardSize()] = rocks;
+    return pits;
+  }
+}
@@ -0,0 +1,269 @@
+package com.piotrak.kalah.journal;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.piotrak.kalah.exception.ForbiddenOperationException;
+import com.piotrak.kalah.model.BatchMode;
+import com.piotrak.kalah.model.Game;
+import com.piotrak.kalah.model.GameMode;
+import com.piotrak.kalah.repository.InMemoryGameRepository;
+import com.piotrak.kalah.service.GameListener;
+import com.piotrak.kalah.service.GameService;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class JournalTest {
+
+  @TempDir
+  Path directory;
+
+  @Test
+  public void test_recover_restoresGames() throws IOException {
+    Game first;
+    Game second;
+    Game variant;
+    Game practice;
+    try (Journal journal = open(Durability.SYNC)) {
+      GameService service = new GameService(new InMemoryGameRepository(), List.of(new JournalGameListener(journal)));
+      first = service.createGame("http://localhost:8080/games");
+      second = service.createGame("http://localhost:8080/games");
+      variant = service.createGame("http://localhost:8080/games", 4, 20);
+      practice = service.createGame("http://localhost:8080/games", 6, 6, GameMode.PRACTICE);
+      service.makeMove(variant.getId(), 3);
+      service.makeMoves(practice.getId(), List.of(1, 2, 8), BatchMode.STOP);
+      service.undoMove(practice.getId());
+      service.makeMove(first.getId(), 1);
+      service.makeMove(first.getId(), 2);
+      service.makeMoves(second.getId(), List.of(6, 13, 2), BatchMode.STOP);
+      int secondId = second.getId();
+      assertThrows(ForbiddenOperationException.class,
+        () -> service.makeMoves(secondId, List.of(10, 7), BatchMode.ALL_OR_NOTHING));
+      first = service.snapshot(first.getId());
+      second = service.snapshot(secondId);
+      variant = service.snapshot(variant.getId());
+      practice = service.snapshot(practice.getId());
+    }
+
+    try (Journal journal = open(Durability.SYNC)) {
+      GameService service = new GameService(new InMemoryGameRepository(), List.of(new JournalGameListener(journal)));
+      new JournalRecovery(journal, new SnapshotStore(directory, 2), service).recover();
+
+      assertSameGame(first, service.snapshot(first.getId()));
+      assertSameGame(second, service.snapshot(second.getId()));
+      assertSameGame(variant, service.snapshot(variant.getId()));
+      assertSameGame(practice, service.snapshot(practice.getId()));
+      assertEquals(practice.getId() + 1, service.createGame("http://localhost:8080/games").getId());
+    }
+  }
+
+  @Test
+  public void test_sync_awaitsDurabilityAfterTheLock() throws IOException {
+    // the flusher only forces when a writer waits for it
+    try (Journal journal = new Journal(directory, Journal.MIN_SEGMENT_SIZE, Durability.SYNC, Duration.ofHours(1))) {
+      List<Long> durableWhileLocked = new ArrayList<>();
+      GameService service = new GameService(new InMemoryGameRepository(), List.of(new JournalGameListener(journal),
+        new GameListener() {
+          @Override
+          public void moveMade(Game game, int pitId) {
+            durableWhileLocked.add(journal.getDurablePosition());
+          }
+        }));
+      Game game = service.createGame("http://localhost:8080/games");
+      long created = journal.getPosition();
+      assertEquals(created, journal.getDurablePosition());
+
+      service.makeMove(game.getId(), 1);
+
+      assertEquals(List.of(created), durableWhileLocked);
+      assertTrue(journal.getPosition() > created);
+      assertEquals(journal.getPosition(), journal.getDurablePosition());
+    }
+  }
+
+  @Test
+  public void test_replay_dropsTornTail() throws IOException {
+    try (Journal journal = open(Durability.NONE)) {
+      journal.appendCreate(1, "http://localhost/games", 6, 6, GameMode.TWO_PLAYER);
+      journal.appendMove(1, 1, 1);
+      journal.appendMove(1, 8, 2);
+    }
+    Path segment = segments().get(0);
+    try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+      // the base url takes three records, the checksum of the last move is the end of the sixth record
+      file.seek(6 * Journal.RECORD_SIZE - 1);
+      file.write(0x55);
+    }
+
+    try (Journal journal = open(Durability.NONE)) {
+      assertEquals(List.of("create 1 http://localhost/games", "move 1 1 1"), replay(journal));
+      journal.appendRemove(1);
+    }
+    try (Journal journal = open(Durability.NONE)) {
+      assertEquals(List.of("create 1 http://localhost/games", "move 1 1 1", "remove 1"), replay(journal));
+    }
+  }
+
+  @Test
+  public void test_append_rollsOverSegments() throws IOException {
+    int moves = 3 * Journal.MIN_SEGMENT_SIZE / Journal.RECORD_SIZE;
+    try (Journal journal = open(Durability.ASYNC)) {
+      journal.appendCreate(1, "http://localhost/games", 6, 6, GameMode.TWO_PLAYER);
+      for (int i = 1; i <= moves; i++) {
+        journal.appendMove(1, 1, i);
+      }
+      journal.appendCreate(2, "http://localhost/games", 6, 6, GameMode.TWO_PLAYER);
+    }
+    assertTrue(segments().size() > 3);
+
+    try (Journal journal = open(Durability.ASYNC)) {
+      List<String> records = replay(journal);
+      assertEquals(moves + 2, records.size());
+      assertEquals("move 1 1 " + moves, records.get(moves));
+      assertEquals("create 2 http://localhost/games", records.get(moves + 1));
+    }
+  }
+
+  @Test
+  public void test_recover_loadsSnapshotAndReplaysTail() throws IOException {
+    Game first;
+    Game second;
+    Game variant;
+    Game practice;
+    try (Journal journal = open(Durability.NONE)) {
+      GameService service = new GameService(new InMemoryGameRepository(), List.of(new JournalGameListener(journal)));
+      first = service.createGame("http://localhost:8080/games");
+      for (int i = 0; i < Journal.MIN_SEGMENT_SIZE / Journal.RECORD_SIZE; i++) {
+        service.createGame("http://localhost:8080/games");
+      }
+      service.makeMove(first.getId(), 1);
+      variant = service.createGame("http://localhost:8080/games", 12, 99);
+      service.makeMove(variant.getId(), 12);
+      practice = service.createGame("http://localhost:8080/games", 6, 6, GameMode.PRACTICE);
+      service.makeMoves(practice.getId(), List.of(1, 2, 8, 3), BatchMode.STOP);
+      new GameSnapshotter(service, journal, new SnapshotStore(directory, 1), Duration.ZERO).snapshot();
+      assertEquals(1, segments().size());
+
+      service.makeMove(first.getId(), 2);
+      second = service.createGame("http://localhost:8080/games");
+      service.makeMove(second.getId(), 3);
+      service.undoMove(practice.getId());
+      first = service.snapshot(first.getId());
+      second = service.snapshot(second.getId());
+      variant = service.snapshot(variant.getId());
+      practice = service.snapshot(practice.getId());
+    }
+
+    try (Journal journal = open(Durability.NONE)) {
+      GameService service = new GameService(new InMemoryGameRepository(), List.of(new JournalGameListener(journal)));
+      new JournalRecovery(journal, new SnapshotStore(directory, 1), service).recover();
+
+      assertSameGame(first, service.snapshot(first.getId()));
+      assertSameGame(second, service.snapshot(second.getId()));
+      assertSameGame(variant, service.snapshot(variant.getId()));
+      assertSameGame(practice, service.snapshot(practice.getId()));
+      assertEquals(3, service.history(practice.getId()).moves().size());
+      assertEquals(2, service.snapshot(first.getId()).getVersion());
+    }
+  }
+
+  @Test
+  public void test_load_skipsDamagedSnapshot() throws IOException {
+    SnapshotStore store = new SnapshotStore(directory, 2);
+    GameService service = new GameService(new InMemoryGameRepository(), List.of());
+    Game game = service.createGame("http://localhost:8080/games");
+    store.write(service.snapshotGames(), 16);
+    service.makeMove(game.getId(), 1);
+    store.write(service.snapshotGames(), 32);
+    try (Stream<Path> files = Files.list(directory)) {
+      Path latest = files.sorted().reduce((a, b) -> b).orElseThrow();
+      try (RandomAccessFile file = new RandomAccessFile(latest.toFile(), "rw")) {
+        file.setLength(file.length() - 1);
+      }
+    }
+
+    List<Game> games = new ArrayList<>();
+    assertEquals(16, store.load(games::add));
+    assertEquals(1, games.size());
+    assertEquals(0, games.get(0).getVersion());
+    assertEquals(game.getUrl(), games.get(0).getUrl());
+  }
+
+  @Test
+  public void test_load_skipsOtherFormatVersion() throws IOException {
+    SnapshotStore store = new SnapshotStore(directory, 2);
+    GameService service = new GameService(new InMemoryGameRepository(), List.of());
+    service.createGame("http://localhost:8080/games");
+    store.write(service.snapshotGames(), 16);
+    store.write(service.snapshotGames(), 32);
+    try (Stream<Path> files = Files.list(directory)) {
+      Path latest = files.sorted().reduce((a, b) -> b).orElseThrow();
+      try (RandomAccessFile file = new RandomAccessFile(latest.toFile(), "rw")) {
+        file.seek(Integer.BYTES);
+        file.writeInt(SnapshotStore.FORMAT_VERSION - 1);
+      }
+    }
+
+    List<Game> games = new ArrayList<>();
+    assertEquals(16, store.load(games::add));
+    assertEquals(1, games.size());
+  }
+
+  private Journal open(Durability durability) throws IOException {
+    return new Journal(directory, Journal.MIN_SEGMENT_SIZE, durability, Duration.ofMillis(1));
+  }
+
+  private List<Path> segments() throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files.filter(file -> file.getFileName().toString().startsWith("journal-")).sorted().toList();
+    }
+  }
+
+  private static List<String> replay(Journal journal) throws IOException {
+    List<String> records = new ArrayList<>();
+    journal.replay(0, new JournalHandler() {
+      @Override
+      public void gameCreated(int gameId, String baseUrl, int pitsPerPlayer, int initialRocks, GameMode mode) {
+        records.add("create " + gameId + " " + baseUrl);
+      }
+
+      @Override
+      public void moveMade(int gameId, int pitId, int version) {
+        records.add("move " + gameId + " " + pitId + " " + version);
+      }
+
+      @Override
+      public void moveUndone(int gameId, int version) {
+        records.add("undo " + gameId + " " + version);
+      }
+
+      @Override
+      public void gameRemoved(int gameId) {
+        records.add("remove " + gameId);
+      }
+    });
+    return records;
+  }
+
+  private static void assertSameGame(Game expected, Game actual) {
+    assertEquals(expected.getUrl(), actual.getUrl());
+    assertSame(expected.getVariant(), actual.getVariant());
+    assertEquals(expected.getMode(), actual.getMode());
+    assertArrayEquals(expected.getHistory().toBytes(), actual.getHistory().toBytes());
+    assertArrayEquals(expected.getPits(), actual.getPits());
+    assertEquals(expected.getVersion(), actual.getVersion());
+    assertEquals(expected.isPlayerOneMove(), actual.isPlayerOneMove());
+    assertEquals(expected.getMessage(), actual.getMessage());
+  }
+}
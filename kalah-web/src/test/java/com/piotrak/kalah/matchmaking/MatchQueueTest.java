@@ -0,0 +1,115 @@
+package com.piotrak.kalah.matchmaking;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.piotrak.kalah.engine.KalahVariant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.Test;
+
+public class MatchQueueTest {
+
+  private static final KalahVariant SMALL = KalahVariant.of(4, 3);
+
+  private final MatchQueue<String> queue = new MatchQueue<>(100, player -> !player.startsWith("gone"));
+
+  @Test
+  public void test_enqueue_pairsPlayersOfTheSameVariant() {
+    Ticket<String> first = ticket("first", KalahVariant.STANDARD, Ticket.UNRATED);
+
+    assertNull(queue.enqueue(first));
+    assertNull(queue.enqueue(ticket("small", SMALL, Ticket.UNRATED)));
+    assertNull(queue.enqueue(ticket("rated", KalahVariant.STANDARD, 1500)));
+    assertEquals(3, queue.getWaitingCount());
+
+    assertSame(first, queue.enqueue(ticket("second", KalahVariant.STANDARD, Ticket.UNRATED)));
+    assertEquals(2, queue.getWaitingCount());
+  }
+
+  @Test
+  public void test_enqueue_pairsCloseRatingsOfNeighbouringBands() {
+    Ticket<String> upper = ticket("upper", KalahVariant.STANDARD, 1490);
+    Ticket<String> lower = ticket("lower", KalahVariant.STANDARD, 1610);
+
+    assertNull(queue.enqueue(upper));
+    assertNull(queue.enqueue(lower));
+    // 1560 is in the upper half of its band, closer to 1610 than to 1490
+    assertSame(lower, queue.enqueue(ticket("middle", KalahVariant.STANDARD, 1560)));
+    assertSame(upper, queue.enqueue(ticket("next", KalahVariant.STANDARD, 1510)));
+    assertNull(queue.enqueue(ticket("far", KalahVariant.STANDARD, 1720)));
+  }
+
+  @Test
+  public void test_cancel_stopsWaiting() {
+    Ticket<String> cancelled = ticket("cancelled", KalahVariant.STANDARD, Ticket.UNRATED);
+    queue.enqueue(cancelled);
+
+    assertTrue(queue.cancel(cancelled));
+    assertFalse(queue.cancel(cancelled));
+    assertEquals(0, queue.getWaitingCount());
+    assertNull(queue.enqueue(ticket("next", KalahVariant.STANDARD, Ticket.UNRATED)));
+
+    Ticket<String> paired = ticket("paired", SMALL, Ticket.UNRATED);
+    Ticket<String> opponent = ticket("opponent", SMALL, Ticket.UNRATED);
+    queue.enqueue(paired);
+    queue.enqueue(opponent);
+    assertFalse(queue.cancel(paired));
+    assertFalse(queue.cancel(opponent));
+    assertEquals(1, queue.getWaitingCount());
+  }
+
+  @Test
+  public void test_enqueue_dropsPlayersWhoWentAway() {
+    queue.enqueue(ticket("gone", KalahVariant.STANDARD, Ticket.UNRATED));
+
+    assertNull(queue.enqueue(ticket("player", KalahVariant.STANDARD, Ticket.UNRATED)));
+    assertEquals(1, queue.getWaitingCount());
+  }
+
+  @Test
+  public void test_enqueue_pairsEveryPlayerOnceUnderContention() throws Exception {
+    int threads = 4;
+    int playersPerThread = 20_000;
+    Set<String> paired = ConcurrentHashMap.newKeySet();
+    AtomicBoolean pairedTwice = new AtomicBoolean();
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < threads; t++) {
+        int thread = t;
+        futures.add(executor.submit(() -> {
+          for (int i = 0; i < playersPerThread; i++) {
+            Ticket<String> ticket = ticket(thread + "-" + i, KalahVariant.STANDARD, i % 3 * 40);
+            Ticket<String> opponent = queue.enqueue(ticket);
+            if (opponent != null && !(paired.add(opponent.getPlayer()) & paired.add(ticket.getPlayer()))) {
+              pairedTwice.set(true);
+            }
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+
+    assertFalse(pairedTwice.get());
+    assertEquals(threads * playersPerThread, paired.size() + queue.getWaitingCount());
+    assertTrue(queue.getWaitingCount() <= 1);
+  }
+
+  private static Ticket<String> ticket(String player, KalahVariant variant, int rating) {
+    return new Ticket<>(player, variant, rating);
+  }
+}
@@ -0,0 +1,59 @@
+package com.piotrak.kalah.matchmaking;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.piotrak.kalah.exception.InvalidRequestException;
+import com.piotrak.kalah.exception.MoveRejection;
+import com.piotrak.kalah.model.Match;
+import com.piotrak.kalah.repository.InMemoryGameRepository;
+import com.piotrak.kalah.service.GameService;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.async.DeferredResult;
+
+public class MatchmakerTest {
+
+  private static final String URL = "http://localhost:8080/games";
+
+  private final InMemoryGameRepository repository = new InMemoryGameRepository();
+  private final Matchmaker matchmaker = new Matchmaker(new GameService(repository, List.of()),
+    new MatchmakingProperties(Duration.ofSeconds(30), 100, 5000));
+
+  @Test
+  public void test_enqueue_createsOneGameForBothPlayers() {
+    DeferredResult<ResponseEntity<Match>> first = matchmaker.enqueue(URL, 4, 3, null);
+    assertFalse(first.hasResult());
+    assertEquals(1, matchmaker.getWaitingCount());
+
+    DeferredResult<ResponseEntity<Match>> second = matchmaker.enqueue(URL, 4, 3, null);
+
+    Match firstMatch = match(first);
+    Match secondMatch = match(second);
+    assertEquals(firstMatch.game().getId(), secondMatch.game().getId());
+    assertEquals(4, firstMatch.game().getPitsPerPlayer());
+    assertTrue(firstMatch.playerOne());
+    assertFalse(secondMatch.playerOne());
+    assertEquals(1, repository.size());
+    assertEquals(0, matchmaker.getWaitingCount());
+    assertEquals(1, matchmaker.getMatchCount());
+  }
+
+  @Test
+  public void test_enqueue_rejectsUnsupportedRating() {
+    InvalidRequestException exception =
+      assertThrows(InvalidRequestException.class, () -> matchmaker.enqueue(URL, 6, 6, 5001));
+    assertEquals(MoveRejection.INVALID_RATING, exception.getReason());
+    assertThrows(InvalidRequestException.class, () -> matchmaker.enqueue(URL, 13, 6, null));
+    assertEquals(0, matchmaker.getWaitingCount());
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Match match(DeferredResult<ResponseEntity<Match>> result) {
+    return ((ResponseEntity<Match>) result.getResult()).getBody();
+  }
+}
@@ -0,0 +1,79 @@
+package com.piotrak.kalah.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.piotrak.kalah.exception.ForbiddenOperationException;
+import com.piotrak.kalah.exception.InvalidRequestException;
+import com.piotrak.kalah.exception.MoveRejection;
+import com.piotrak.kalah.model.BatchMode;
+import com.piotrak.kalah.model.Game;
+import com.piotrak.kalah.repository.InMemoryGameRepository;
+import com.piotrak.kalah.service.GameService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class GameMetricsTest {
+
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private final InMemoryGameRepository repository = new InMemoryGameRepository();
+  private final GameMetrics metrics = new GameMetrics(registry);
+  private final GameService service = new GameService(repository, List.of(), metrics);
+
+  @Test
+  public void test_makeMove_recordsOutcome() {
+    Game game = service.createGame("http://localhost:8080/games");
+    service.makeMove(game.getId(), 1);
+    assertThrows(ForbiddenOperationException.class, () -> service.makeMove(game.getId(), 1));
+    assertThrows(InvalidRequestException.class, () -> service.makeMove(game.getId(), 15));
+
+    assertEquals(1, registry.get("kalah.games.create").timer().count());
+    assertEquals(1, registry.get("kalah.games.move").tag("outcome", "applied").timer().count());
+    assertEquals(2, registry.get("kalah.games.move").tag("outcome", "rejected").timer().count());
+  }
+
+  @Test
+  public void test_makeMoves_recordsEveryMove() {
+    Game game = service.createGame("http://localhost:8080/games");
+    service.makeMoves(game.getId(), List.of(1, 2, 2, 3), BatchMode.STOP);
+    assertThrows(ForbiddenOperationException.class,
+      () -> service.makeMoves(game.getId(), List.of(8, 8), BatchMode.ALL_OR_NOTHING));
+
+    assertEquals(2, registry.get("kalah.games.move").tag("outcome", "applied").timer().count());
+    assertEquals(2, registry.get("kalah.games.move").tag("outcome", "rejected").timer().count());
+    assertEquals(1, registry.get("kalah.requests.rejected").tag("reason", "empty_pit").counter().count());
+  }
+
+  @Test
+  public void test_recordRejection_countsPerReason() {
+    Game game = service.createGame("http://localhost:8080/games");
+    RuntimeException emptyPit = assertThrows(ForbiddenOperationException.class, () -> {
+      service.makeMove(game.getId(), 1);
+      service.makeMove(game.getId(), 1);
+    });
+    RuntimeException unknownGame = assertThrows(IllegalArgumentException.class, () -> service.makeMove(-1, 1));
+    metrics.recordRejection(MoveRejection.of(emptyPit));
+    metrics.recordRejection(MoveRejection.of(unknownGame));
+    metrics.recordRejection(MoveRejection.of(new IllegalStateException()));
+
+    assertEquals(1, registry.get("kalah.requests.rejected").tag("reason", "empty_pit").counter().count());
+    assertEquals(1, registry.get("kalah.requests.rejected").tag("reason", "unknown_game").counter().count());
+    assertEquals(1, registry.get("kalah.requests.rejected").tag("reason", "other").counter().count());
+    assertEquals(0, registry.get("kalah.requests.rejected").tag("reason", "kalah_pit").counter().count());
+  }
+
+  @Test
+  public void test_gauges_followStore() {
+    new GameStoreMetrics(repository).bindTo(registry);
+    service.createGame("http://localhost:8080/games");
+    Game finished = service.createGame("http://localhost:8080/games").copy().toBuilder().finished(true).build();
+    service.restoreGame(finished);
+
+    assertEquals(2, registry.get("kalah.games.live").gauge().value());
+    assertEquals(1, registry.get("kalah.games.finished").gauge().value());
+    repository.delete(finished.getId());
+    assertEquals(0, registry.get("kalah.games.finished").gauge().value());
+    assertEquals(repository.getMaxGames(), registry.get("kalah.games.capacity").gauge().value());
+  }
+}
@@ -0,0 +1,193 @@
+package com.piotrak.kalah.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.piotrak.kalah.engine.KalahVariant;
+import com.piotrak.kalah.model.Game;
+import com.piotrak.kalah.service.GameListener;
+import com.piotrak.kalah.service.GameService;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+
+public class InMemoryGameRepositoryTest {
+
+  private static final GameStoreProperties PROPERTIES =
+    new GameStoreProperties(3, Duration.ofSeconds(60), Duration.ofSeconds(5), Duration.ofSeconds(1), 8);
+
+  private final MutableClock clock = new MutableClock();
+  private final InMemoryGameRepository repository = new InMemoryGameRepository(PROPERTIES, clock);
+
+  @Test
+  public void test_expire_idleGame() {
+    Game game = newGame();
+    repository.save(game);
+
+    clock.advance(Duration.ofSeconds(59));
+    repository.expire();
+    assertNotNull(repository.find(game.getId()));
+
+    clock.advance(Duration.ofSeconds(59));
+    repository.expire();
+    assertNotNull(repository.find(game.getId()));
+
+    clock.advance(Duration.ofSeconds(61));
+    repository.expire();
+    assertNull(repository.find(game.getId()));
+    assertEquals(1, repository.getExpiredCount());
+  }
+
+  @Test
+  public void test_expire_finishedGame() {
+    Game game = newGame();
+    repository.save(game);
+    game.setFinished(true);
+    repository.finished(game);
+
+    clock.advance(Duration.ofSeconds(6));
+    repository.expire();
+
+    assertNull(repository.find(game.getId()));
+    assertEquals(1, repository.getFinishedExpiredCount());
+  }
+
+  @Test
+  public void test_save_evictsLeastRecentlyUsed() {
+    Game first = newGame();
+    Game second = newGame();
+    Game third = newGame();
+    repository.save(first);
+    repository.save(second);
+    repository.save(third);
+    repository.find(first.getId());
+    repository.find(third.getId());
+
+    Game fourth = newGame();
+    repository.save(fourth);
+
+    assertNull(repository.find(second.getId()));
+    assertNotNull(repository.find(first.getId()));
+    assertNotNull(repository.find(fourth.getId()));
+    assertEquals(3, repository.size());
+    assertEquals(1, repository.getEvictedCount());
+  }
+
+  @Test
+  public void test_save_evictsFinishedGameFirst() {
+    Game first = newGame();
+    Game second = newGame();
+    Game third = newGame();
+    repository.save(first);
+    repository.save(second);
+    repository.save(third);
+    repository.find(first.getId());
+    repository.find(second.getId());
+    repository.find(third.getId());
+    second.setFinished(true);
+    repository.finished(second);
+
+    repository.save(newGame());
+
+    assertNull(repository.find(second.getId()));
+    assertNotNull(repository.find(first.getId()));
+  }
+
+  @Test
+  public void test_expire_racingMove() throws Exception {
+    List<String> changes = new CopyOnWriteArrayList<>();
+    AtomicReference<Thread> racer = new AtomicReference<>();
+    AtomicReference<Throwable> racerFailure = new AtomicReference<>();
+    AtomicReference<GameService> service = new AtomicReference<>();
+    service.set(new GameService(repository, List.of(new GameListener() {
+      @Override
+      public void moveMade(Game game, int pitId) {
+        changes.add("move " + pitId);
+        if (pitId == 1) {
+          // the game is expired meanwhile but its lock is held, expiry leaves it for the next tick
+          clock.advance(Duration.ofSeconds(61));
+          runAndJoin(repository::expire);
+        }
+      }
+
+      @Override
+      public void gameRemoved(int gameId) {
+        changes.add("remove");
+        // a move waiting for the lock of the game being removed is rejected
+        Thread thread = new Thread(() -> {
+          try {
+            service.get().makeMove(gameId, 2);
+          } catch (Throwable e) {
+            racerFailure.set(e);
+          }
+        });
+        racer.set(thread);
+        thread.start();
+      }
+    })));
+    int gameId = service.get().createGame("url").getId();
+
+    service.get().makeMove(gameId, 1);
+    assertNotNull(repository.find(gameId));
+
+    clock.advance(Duration.ofSeconds(61));
+    repository.expire();
+    racer.get().join();
+
+    assertNull(repository.find(gameId));
+    assertEquals(List.of("move 1", "remove"), changes);
+    assertTrue(racerFailure.get() instanceof IllegalArgumentException, String.valueOf(racerFailure.get()));
+  }
+
+  private static void runAndJoin(Runnable action) {
+    Thread thread = new Thread(action);
+    thread.start();
+    try {
+      thread.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private Game newGame() {
+    int gameId = repository.nextId();
+    return Game.builder()
+      .id(gameId)
+      .url("url/" + gameId)
+      .position(KalahVariant.STANDARD.getInitialPosition())
+      .playerOneMove(true)
+      .build();
+  }
+
+  private static class MutableClock extends Clock {
+
+    private Instant instant = Instant.parse("2024-01-01T00:00:00Z");
+
+    void advance(Duration duration) {
+      instant = instant.plus(duration);
+    }
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      return this;
+    }
+
+    @Override
+    public Instant instant() {
+      return instant;
+    }
+  }
+}
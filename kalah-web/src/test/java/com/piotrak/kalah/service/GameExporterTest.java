@@ -0,0 +1,94 @@
+package com.piotrak.kalah.service;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.piotrak.kalah.model.Game;
+import com.piotrak.kalah.repository.InMemoryGameRepository;
+import com.piotrak.kalah.service.GameExporter.Filter;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.Test;
+
+public class GameExporterTest {
+
+  private static final String URL = "http://localhost:8080/games";
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final InMemoryGameRepository repository = new InMemoryGameRepository();
+  private final GameService service = new GameService(repository, List.of());
+  private final GameExporter exporter = new GameExporter(repository, objectMapper);
+
+  @Test
+  public void test_export_writesOneLinePerGame() throws Exception {
+    Game game = service.createGame(URL);
+    service.makeMove(game.getId(), 1);
+    service.createGame(URL, 4, 3);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    long written = exporter.export(out, Filter.ALL, false);
+
+    List<JsonNode> lines = lines(out.toString(UTF_8));
+    assertEquals(2, written);
+    assertEquals(2, lines.size());
+    JsonNode first = lines.stream().filter(line -> line.get("id").asInt() == game.getId()).findFirst().orElseThrow();
+    assertEquals(14, first.get("board").size());
+    assertEquals(0, first.get("board").get(0).asInt());
+    assertEquals(1, first.get("board").get(6).asInt());
+    assertTrue(first.get("playerOneMove").asBoolean());
+    assertEquals(Game.MESSAGE_MOVE_AGAIN + Game.MESSAGE_PLAYER_ONE_MOVE, first.get("message").asText());
+    assertEquals(1, first.get("moves").asInt());
+    assertTrue(out.toString(UTF_8).endsWith("}\n"));
+  }
+
+  @Test
+  public void test_export_filtersFinishedAndUpdatedGames() throws Exception {
+    Game finished = service.createGame(URL, 1, 1);
+    service.makeMove(finished.getId(), 1);
+    Game old = service.createGame(URL);
+    repository.find(old.getId()).setUpdatedMillis(Instant.parse("2020-01-01T00:00:00Z").toEpochMilli());
+
+    ByteArrayOutputStream finishedOnly = new ByteArrayOutputStream();
+    exporter.export(finishedOnly, new Filter(true, null), false);
+    ByteArrayOutputStream recent = new ByteArrayOutputStream();
+    exporter.export(recent, new Filter(false, Instant.parse("2021-01-01T00:00:00Z")), false);
+
+    assertEquals(List.of(finished.getId()), ids(finishedOnly.toString(UTF_8)));
+    assertEquals(List.of(finished.getId()), ids(recent.toString(UTF_8)));
+  }
+
+  @Test
+  public void test_export_compressesLines() throws Exception {
+    for (int i = 0; i < 100; i++) {
+      service.createGame(URL);
+    }
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    exporter.export(out, Filter.ALL, true);
+
+    byte[] lines = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray())).readAllBytes();
+    assertEquals(100, lines(new String(lines, UTF_8)).size());
+    assertTrue(out.size() < lines.length / 4);
+  }
+
+  private List<JsonNode> lines(String ndjson) throws Exception {
+    List<JsonNode> lines = new ArrayList<>();
+    for (String line : ndjson.split("\n")) {
+      if (!line.isEmpty()) {
+        lines.add(objectMapper.readTree(line));
+      }
+    }
+    return lines;
+  }
+
+  private List<Integer> ids(String ndjson) throws Exception {
+    return lines(ndjson).stream().map(line -> line.get("id").asInt()).toList();
+  }
+}
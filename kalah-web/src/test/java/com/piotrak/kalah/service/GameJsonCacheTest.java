@@ -0,0 +1,103 @@
+package com.piotrak.kalah.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.piotrak.kalah.model.Game;
+import com.piotrak.kalah.repository.InMemoryGameRepository;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+public class GameJsonCacheTest {
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final InMemoryGameRepository repository = new InMemoryGameRepository();
+  private final GameJsonCache cache = new GameJsonCache(objectMapper, repository);
+  private final GameService service = new GameService(repository, List.of(cache));
+  private final AtomicInteger snapshots = new AtomicInteger();
+
+  private Game snapshot(int gameId) {
+    snapshots.incrementAndGet();
+    return service.snapshot(gameId);
+  }
+
+  @Test
+  public void test_get_serializesEachVersionOnce() throws Exception {
+    Game game = service.createGame("http://localhost:8080/games");
+
+    GameJsonCache.CachedGame first = cache.get(game.getId(), this::snapshot);
+    GameJsonCache.CachedGame second = cache.get(game.getId(), this::snapshot);
+
+    assertSame(first, second);
+    assertEquals(1, snapshots.get());
+    assertEquals(0, objectMapper.readTree(first.json()).get("version").asInt());
+
+    service.makeMove(game.getId(), 1);
+    GameJsonCache.CachedGame afterMove = cache.get(game.getId(), this::snapshot);
+
+    assertNotSame(first, afterMove);
+    assertEquals(2, snapshots.get());
+    assertEquals(1, afterMove.version());
+    assertEquals(1, objectMapper.readTree(afterMove.json()).get("version").asInt());
+  }
+
+  @Test
+  public void test_get_removedGame() {
+    Game game = service.createGame("http://localhost:8080/games");
+    cache.get(game.getId(), this::snapshot);
+
+    repository.delete(game.getId());
+    cache.gameRemoved(game.getId());
+
+    assertThrows(IllegalArgumentException.class, () -> cache.get(game.getId(), this::snapshot));
+  }
+
+  @Test
+  public void test_store_keepsNewerVersion() {
+    Game game = service.createGame("http://localhost:8080/games");
+    Game old = service.snapshot(game.getId());
+    service.makeMove(game.getId(), 1);
+    GameJsonCache.CachedGame current = cache.get(game.getId(), this::snapshot);
+
+    cache.store(old);
+
+    assertSame(current, cache.get(game.getId(), this::snapshot));
+  }
+
+  @Test
+  public void test_eTag_differsBetweenRuns() {
+    Game game = service.createGame("http://localhost:8080/games");
+    GameJsonCache restarted = new GameJsonCache(objectMapper, repository);
+
+    String eTag = cache.get(game.getId(), this::snapshot).eTag();
+
+    assertTrue(eTag.endsWith("-0\""));
+    assertFalse(restarted.get(game.getId(), this::snapshot).matches(List.of(eTag)));
+  }
+
+  @Test
+  public void test_cachedGame_conditionalResponses() {
+    GameJsonCache.CachedGame game = new GameJsonCache.CachedGame(3, new byte[] {'{', '}'}, "\"a1-3\"");
+
+    assertTrue(game.matches(List.of("\"a1-2\"", "\"a1-3\"")));
+    assertTrue(game.matches(List.of("W/\"a1-3\"")));
+    assertTrue(game.matches(List.of("*")));
+    assertFalse(game.matches(List.of("\"a1-4\"")));
+    assertFalse(game.matches(List.of("\"3\"", "\"b2-3\"")));
+    assertFalse(game.matches(List.of()));
+
+    ResponseEntity<byte[]> notModified = game.toNotModifiedResponse();
+    assertEquals(HttpStatus.NOT_MODIFIED, notModified.getStatusCode());
+    assertEquals("\"a1-3\"", notModified.getHeaders().getETag());
+    assertEquals(null, notModified.getBody());
+    assertSame(game.json(), game.toResponse().getBody());
+  }
+}
@@ -0,0 +1,101 @@
+package com.piotrak.kalah.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.piotrak.kalah.engine.KalahEngine;
+import com.piotrak.kalah.exception.ForbiddenOperationException;
+import com.piotrak.kalah.model.Game;
+import com.piotrak.kalah.repository.InMemoryGameRepository;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import org.junit.jupiter.api.Test;
+
+public class GameServiceConcurrencyTest {
+
+  private static final int THREADS = 64;
+  private static final int GAMES_PER_THREAD = 500;
+  private static final int SHARED_GAMES = 16;
+  private static final int MOVES_PER_THREAD = 2_000;
+  private static final int TOTAL_ROCKS = KalahEngine.PLAYER_PIT_NUMBER * KalahEngine.INITIAL_ROCKS_NUMBER * 2;
+
+  private final GameService service = new GameService(new InMemoryGameRepository(), List.of());
+
+  @Test
+  public void test_createGame_noDuplicateIds() throws Exception {
+    Set<Integer> ids = ConcurrentHashMap.newKeySet();
+
+    runConcurrently(() -> {
+      for (int i = 0; i < GAMES_PER_THREAD; i++) {
+        ids.add(service.createGame("url").getId());
+      }
+      return null;
+    });
+
+    assertEquals(THREADS * GAMES_PER_THREAD, ids.size());
+  }
+
+  @Test
+  public void test_makeMove_noLostUpdates() throws Exception {
+    List<Game> games = new ArrayList<>();
+    for (int i = 0; i < SHARED_GAMES; i++) {
+      games.add(service.createGame("url"));
+    }
+    AtomicIntegerArray successfulMoves = new AtomicIntegerArray(SHARED_GAMES);
+
+    runConcurrently(() -> {
+      ThreadLocalRandom random = ThreadLocalRandom.current();
+      for (int i = 0; i < MOVES_PER_THREAD; i++) {
+        int index = random.nextInt(SHARED_GAMES);
+        Game game = service.snapshot(games.get(index).getId());
+        int firstPit = game.isPlayerOneMove() ? KalahEngine.PLAYER_ONE_START_PIT : KalahEngine.PLAYER_TWO_START_PIT;
+        int pit = firstPit + random.nextInt(KalahEngine.PLAYER_PIT_NUMBER);
+        try {
+          service.makeMove(game.getId(), pit);
+          successfulMoves.incrementAndGet(index);
+        } catch (ForbiddenOperationException e) {
+          // stale read of the turn or an empty pit, another thread got there first
+        }
+      }
+      return null;
+    });
+
+    for (int i = 0; i < SHARED_GAMES; i++) {
+      Game game = service.snapshot(games.get(i).getId());
+      assertEquals(successfulMoves.get(i), game.getVersion());
+      int rocks = 0;
+      for (int pit = KalahEngine.PLAYER_ONE_START_PIT; pit <= KalahEngine.BOARD_SIZE; pit++) {
+        rocks += game.getPits()[pit];
+      }
+      assertEquals(TOTAL_ROCKS, rocks);
+    }
+  }
+
+  private void runConcurrently(Callable<Void> task) throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    CountDownLatch start = new CountDownLatch(1);
+    try {
+      List<Future<Void>> futures = new ArrayList<>();
+      for (int i = 0; i < THREADS; i++) {
+        futures.add(executor.submit(() -> {
+          start.await();
+          return task.call();
+        }));
+      }
+      start.countDown();
+      for (Future<Void> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
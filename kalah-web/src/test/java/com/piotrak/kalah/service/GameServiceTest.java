@@ -0,0 +1,391 @@
+package com.piotrak.kalah.service;
+
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import com.piotrak.kalah.engine.MoveHistory;
+import com.piotrak.kalah.exception.ForbiddenOperationException;
+import com.piotrak.kalah.exception.InvalidRequestException;
+import com.piotrak.kalah.exception.MoveRejection;
+import com.piotrak.kalah.model.BatchMode;
+import com.piotrak.kalah.model.BatchMoveResult;
+import com.piotrak.kalah.model.Board;
+import com.piotrak.kalah.model.Game;
+import com.piotrak.kalah.model.GameHistory;
+import com.piotrak.kalah.model.GameMode;
+import com.piotrak.kalah.model.GamePosition;
+import com.piotrak.kalah.model.LegalMoves;
+import com.piotrak.kalah.repository.InMemoryGameRepository;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.locks.Lock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class GameServiceTest {
+
+  private static final String URL = "url";
+
+  private final InMemoryGameRepository repository = new InMemoryGameRepository();
+  private final GameService service = new GameService(repository, List.of());
+
+  private Game game;
+
+  @BeforeEach
+  public void before() {
+    game = live(service.createGame(URL));
+  }
+
+  @Test
+  public void test_createGame() {
+    Game game2 = service.createGame(URL);
+
+    assertNotEquals(game.getUrl(), game2.getUrl());
+  }
+
+  @Test
+  public void test_createGame_variant() {
+    Game variant = live(service.createGame(URL, 4, 3));
+
+    assertEquals(4, variant.getPitsPerPlayer());
+    assertEquals(3, variant.getInitialRocks());
+    assertEquals(Map.of(1, 3, 2, 3, 3, 3, 4, 3, 5, 0, 6, 3, 7, 3, 8, 3, 9, 3, 10, 0), variant.getStatus());
+    assertThrows(ForbiddenOperationException.class, () -> service.makeMove(variant.getId(), 5));
+    assertThrows(IllegalArgumentException.class, () -> service.makeMove(variant.getId(), 11));
+
+    service.makeMove(variant.getId(), 2);
+    assertEquals(Map.of(1, 3, 2, 0, 3, 4, 4, 4, 5, 1, 6, 3, 7, 3, 8, 3, 9, 3, 10, 0), variant.getStatus());
+    assertTrue(variant.isPlayerOneMove());
+  }
+
+  @Test
+  public void test_createGame_unsupportedVariant() {
+    assertThrows(IllegalArgumentException.class, () -> service.createGame(URL, 0, 6));
+    assertThrows(IllegalArgumentException.class, () -> service.createGame(URL, 6, 100));
+  }
+
+  @Test()
+  public void test_makeMove_noGame() {
+    assertThrows(IllegalArgumentException.class, () -> service.makeMove(2, 1));
+  }
+
+  @Test()
+  public void test_makeMove_notYourTurn() {
+    game.setPlayerOneMove(true);
+
+    assertThrows(ForbiddenOperationException.class, () -> service.makeMove(game.getId(), 8));
+  }
+
+  @Test()
+  public void test_makeMove_fromEmptyPit() {
+    // Set pit 1 to 0
+    Map<Integer, Integer> customStatus = new HashMap<>(game.getStatus());
+    customStatus.put(1, 0);
+    game.setBoard(new Board(customStatus));
+
+    assertThrows(ForbiddenOperationException.class, () -> service.makeMove(game.getId(), 1));
+  }
+
+  @Test()
+  public void test_makeMove_fromKalah() {
+    assertThrows(ForbiddenOperationException.class, () -> service.makeMove(game.getId(), 7));
+  }
+
+  @Test()
+  public void test_makeMove_endInKalah() {
+    Game updatedGame = service.makeMove(game.getId(), 1);
+
+    assertTrue(updatedGame.isPlayerOneMove());
+  }
+
+  @Test()
+  public void test_makeMove_endInPit() {
+    Game updatedGame = service.makeMove(game.getId(), 5);
+
+    assertEquals(0, updatedGame.getStatus().get(5).intValue());
+    assertFalse(updatedGame.isPlayerOneMove());
+  }
+
+  @Test()
+  public void test_makeMove_endInOpponentKalah() {
+    // Set pit 6 to 8
+    Map<Integer, Integer> customStatus = new HashMap<>(game.getStatus());
+    customStatus.put(6, 8);
+    game.setBoard(new Board(customStatus));
+    int opponentKalah = game.getStatus().get(14);
+
+    Game updatedGame = service.makeMove(game.getId(), 6);
+
+    assertEquals(0, updatedGame.getStatus().get(6).intValue());
+    assertEquals(opponentKalah, updatedGame.getStatus().get(14).intValue());
+  }
+
+  @Test()
+  public void test_makeMove_endInEmptyPit() {
+    // Set pit 6 to 13
+    Map<Integer, Integer> customStatus = new HashMap<>(game.getStatus());
+    customStatus.put(6, 13);
+    game.setBoard(new Board(customStatus));
+
+    Game updatedGame = service.makeMove(game.getId(), 6);
+
+    assertEquals(0, updatedGame.getStatus().get(6).intValue());
+    assertEquals(0, updatedGame.getStatus().get(8).intValue());
+    assertEquals(9, updatedGame.getStatus().get(7).intValue());
+  }
+
+  @Test()
+  public void test_makeMove_playerOneWins() {
+    Map<Integer, Integer> customStatus = new HashMap<>();
+    customStatus.put(1, 0);
+    customStatus.put(2, 0);
+    customStatus.put(3, 0);
+    customStatus.put(4, 0);
+    customStatus.put(5, 0);
+    customStatus.put(6, 1);
+    customStatus.put(7, 10);
+    customStatus.put(8, 1);
+    customStatus.put(9, 1);
+    customStatus.put(10, 1);
+    customStatus.put(11, 1);
+    customStatus.put(12, 1);
+    customStatus.put(13, 1);
+    customStatus.put(14, 1);
+    game.setBoard(new Board(customStatus));
+
+    Game updatedGame = service.makeMove(game.getId(), 6);
+
+    assertEquals(0, updatedGame.getStatus().get(6).intValue());
+    assertEquals(0, updatedGame.getStatus().get(8).intValue());
+    assertEquals(11, updatedGame.getStatus().get(7).intValue());
+    assertEquals(7, updatedGame.getStatus().get(14).intValue());
+    assertTrue(updatedGame.getMessage().contains("Player One"));
+  }
+
+  @Test
+  public void test_makeMove_staleVersion() {
+    service.makeMove(game.getId(), 1);
+
+    ForbiddenOperationException exception =
+      assertThrows(ForbiddenOperationException.class, () -> service.makeMove(game.getId(), 2, 0));
+    assertEquals(MoveRejection.STALE_VERSION, exception.getReason());
+    assertEquals(1, game.getVersion());
+    assertEquals(2, service.makeMove(game.getId(), 2, 1).getVersion());
+  }
+
+  @Test
+  public void test_makeMove_gameRemovedBeforeLock() {
+    Set<Integer> removing = new HashSet<>();
+    InMemoryGameRepository removingRepository = new InMemoryGameRepository() {
+      @Override
+      public Lock lockFor(int gameId) {
+        if (removing.remove(gameId)) {
+          delete(gameId);
+        }
+        return super.lockFor(gameId);
+      }
+    };
+    List<String> changes = new ArrayList<>();
+    GameService removingService = new GameService(removingRepository, List.of(new GameListener() {
+      @Override
+      public void moveMade(Game game, int pitId) {
+        changes.add("move " + pitId);
+      }
+    }));
+    int gameId = removingService.createGame(URL, 6, 6, GameMode.PRACTICE).getId();
+    int otherId = removingService.createGame(URL, 6, 6, GameMode.PRACTICE).getId();
+    removingService.makeMove(otherId, 1);
+
+    removing.add(gameId);
+    assertThrows(IllegalArgumentException.class, () -> removingService.makeMove(gameId, 1));
+    removing.add(otherId);
+    assertThrows(IllegalArgumentException.class, () -> removingService.undoMove(otherId));
+    assertEquals(List.of("move 1"), changes);
+  }
+
+  @Test
+  public void test_makeMove_differentGames() {
+    Game game2 = service.createGame(URL);
+
+    Game updatedGame = service.makeMove(game.getId(), 1);
+    Game updatedGame2 = service.makeMove(game2.getId(), 2);
+
+    assertNotEquals(updatedGame.getStatus().get(1), updatedGame2.getStatus().get(1));
+  }
+
+  @Test
+  public void test_makeMoves_extraTurnChain() {
+    BatchMoveResult result = service.makeMoves(game.getId(), List.of(1, 2), BatchMode.STOP);
+
+    assertEquals(2, result.moves().size());
+    assertTrue(result.moves().get(1).applied());
+    assertEquals(0, result.game().getStatus().get(2).intValue());
+    assertEquals(2, result.game().getVersion());
+  }
+
+  @Test
+  public void test_makeMoves_stopOnRejectedMove() {
+    BatchMoveResult result = service.makeMoves(game.getId(), List.of(1, 7, 2), BatchMode.STOP);
+
+    assertTrue(result.moves().get(0).applied());
+    assertFalse(result.moves().get(1).applied());
+    assertFalse(result.moves().get(2).applied());
+    assertEquals(1, result.game().getVersion());
+  }
+
+  @Test
+  public void test_makeMoves_allOrNothing() {
+    Map<Integer, Integer> status = game.getStatus();
+
+    assertThrows(ForbiddenOperationException.class,
+      () -> service.makeMoves(game.getId(), List.of(1, 7, 2), BatchMode.ALL_OR_NOTHING));
+    assertEquals(status, game.getStatus());
+    assertEquals(0, game.getVersion());
+  }
+
+  @Test
+  public void test_undoMove_practice() {
+    Game practice = live(service.createGame(URL, 6, 6, GameMode.PRACTICE));
+    service.makeMoves(practice.getId(), List.of(1, 2), BatchMode.STOP);
+    Map<Integer, Integer> status = practice.getStatus();
+    service.makeMove(practice.getId(), 8);
+
+    service.undoMove(practice.getId());
+
+    assertEquals(status, practice.getStatus());
+    assertFalse(practice.isPlayerOneMove());
+    assertEquals(Game.MESSAGE_PLAYER_TWO_MOVE, practice.getMessage());
+    assertEquals(4, practice.getVersion());
+    assertEquals(List.of(new GameHistory.Move(0, 1, true), new GameHistory.Move(1, 2, true)),
+      service.history(practice.getId()).moves());
+  }
+
+  @Test
+  public void test_undoMove_restoresMessage() {
+    Game practice = live(service.createGame(URL, 6, 6, GameMode.PRACTICE));
+    // the move from pit 1 ends in player one's kalah
+    service.makeMoves(practice.getId(), List.of(1, 2, 8), BatchMode.STOP);
+
+    service.undoMove(practice.getId());
+    assertEquals(Game.MESSAGE_PLAYER_TWO_MOVE, practice.getMessage());
+    service.undoMove(practice.getId());
+    assertEquals(Game.MESSAGE_MOVE_AGAIN + Game.MESSAGE_PLAYER_ONE_MOVE, practice.getMessage());
+    service.undoMove(practice.getId());
+    assertEquals(Game.MESSAGE_GAME_CREATED, practice.getMessage());
+  }
+
+  @Test
+  public void test_undoMove_finishedGame() {
+    Game practice = live(service.createGame(URL, 1, 1, GameMode.PRACTICE));
+    service.makeMove(practice.getId(), 1);
+    assertTrue(practice.isFinished());
+
+    service.undoMove(practice.getId());
+
+    assertFalse(practice.isFinished());
+    assertEquals(Map.of(1, 1, 2, 0, 3, 1, 4, 0), practice.getStatus());
+    assertEquals(Game.MESSAGE_GAME_CREATED, practice.getMessage());
+    assertThrows(ForbiddenOperationException.class, () -> service.undoMove(practice.getId()));
+  }
+
+  @Test
+  public void test_undoMove_twoPlayer() {
+    service.makeMove(game.getId(), 1);
+
+    assertThrows(ForbiddenOperationException.class, () -> service.undoMove(game.getId()));
+    assertEquals(1, game.getVersion());
+  }
+
+  @Test
+  public void test_positionAt_replaysEveryPly() {
+    Game practice = live(service.createGame(URL, 6, 6, GameMode.PRACTICE));
+    SplittableRandom random = new SplittableRandom(5);
+    List<Map<Integer, Integer>> boards = new ArrayList<>();
+    List<Boolean> players = new ArrayList<>();
+    while (!practice.isFinished()) {
+      boards.add(practice.getStatus());
+      players.add(practice.isPlayerOneMove());
+      int firstPit = practice.isPlayerOneMove() ? 1 : 8;
+      int pit = firstPit + random.nextInt(6);
+      while (practice.getStatus().get(pit) == 0) {
+        pit = pit == firstPit + 5 ? firstPit : pit + 1;
+      }
+      service.makeMove(practice.getId(), pit);
+    }
+    assertTrue(boards.size() > MoveHistory.CHECKPOINT_INTERVAL);
+
+    for (int ply = 0; ply < boards.size(); ply++) {
+      GamePosition position = service.positionAt(practice.getId(), ply);
+      assertEquals(boards.get(ply), position.status(), "ply " + ply);
+      assertEquals(players.get(ply), position.playerOneMove());
+      assertFalse(position.finished());
+    }
+    assertTrue(service.positionAt(practice.getId(), boards.size()).finished());
+    assertThrows(IllegalArgumentException.class, () -> service.positionAt(practice.getId(), boards.size() + 1));
+  }
+
+  @Test
+  public void test_legalMoves_matchRejectedMoves() {
+    Game variant = live(service.createGame(URL, 4, 3));
+    SplittableRandom random = new SplittableRandom(17);
+    while (!variant.isFinished()) {
+      LegalMoves legalMoves = service.legalMoves(variant.getId());
+      assertEquals(variant.getVersion(), legalMoves.version());
+      assertEquals(variant.getLegalMoves(), legalMoves.pits());
+      for (int pit = 1; pit <= 10; pit++) {
+        boolean legal = (legalMoves.mask() & 1 << pit) != 0;
+        assertEquals(legal, legalMoves.pits().contains(pit));
+        assertEquals(legal, !variant.isFinished() && variant.getStatus().get(pit) > 0
+          && pit != 5 && pit != 10 && (pit < 5) == variant.isPlayerOneMove(), "pit " + pit);
+        if (!legal) {
+          int rejectedPit = pit;
+          assertThrows(ForbiddenOperationException.class, () -> service.makeMove(variant.getId(), rejectedPit));
+        }
+      }
+      service.makeMove(variant.getId(), legalMoves.pits().get(random.nextInt(legalMoves.pits().size())));
+    }
+    assertEquals(0, service.legalMoves(variant.getId()).mask());
+    assertTrue(variant.getLegalMoves().isEmpty());
+  }
+
+  @Test
+  public void test_makeMove_rejectsWithoutStackTrace() {
+    service.makeMove(game.getId(), 1);
+    ForbiddenOperationException kalah =
+      assertThrows(ForbiddenOperationException.class, () -> service.makeMove(game.getId(), 7));
+    ForbiddenOperationException otherPlayer =
+      assertThrows(ForbiddenOperationException.class, () -> service.makeMove(game.getId(), 8));
+    IllegalArgumentException unknownPit =
+      assertThrows(IllegalArgumentException.class, () -> service.makeMove(game.getId(), 15));
+
+    assertEquals(MoveRejection.KALAH_PIT, kalah.getReason());
+    assertEquals("Unable to move rocks from Kalah!", kalah.getMessage());
+    assertEquals("It is the other players turn!", otherPlayer.getMessage());
+    assertEquals("Unable to find a pit with id: 15", unknownPit.getMessage());
+    assertEquals(0, kalah.getStackTrace().length);
+    assertEquals(0, otherPlayer.getStackTrace().length);
+    assertEquals(0, unknownPit.getStackTrace().length);
+    assertSame(InvalidRequestException.class, unknownPit.getClass());
+    assertTrue(new InvalidRequestException(MoveRejection.OTHER, "message").getStackTrace().length > 0);
+    assertSame(kalah, assertThrows(ForbiddenOperationException.class, () -> service.makeMove(game.getId(), 7)));
+
+    BatchMoveResult result = service.makeMoves(game.getId(), List.of(2, 7), BatchMode.STOP);
+    assertEquals("Unable to move rocks from Kalah!", result.moves().get(1).message());
+  }
+
+  /**
+   * The service answers with copies, the tests set up and follow the game kept by the repository.
+   */
+  private Game live(Game copy) {
+    return repository.find(copy.getId());
+  }
+}
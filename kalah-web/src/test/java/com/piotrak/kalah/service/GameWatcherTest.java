@@ -0,0 +1,58 @@
+package com.piotrak.kalah.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.piotrak.kalah.model.Game;
+import com.piotrak.kalah.repository.InMemoryGameRepository;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.async.DeferredResult;
+
+public class GameWatcherTest {
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final InMemoryGameRepository repository = new InMemoryGameRepository();
+  private final GameWatcher watcher = new GameWatcher(new GameJsonCache(objectMapper, repository));
+  private final GameService service = new GameService(repository, List.of(watcher));
+
+  @Test
+  public void test_moveMade_completesWaitersOfTheGame() throws Exception {
+    Game game = service.createGame("http://localhost:8080/games");
+    Game other = service.createGame("http://localhost:8080/games");
+    DeferredResult<ResponseEntity<byte[]>> first = new DeferredResult<>();
+    DeferredResult<ResponseEntity<byte[]>> second = new DeferredResult<>();
+    DeferredResult<ResponseEntity<byte[]>> otherGame = new DeferredResult<>();
+    watcher.watch(game.getId(), first);
+    watcher.watch(game.getId(), second);
+    watcher.watch(other.getId(), otherGame);
+    assertEquals(3, watcher.getWaiterCount());
+
+    service.makeMove(game.getId(), 1);
+
+    ResponseEntity<?> response = (ResponseEntity<?>) first.getResult();
+    JsonNode result = objectMapper.readTree((byte[]) response.getBody());
+    assertEquals(1, result.get("version").asInt());
+    assertTrue(response.getHeaders().getETag().endsWith("-1\""));
+    assertSame(response, second.getResult());
+    assertFalse(otherGame.hasResult());
+    assertEquals(1, watcher.getWaiterCount());
+  }
+
+  @Test
+  public void test_gameRemoved_failsWaiters() {
+    DeferredResult<ResponseEntity<byte[]>> result = new DeferredResult<>();
+    watcher.watch(42, result);
+
+    watcher.gameRemoved(42);
+
+    assertInstanceOf(IllegalArgumentException.class, result.getResult());
+    assertEquals(0, watcher.getWaiterCount());
+  }
+}
@@ -0,0 +1,257 @@
+package com.piotrak.kalah.stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.piotrak.kalah.model.Game;
+import com.piotrak.kalah.model.GameUpdate;
+import com.piotrak.kalah.repository.InMemoryGameRepository;
+import com.piotrak.kalah.service.GameService;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+public class GameUpdatePublisherTest {
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final List<RecordingEmitter> emitters = new CopyOnWriteArrayList<>();
+  private GameUpdatePublisher publisher;
+  private GameService service;
+
+  @AfterEach
+  public void stop() {
+    publisher.stop();
+  }
+
+  @Test
+  public void test_subscribe_sendsStateThenDeltas() throws Exception {
+    start(64);
+    Game game = service.createGame("http://localhost:8080/games");
+    service.snapshot(game.getId(), publisher::subscribe);
+    service.snapshot(game.getId(), publisher::subscribe);
+    for (RecordingEmitter emitter : emitters) {
+      emitter.await(1);
+    }
+
+    service.makeMove(game.getId(), 1);
+    service.makeMove(game.getId(), 2);
+
+    RecordingEmitter first = emitters.get(0);
+    RecordingEmitter second = emitters.get(1);
+    first.await(3);
+    second.await(3);
+    assertEquals(List.of("state", "delta", "delta"), first.names);
+    GameUpdate state = first.update(0);
+    assertEquals(0, state.version());
+    assertEquals(14, state.pits().size());
+    GameUpdate delta = first.update(1);
+    assertEquals(1, delta.version());
+    assertEquals(Map.of(1, 0, 2, 7, 3, 7, 4, 7, 5, 7, 6, 7, 7, 1), delta.pits());
+    assertEquals(2, first.update(2).version());
+    // every update is serialized once for all the subscribers
+    assertSame(first.json.get(1), second.json.get(1));
+    assertEquals(2, publisher.getSubscriberCount());
+  }
+
+  @Test
+  public void test_slowSubscriber_skipsToLatestState() throws Exception {
+    start(4);
+    Game game = service.createGame("http://localhost:8080/games");
+    service.snapshot(game.getId(), publisher::subscribe);
+    RecordingEmitter emitter = emitters.get(0);
+    emitter.await(1);
+    emitter.blocked = new CountDownLatch(1);
+
+    service.makeMove(game.getId(), 1);
+    assertTrue(emitter.sending.await(5, TimeUnit.SECONDS));
+    List<Integer> pits = List.of(2, 8, 3, 9, 4, 10, 5);
+    pits.forEach(pit -> service.makeMove(game.getId(), pit));
+    emitter.blocked.countDown();
+
+    emitter.await(3);
+    assertEquals(List.of("state", "delta", "state"), emitter.names);
+    assertEquals(1, emitter.update(1).version());
+    GameUpdate latest = emitter.update(2);
+    assertEquals(8, latest.version());
+    assertEquals(service.snapshot(game.getId()).getPits()[1], latest.pits().get(1));
+  }
+
+  @Test
+  public void test_subscribe_moveAfterSnapshot_isDelivered() throws Exception {
+    start(64);
+    Game game = service.createGame("http://localhost:8080/games");
+    Thread mover = new Thread(() -> service.makeMove(game.getId(), 1));
+
+    service.snapshot(game.getId(), copy -> {
+      // the move waits for the game's lock until the subscriber is registered
+      mover.start();
+      awaitBlocked(mover);
+      return publisher.subscribe(copy);
+    });
+    mover.join();
+
+    RecordingEmitter emitter = emitters.get(0);
+    emitter.await(2);
+    // either the state of the copy and the move as a delta, or the state after the move if it came first
+    assertEquals("state", emitter.names.get(0));
+    assertEquals(1, emitter.update(emitter.names.size() - 1).version());
+  }
+
+  @Test
+  public void test_subscribe_staleCopy_getsLatestState() throws Exception {
+    start(64);
+    Game game = service.createGame("http://localhost:8080/games");
+    service.snapshot(game.getId(), publisher::subscribe);
+    emitters.get(0).await(1);
+    Game stale = service.snapshot(game.getId());
+    service.makeMove(game.getId(), 1);
+
+    publisher.subscribe(stale);
+
+    RecordingEmitter emitter = emitters.get(1);
+    emitter.await(1);
+    assertEquals(List.of("state"), emitter.names);
+    assertEquals(1, emitter.update(0).version());
+  }
+
+  @Test
+  public void test_subscribe_finishedGame_sendsStateAndCompletes() throws Exception {
+    start(64);
+    Game game = service.createGame("http://localhost:8080/games");
+    Game finished = service.snapshot(game.getId()).toBuilder().finished(true).build();
+
+    publisher.subscribe(finished);
+
+    RecordingEmitter emitter = emitters.get(0);
+    emitter.await(1);
+    assertEquals(List.of("state"), emitter.names);
+    assertTrue(emitter.update(0).finished());
+    assertTrue(emitter.completed);
+    assertEquals(0, publisher.getSubscriberCount());
+  }
+
+  @Test
+  public void test_gameRemoved_closesStreams() throws Exception {
+    start(64);
+    Game game = service.createGame("http://localhost:8080/games");
+    service.snapshot(game.getId(), publisher::subscribe);
+
+    publisher.gameRemoved(game.getId());
+
+    RecordingEmitter emitter = emitters.get(0);
+    emitter.await(1);
+    assertTrue(emitter.completed);
+  }
+
+  @Test
+  public void test_stalledSubscriber_isDropped() throws Exception {
+    start(64, Duration.ofMillis(200));
+    Game game = service.createGame("http://localhost:8080/games");
+    Game other = service.createGame("http://localhost:8080/games");
+    service.snapshot(game.getId(), publisher::subscribe);
+    service.snapshot(other.getId(), publisher::subscribe);
+    RecordingEmitter stalled = emitters.get(0);
+    RecordingEmitter reading = emitters.get(1);
+    stalled.await(1);
+    reading.await(1);
+    // the client of the first game stops reading, its write never returns unless interrupted
+    stalled.blocked = new CountDownLatch(1);
+
+    service.makeMove(game.getId(), 1);
+    assertTrue(stalled.sending.await(5, TimeUnit.SECONDS));
+    service.makeMove(other.getId(), 1);
+    service.makeMove(game.getId(), 2);
+    service.makeMove(other.getId(), 2);
+
+    // the only sender thread gives up on the stalled client and serves the other game
+    reading.await(3);
+    assertEquals(List.of("state", "delta", "delta"), reading.names);
+    assertEquals(2, reading.update(2).version());
+    stalled.await(2);
+    assertEquals(List.of("state"), stalled.names);
+    assertTrue(stalled.failed);
+    assertEquals(1, publisher.getSubscriberCount());
+  }
+
+  private static void awaitBlocked(Thread thread) {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (thread.getState() != Thread.State.WAITING && System.nanoTime() < deadline) {
+      Thread.onSpinWait();
+    }
+  }
+
+  private void start(int bufferSize) {
+    start(bufferSize, Duration.ofMinutes(1));
+  }
+
+  private void start(int bufferSize, Duration sendTimeout) {
+    publisher = new GameUpdatePublisher(objectMapper,
+      new GameStreamProperties(bufferSize, 1, Duration.ofMinutes(1), sendTimeout)) {
+      @Override
+      SseEmitter newEmitter(long timeoutMillis) {
+        RecordingEmitter emitter = new RecordingEmitter();
+        emitters.add(emitter);
+        return emitter;
+      }
+    };
+    service = new GameService(new InMemoryGameRepository(), List.of(publisher));
+  }
+
+  private class RecordingEmitter extends SseEmitter {
+
+    private final List<String> names = new CopyOnWriteArrayList<>();
+    private final List<Object> json = new CopyOnWriteArrayList<>();
+    private final CountDownLatch sending = new CountDownLatch(1);
+    private volatile CountDownLatch blocked;
+    private volatile boolean completed;
+    private volatile boolean failed;
+
+    @Override
+    public void send(SseEventBuilder builder) throws IOException {
+      List<Object> parts = builder.build().stream().map(DataWithMediaType::getData).toList();
+      String head = (String) parts.get(0);
+      try {
+        if (blocked != null && !names.isEmpty()) {
+          sending.countDown();
+          blocked.await();
+        }
+      } catch (InterruptedException e) {
+        throw new IOException(e);
+      }
+      names.add(head.substring("event:".length(), head.indexOf('\n')));
+      json.add(parts.get(1));
+    }
+
+    @Override
+    public void complete() {
+      completed = true;
+    }
+
+    @Override
+    public void completeWithError(Throwable ex) {
+      failed = true;
+    }
+
+    private void await(int events) throws InterruptedException {
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+      while (names.size() < events && System.nanoTime() < deadline) {
+        Thread.sleep(10);
+      }
+      Thread.sleep(50);
+    }
+
+    private GameUpdate update(int index) throws IOException {
+      return objectMapper.readValue((String) json.get(index), GameUpdate.class);
+    }
+  }
+}
@@ -1,8 +0,0 @@
-package com.piotrak.kalah.exception;
-
-public class ForbiddenOperationException extends RuntimeException {
-
-  public ForbiddenOperationException(String message) {
-    super(message);
-  }
-}